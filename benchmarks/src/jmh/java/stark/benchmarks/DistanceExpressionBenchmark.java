@@ -0,0 +1,113 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.EvolutionSequence;
+import stark.distance.*;
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateUpdate;
+import stark.ds.RelationOperator;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of each distance expression operator between a sequence and its perturbation.
+ * Both sequences are generated before the measurements, so that only the evaluation of the distances is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DistanceExpressionBenchmark {
+
+    static final int FROM = 5;
+    static final int TO = 25;
+    static final DataStateExpression PENALTY = ds -> ds.get(0);
+    static final Perturbation PERTURBATION = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(0, ds.get(0) + rg.nextDouble()))));
+
+    @Param({"atomic", "leq", "geq", "max", "min", "convex", "maxInterval", "minInterval", "threshold", "until", "skorokhod"})
+    public String operator;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private EvolutionSequence nominal;
+    private EvolutionSequence perturbed;
+    private DistanceExpression expression;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        nominal = SyntheticModels.sequence(2, size, 0);
+        perturbed = nominal.apply(PERTURBATION, 0, 1);
+        nominal.generateUpTo(2 * TO);
+        perturbed.generateUpTo(2 * TO);
+        expression = expression(operator);
+    }
+
+    /**
+     * The Skorokhod distance caches the Wasserstein distances it computes, hence a new expression is used
+     * at each invocation.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        if (operator.equals("skorokhod")) {
+            expression = expression(operator);
+        }
+    }
+
+    /**
+     * Returns the distance expression with the given operator at the top level.
+     *
+     * @param operator name of the operator.
+     * @return the distance expression with the given operator at the top level.
+     */
+    static DistanceExpression expression(String operator) {
+        DistanceExpression atomic = new AtomicDistanceExpression(PENALTY, (v1, v2) -> Math.abs(v2 - v1));
+        DistanceExpression leq = new AtomicDistanceExpressionLeq(PENALTY);
+        DistanceExpression geq = new AtomicDistanceExpressionGeq(PENALTY);
+        return switch (operator) {
+            case "atomic" -> atomic;
+            case "leq" -> leq;
+            case "geq" -> geq;
+            case "max" -> new MaxDistanceExpression(leq, geq);
+            case "min" -> new MinDistanceExpression(leq, geq);
+            case "convex" -> new ConvexCombinationDistanceExpression(new double[]{0.5, 0.5}, new DistanceExpression[]{leq, geq});
+            case "maxInterval" -> new MaxIntervalDistanceExpression(atomic, FROM, TO);
+            case "minInterval" -> new MinIntervalDistanceExpression(atomic, FROM, TO);
+            case "threshold" -> new ThresholdDistanceExpression(atomic, RelationOperator.LESS_THAN, 0.5);
+            case "until" -> new UntilDistanceExpression(leq, FROM, TO, geq);
+            case "skorokhod" -> new SkorokhodDistanceExpression(PENALTY, (v1, v2) -> Math.abs(v2 - v1), (a, b) -> b,
+                    offset -> (double) offset / TO, 0, TO, true, 5, 5);
+            default -> throw new IllegalArgumentException("Unknown operator " + operator);
+        };
+    }
+
+    @Benchmark
+    public double compute() {
+        return expression.compute(0, nominal, perturbed);
+    }
+
+}
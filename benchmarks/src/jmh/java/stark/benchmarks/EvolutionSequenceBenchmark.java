@@ -0,0 +1,61 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.EvolutionSequence;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the generation of the steps of an evolution sequence, on a small and on a large synthetic model.
+ * A new sequence is created at each invocation, so that each invocation generates all the steps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EvolutionSequenceBenchmark {
+
+    @Param({"2", "32"})
+    public int variables;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param({"50"})
+    public int steps;
+
+    private EvolutionSequence sequence;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        sequence = SyntheticModels.sequence(variables, size, 0);
+    }
+
+    @Benchmark
+    public EvolutionSequence generateUpTo() {
+        sequence.generateUpTo(steps);
+        return sequence;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.DefaultRandomGenerator;
+import stark.EvolutionSequence;
+import stark.distance.AtomicDistanceExpressionLeq;
+import stark.distance.MaxIntervalDistanceExpression;
+import stark.ds.RelationOperator;
+import stark.robtl.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of each robustness formula operator, under both the Boolean and the three-valued semantics.
+ * The nominal sequence is generated before the measurements, while the perturbed sequences are generated
+ * by the atomic formulae at each evaluation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RobustnessFormulaBenchmark {
+
+    static final int FROM = 2;
+    static final int TO = 8;
+
+    @Param({"true", "atomic", "negation", "conjunction", "disjunction", "implication", "always", "eventually", "until"})
+    public String operator;
+
+    @Param({"boolean", "threeValued"})
+    public String semantics;
+
+    @Param({"100"})
+    public int size;
+
+    private EvolutionSequence sequence;
+    private RobustnessFunction<?> function;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sequence = SyntheticModels.sequence(2, size, 0);
+        sequence.generateUpTo(4 * TO);
+        RobustnessFormula formula = formula(operator);
+        if (semantics.equals("boolean")) {
+            function = RobustnessFormula.getBooleanEvaluationFunction(formula);
+        } else {
+            DefaultRandomGenerator rg = new DefaultRandomGenerator();
+            rg.setSeed(0);
+            function = RobustnessFormula.getThreeValuedEvaluationFunction(rg, 50, 1.96, formula);
+        }
+    }
+
+    /**
+     * Returns the robustness formula with the given operator at the top level.
+     *
+     * @param operator name of the operator.
+     * @return the robustness formula with the given operator at the top level.
+     */
+    static RobustnessFormula formula(String operator) {
+        RobustnessFormula close = new AtomicRobustnessFormula(DistanceExpressionBenchmark.PERTURBATION,
+                new MaxIntervalDistanceExpression(new AtomicDistanceExpressionLeq(DistanceExpressionBenchmark.PENALTY), 0, TO),
+                RelationOperator.LESS_OR_EQUAL_THAN, 0.5);
+        RobustnessFormula far = new AtomicRobustnessFormula(DistanceExpressionBenchmark.PERTURBATION,
+                new AtomicDistanceExpressionLeq(DistanceExpressionBenchmark.PENALTY),
+                RelationOperator.GREATER_THAN, 0.1);
+        return switch (operator) {
+            case "true" -> new TrueRobustnessFormula();
+            case "atomic" -> close;
+            case "negation" -> new NegationRobustnessFormula(close);
+            case "conjunction" -> new ConjunctionRobustnessFormula(close, far);
+            case "disjunction" -> new DisjunctionRobustnessFormula(close, far);
+            case "implication" -> new ImplicationRobustnessFormula(close, far);
+            case "always" -> new AlwaysRobustnessFormula(far, FROM, TO);
+            case "eventually" -> new EventuallyRobustnessFormula(far, FROM, TO);
+            case "until" -> new UntilRobustnessFormula(far, FROM, TO, close);
+            default -> throw new IllegalArgumentException("Unknown operator " + operator);
+        };
+    }
+
+    @Benchmark
+    public Object eval() {
+        return function.eval(size, 0, sequence);
+    }
+
+}
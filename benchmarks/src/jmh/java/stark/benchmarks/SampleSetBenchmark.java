@@ -0,0 +1,81 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.DefaultRandomGenerator;
+import stark.SampleSet;
+import stark.SystemState;
+import stark.ds.DataStateExpression;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of the distances between two sample sets, and of their bootstrap confidence intervals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SampleSetBenchmark {
+
+    private static final DataStateExpression PENALTY = ds -> ds.get(0);
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private SampleSet<SystemState> nominal;
+    private SampleSet<SystemState> perturbed;
+    private DefaultRandomGenerator rg;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        nominal = SyntheticModels.sampleSet(size, 1);
+        perturbed = SyntheticModels.sampleSet(size * scale, 2);
+        rg = new DefaultRandomGenerator();
+        rg.setSeed(0);
+    }
+
+    @Benchmark
+    public double distance() {
+        return nominal.distance(PENALTY, perturbed);
+    }
+
+    @Benchmark
+    public double distanceLeq() {
+        return nominal.distanceLeq(PENALTY, perturbed);
+    }
+
+    @Benchmark
+    public double distanceGeq() {
+        return nominal.distanceGeq(PENALTY, perturbed);
+    }
+
+    @Benchmark
+    public double[] bootstrapDistance() {
+        return nominal.bootstrapDistance(rg, PENALTY, perturbed, 50, 1.96);
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.speclang.StarkSpecificationLanguageLexer;
+import stark.speclang.StarkSpecificationLanguageParser;
+import stark.speclang.semantics.StarkExpressionEvaluationFunction;
+import stark.speclang.semantics.StarkExpressionEvaluator;
+import stark.speclang.values.StarkReal;
+import stark.speclang.values.StarkValue;
+import stark.speclang.variables.StarkExpressionEvaluationContext;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of expressions of the specification language, both when the evaluation function is
+ * obtained once and reused, and when the expression is parsed and translated at each evaluation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpeclangExpressionBenchmark {
+
+    @Param({
+            "2 + 3 * 4",
+            "(x * x + 2.5 * x - 1.0) / (x + 4.0)",
+            "(x > 0.5) && (x < 2.0) ? sqrt(x) + max(x, 1.0) : abs(x - 3.0) ^ 2"
+    })
+    public String code;
+
+    private Map<String, StarkValue> parameters;
+    private StarkExpressionEvaluationFunction function;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        parameters = new HashMap<>();
+        parameters.put("x", new StarkReal(1.5));
+        function = translate(parse(code));
+    }
+
+    private ParseTree parse(String expression) {
+        StarkSpecificationLanguageLexer lexer = new StarkSpecificationLanguageLexer(CharStreams.fromString(expression));
+        return new StarkSpecificationLanguageParser(new CommonTokenStream(lexer)).expression();
+    }
+
+    private StarkExpressionEvaluationFunction translate(ParseTree tree) {
+        return tree.accept(new StarkExpressionEvaluator(new StarkExpressionEvaluationContext(parameters), null));
+    }
+
+    @Benchmark
+    public StarkValue eval() {
+        return function.eval();
+    }
+
+    @Benchmark
+    public StarkValue parseAndEval() {
+        return translate(parse(code)).eval();
+    }
+
+}
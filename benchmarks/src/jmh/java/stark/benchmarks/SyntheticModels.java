@@ -0,0 +1,105 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.ControlledSystem;
+import stark.EvolutionSequence;
+import stark.RandomStreams;
+import stark.SampleSet;
+import stark.SystemState;
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Synthetic models shared by the benchmarks. Each model is a random walk over a given number of variables,
+ * where a controller pushes the first variable towards zero and the environment perturbs all the variables.
+ */
+final class SyntheticModels {
+
+    private SyntheticModels() {
+    }
+
+    /**
+     * Returns the generator of the initial states of a random walk over the given number of variables.
+     *
+     * @param variables number of variables of the model.
+     * @return the generator of the initial states of the model.
+     */
+    static Function<RandomGenerator, SystemState> randomWalk(int variables) {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.ifThenElse(
+                        ds -> ds.get(0) > 0,
+                        Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(0, ds.get(0) - 0.5)), registry.reference("Ctrl")),
+                        Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(0, ds.get(0) + 0.5)), registry.reference("Ctrl"))
+                )
+        );
+        Controller controller = registry.reference("Ctrl");
+        DataStateFunction environment = (rg, ds) -> {
+            List<DataStateUpdate> updates = new ArrayList<>(variables);
+            for (int i = 0; i < variables; i++) {
+                updates.add(new DataStateUpdate(i, ds.get(i) + rg.nextDouble() - 0.5));
+            }
+            return ds.apply(updates);
+        };
+        return rg -> {
+            double[] values = new double[variables];
+            for (int i = 0; i < variables; i++) {
+                values[i] = rg.nextDouble();
+            }
+            return new ControlledSystem(controller, environment, new DataState(values));
+        };
+    }
+
+    /**
+     * Returns the evolution sequence of a random walk over the given number of variables.
+     *
+     * @param variables number of variables of the model.
+     * @param size number of samples of each step.
+     * @param seed seed of the random streams of the sequence.
+     * @return the evolution sequence of the model.
+     */
+    static EvolutionSequence sequence(int variables, int size, long seed) {
+        return new EvolutionSequence(null, new RandomStreams(seed), randomWalk(variables), size);
+    }
+
+    /**
+     * Returns a sample set of the given size of initial states of a random walk over a single variable.
+     *
+     * @param size number of samples.
+     * @param seed seed of the random streams used to sample the states.
+     * @return a sample set of the given size.
+     */
+    static SampleSet<SystemState> sampleSet(int size, long seed) {
+        return SampleSet.generate(new RandomStreams(seed), randomWalk(1), size);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.benchmarks;
+
+import stark.EvolutionSequence;
+import stark.PerceivedSystemState;
+import stark.SampleSet;
+import stark.distl.TargetDisTLFormula;
+import stark.distl.UntilDisTLFormula;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import stark.monitors.UntilMonitor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the online monitoring of an until formula over traces of different lengths.
+ * Each invocation feeds a fresh monitor with all the observations of a trace, generated before the measurements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UntilMonitorBenchmark {
+
+    static final DataStateFunction TARGET = (rg, ds) -> ds.apply(List.of(new DataStateUpdate(0, 0.0)));
+
+    @Param({"10", "50", "100"})
+    public int length;
+
+    @Param({"10", "100"})
+    public int size;
+
+    private UntilDisTLFormula formula;
+    private SampleSet<PerceivedSystemState>[] trace;
+    private UntilMonitor monitor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        formula = new UntilDisTLFormula(
+                new TargetDisTLFormula(TARGET, ds -> ds.get(0), 1.0),
+                0, length,
+                new TargetDisTLFormula(TARGET, ds -> ds.get(0), 0.5));
+        EvolutionSequence sequence = SyntheticModels.sequence(1, size, 0);
+        trace = new SampleSet[length + 2];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = sequence.getAsPerceivedSystemStates(i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        monitor = new UntilMonitor(formula, 0, size, false);
+        monitor.setRandomGeneratorSeed(0);
+    }
+
+    @Benchmark
+    public OptionalDouble evalNext() {
+        OptionalDouble result = OptionalDouble.empty();
+        for (SampleSet<PerceivedSystemState> sample : trace) {
+            result = monitor.evalNext(sample);
+        }
+        return result;
+    }
+
+}
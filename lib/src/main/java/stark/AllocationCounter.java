@@ -0,0 +1,65 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Estimates the number of bytes allocated by the threads of the virtual machine.
+ * The estimate is the sum of the bytes allocated by the live threads, hence it also accounts for
+ * threads that are not involved in the simulation and it misses threads that terminated in between.
+ */
+final class AllocationCounter {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the live threads, or <code>-1</code> if this estimate
+     * is not supported.
+     */
+    static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean threads)||!threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long result = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            result += Math.max(0, bytes);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the bytes allocated since the given estimate, or <code>-1</code> if estimates are not supported.
+     */
+    static long allocatedSince(long start) {
+        if (start < 0) {
+            return -1;
+        }
+        return Math.max(0, allocatedBytes() - start);
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateBooleanExpression;
+import stark.perturbation.Perturbation;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * An evolution sequence whose sample sets are the union of the ones of a growing number of batches.
+ * Each batch is an evolution sequence, and a new batch can be added at any time with {@link #addBatch()}:
+ * the samples of the new batch are appended to the steps already generated, so that all the samples
+ * generated so far are reused. Perturbations of a batched sequence are batched sequences too, whose batches
+ * are the perturbations of the batches of the original sequence; they follow the batches added to the original
+ * sequence and are cached, so that the same perturbation applied twice at the same step reuses its samples.
+ */
+public class BatchedEvolutionSequence extends EvolutionSequence {
+
+    private final IntFunction<EvolutionSequence> batchFactory;
+    private final BatchedEvolutionSequence source;
+    private final List<EvolutionSequence> batches = new ArrayList<>();
+    private final Map<Derivation, BatchedEvolutionSequence> perturbations = new HashMap<>();
+    private int sampleSize;
+    private boolean commonRandomNumbers;
+
+    /**
+     * Creates a batched evolution sequence with a single batch. The batch with index <code>j</code> is obtained
+     * as <code>batchFactory.apply(j)</code>, hence batches should use independent random streams.
+     *
+     * @param monitor monitor used to control generation of evolution sequence.
+     * @param batchFactory function used to generate the batches.
+     */
+    public BatchedEvolutionSequence(SimulationMonitor monitor, IntFunction<EvolutionSequence> batchFactory) {
+        this(monitor, null, batchFactory);
+    }
+
+    private BatchedEvolutionSequence(SimulationMonitor monitor, BatchedEvolutionSequence source, IntFunction<EvolutionSequence> batchFactory) {
+        super(monitor, null, List.of());
+        this.batchFactory = batchFactory;
+        this.source = source;
+        EvolutionSequence first = batchFactory.apply(0);
+        this.batches.add(first);
+        this.sampleSize = first.get(0).size();
+        this.commonRandomNumbers = first.isCommonRandomNumbers();
+        doAdd(new SampleSet<>(new ArrayList<>(first.get(0).stream().toList())));
+    }
+
+    /**
+     * Adds a new batch to this sequence. The samples of the new batch are added to all the steps generated so far.
+     *
+     * @throws UnsupportedOperationException if this sequence is the perturbation of another batched sequence,
+     * whose batches are added to the one it has been derived from.
+     */
+    public synchronized void addBatch() {
+        if (source != null) {
+            throw new UnsupportedOperationException("Batches of a perturbed sequence are added to its source");
+        }
+        doAddBatch();
+    }
+
+    private void doAddBatch() {
+        EvolutionSequence batch = batchFactory.apply(batches.size());
+        if (commonRandomNumbers) {
+            batch.setCommonRandomNumbers(true);
+        }
+        batches.add(batch);
+        sampleSize += batch.get(0).size();
+        for (int i = 0; i < length(); i++) {
+            SampleSet<SystemState> step = super.get(i);
+            batch.get(i).stream().forEach(step::add);
+        }
+    }
+
+    /**
+     * Adds to this sequence the batches added to the one it has been derived from.
+     */
+    private synchronized void align() {
+        if (source != null) {
+            while (batches.size() < source.getBatches()) {
+                doAddBatch();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of batches of this sequence.
+     *
+     * @return the number of batches of this sequence.
+     */
+    public synchronized int getBatches() {
+        return batches.size();
+    }
+
+    /**
+     * Returns the number of samples of the initial step of this sequence, namely the total number of samples
+     * in its batches.
+     *
+     * @return the number of samples of the initial step of this sequence.
+     */
+    public synchronized int getSampleSize() {
+        align();
+        return sampleSize;
+    }
+
+    @Override
+    public SampleSet<SystemState> get(int i) {
+        align();
+        return super.get(i);
+    }
+
+    @Override
+    protected SampleSet<SystemState> generateNextStep() {
+        int step = length();
+        List<SampleSet<SystemState>> sampleSets = batches.parallelStream().map(b -> b.get(step)).toList();
+        List<SystemState> states = new ArrayList<>();
+        for (SampleSet<SystemState> sampleSet : sampleSets) {
+            sampleSet.stream().forEach(states::add);
+        }
+        return new SampleSet<>(states);
+    }
+
+    @Override
+    public SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition) {
+        throw new UnsupportedOperationException("Batched evolution sequences cannot be generated conditionally");
+    }
+
+    @Override
+    protected SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition, ConditionBounds bounds, byte[] outcomes) {
+        throw new UnsupportedOperationException("Batched evolution sequences cannot be generated conditionally");
+    }
+
+    @Override
+    public synchronized EvolutionSequence apply(Perturbation perturbation, int perturbedStep, int scale) {
+        if (perturbedStep<0) {
+            throw new IllegalArgumentException();
+        }
+        align();
+        return perturbations.computeIfAbsent(new Derivation(perturbation, perturbedStep, scale),
+                d -> new BatchedEvolutionSequence(getMonitor(), this, j -> batch(j).apply(perturbation, perturbedStep, scale)));
+    }
+
+    private synchronized EvolutionSequence batch(int j) {
+        return batches.get(j);
+    }
+
+    /**
+     * Batched sequences keep all their steps in memory.
+     *
+     * @throws UnsupportedOperationException if <code>retention</code> does not keep all the steps.
+     */
+    @Override
+    public synchronized void setRetentionPolicy(RetentionPolicy retention) {
+        if (!RetentionPolicy.keepAll().equals(retention)) {
+            throw new UnsupportedOperationException("Batched evolution sequences keep all their steps");
+        }
+    }
+
+    /**
+     * Batched sequences generate their steps on demand.
+     *
+     * @throws UnsupportedOperationException if <code>lookAhead</code> is positive.
+     */
+    @Override
+    public synchronized void setLookAhead(int lookAhead) {
+        if (lookAhead > 0) {
+            throw new UnsupportedOperationException("Batched evolution sequences do not generate steps ahead");
+        }
+    }
+
+    /**
+     * Sets whether the perturbations of the batches of this sequence are coupled with them by common random
+     * numbers, including the batches added later. Perturbations derived before this invocation are not changed.
+     *
+     * @param commonRandomNumbers <code>true</code> if the perturbations of the batches replay their random streams.
+     * @throws IllegalStateException if <code>commonRandomNumbers</code> is <code>true</code> and the batches
+     * do not use {@link RandomStreams}.
+     */
+    @Override
+    public synchronized void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        for (EvolutionSequence batch : batches) {
+            batch.setCommonRandomNumbers(commonRandomNumbers);
+        }
+        this.commonRandomNumbers = commonRandomNumbers;
+        perturbations.clear();
+    }
+
+    @Override
+    public boolean isCommonRandomNumbers() {
+        return commonRandomNumbers;
+    }
+
+    /**
+     * Batched sequences cannot be checkpointed, since their batches are generated by a function.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public synchronized void setCheckpoint(Path file, int interval) {
+        throw new UnsupportedOperationException("Batched evolution sequences cannot be checkpointed");
+    }
+
+    /**
+     * Identifies a perturbation of this sequence.
+     */
+    private record Derivation(Perturbation perturbation, int perturbedStep, int scale) {
+    }
+
+}
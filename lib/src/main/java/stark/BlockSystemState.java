@@ -0,0 +1,54 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateBlockFunction;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * This interface is implemented by system states whose step consists of a step of the agent
+ * followed by the application of an environment that can be applied to a whole block of data states.
+ * When all the samples of a columnar sample set share the same block environment, a step of the
+ * evolution sequence is computed by sampling the agents first and then applying the environment
+ * once to the block containing all the data states.
+ */
+public interface BlockSystemState extends SystemState {
+
+    /**
+     * Returns the environment applied to the data state after each step of the agent,
+     * or <code>null</code> if the environment cannot be applied to blocks of data states.
+     *
+     * @return the environment applied to the data state after each step of the agent.
+     */
+    DataStateBlockFunction getBlockEnvironment();
+
+    /**
+     * Returns the system state reached after one step of the agent, before the environment is applied.
+     * The step of the data state is not updated.
+     *
+     * @param rg random generator used sample random expression.
+     * @return the system state reached after one step of the agent.
+     */
+    BlockSystemState sampleAgent(RandomGenerator rg);
+
+}
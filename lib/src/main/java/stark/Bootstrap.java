@@ -0,0 +1,113 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the rounds of the empirical bootstrap of the distance between two sample sets in parallel.
+ * Round <code>i</code> draws its values from the stream <code>i</code> of {@link RandomStreams} seeded by
+ * the given generator, hence the results only depend on that generator and not on the number of threads.
+ * Rounds are partitioned in a few tasks, each reusing its own buffers, so that the distance function
+ * must not retain the arrays it receives.
+ */
+final class Bootstrap {
+
+    private Bootstrap() {
+    }
+
+    /**
+     * Returns the distances evaluated at each of <code>m</code> rounds, where each round resamples with
+     * replacement the given sorted values. Resampled values are obtained by counting how many times each value
+     * is drawn, so that they are already sorted and no sorting is needed.
+     */
+    static double[] rounds(RandomGenerator rg, double[] thisData, double[] otherData, ToDoubleBiFunction<double[], double[]> distanceFunction, int m, SimulationMonitor monitor) {
+        return rounds(rg, m, monitor, () -> new Buffers(thisData.length, otherData.length),
+                (r, b) -> distanceFunction.applyAsDouble(
+                        resample(r, thisData, b.thisCounts, b.thisSample),
+                        resample(r, otherData, b.otherCounts, b.otherSample)));
+    }
+
+    /**
+     * Returns the distances evaluated at each of <code>m</code> rounds, where each round resamples the given
+     * values with probabilities proportional to their weights.
+     */
+    static double[] rounds(RandomGenerator rg, WeightedValues thisValues, WeightedValues otherValues, ToDoubleBiFunction<double[], double[]> distanceFunction, int m, SimulationMonitor monitor) {
+        return rounds(rg, m, monitor, () -> null,
+                (r, b) -> distanceFunction.applyAsDouble(thisValues.resample(r), otherValues.resample(r)));
+    }
+
+    private static <B> double[] rounds(RandomGenerator rg, int m, SimulationMonitor monitor, Supplier<B> buffers, ToDoubleBiFunction<RandomGenerator, B> round) {
+        RandomStreams streams = new RandomStreams(rg.nextLong());
+        double[] result = new double[m];
+        int tasks = Math.min(m, 4 * ForkJoinPool.getCommonPoolParallelism());
+        IntStream.range(0, tasks).parallel().forEach(t -> {
+            B b = buffers.get();
+            for (int i = t; i < m; i += tasks) {
+                SimulationMonitor.checkCancelled(monitor);
+                result[i] = round.applyAsDouble(streams.get(i, 0), b);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Draws, with replacement, as many values from <code>sorted</code> as its length and stores them, sorted,
+     * in <code>sample</code>.
+     */
+    static double[] resample(RandomGenerator rg, double[] sorted, int[] counts, double[] sample) {
+        Arrays.fill(counts, 0);
+        for (int j = 0; j < sorted.length; j++) {
+            counts[rg.nextInt(sorted.length)]++;
+        }
+        int k = 0;
+        for (int j = 0; j < sorted.length; j++) {
+            Arrays.fill(sample, k, k + counts[j], sorted[j]);
+            k += counts[j];
+        }
+        return sample;
+    }
+
+    private static final class Buffers {
+
+        private final int[] thisCounts;
+        private final double[] thisSample;
+        private final int[] otherCounts;
+        private final double[] otherSample;
+
+        private Buffers(int thisSize, int otherSize) {
+            this.thisCounts = new int[thisSize];
+            this.thisSample = new double[thisSize];
+            this.otherCounts = new int[otherSize];
+            this.otherSample = new double[otherSize];
+        }
+
+    }
+
+}
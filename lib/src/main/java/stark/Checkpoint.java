@@ -0,0 +1,147 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataRange;
+import stark.ds.DataStateBlock;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A checkpoint contains what is needed to resume the generation of an evolution sequence
+ * that uses {@link RandomStreams}: the master seed, the index of the last generated step and
+ * the data states sampled at that step, together with the state of the compiled controller of each sample when
+ * samples are {@link ControlledSystem}s. Since the random values used at each step only depend on the seed,
+ * the step and the index of each sample, the resumed sequence produces the same samples of the original one
+ * as long as the system states rebuilt from the data states behave like the saved ones.
+ *
+ * @param seed master seed of the random streams.
+ * @param step index of the last generated step.
+ * @param interval number of steps between two checkpoints.
+ * @param columnar <code>true</code> if the sample sets are stored in columnar form.
+ * @param data data states sampled at step <code>step</code>;
+ * @param controllers state of the controller of each sample, or <code>null</code> if samples have no controller.
+ */
+record Checkpoint(long seed, int step, int interval, boolean columnar, DataStateBlock data, int[][] controllers) {
+
+    private static final int VERSION = 3;
+
+    /**
+     * Writes this checkpoint in the given file. The file is replaced atomically, so that a valid checkpoint
+     * is available even if the process is interrupted while writing.
+     *
+     * @param file target file.
+     * @throws UncheckedIOException if an I/O error occurs.
+     */
+    void write(Path file) {
+        Path temporary = file.resolveSibling(file.getFileName()+".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(VERSION);
+                out.writeLong(seed);
+                out.writeInt(step);
+                out.writeInt(interval);
+                out.writeBoolean(columnar);
+                out.writeInt(data.variables());
+                out.writeInt(data.size());
+                for (int i = 0; i < data.variables(); i++) {
+                    out.writeDouble(data.getDataRange(i).minValue());
+                    out.writeDouble(data.getDataRange(i).maxValue());
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(bufferSize(data.variables(), data.size()));
+                data.writeTo(buffer);
+                out.write(buffer.array());
+                out.writeBoolean(controllers != null);
+                if (controllers != null) {
+                    for (int[] controller : controllers) {
+                        out.writeInt(controller.length);
+                        for (int value : controller) {
+                            out.writeInt(value);
+                        }
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the checkpoint stored in the given file.
+     *
+     * @param file a file written with {@link #write(Path)}.
+     * @return the checkpoint stored in <code>file</code>.
+     * @throws IOException if an I/O error occurs or if the file does not contain a checkpoint.
+     */
+    static Checkpoint read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unsupported version of checkpoint "+file);
+            }
+            long seed = in.readLong();
+            int step = in.readInt();
+            int interval = in.readInt();
+            boolean columnar = in.readBoolean();
+            int variables = in.readInt();
+            int size = in.readInt();
+            if ((variables < 0)||(size <= 0)) {
+                throw new IOException("Invalid checkpoint "+file);
+            }
+            DataRange[] dataRanges = new DataRange[variables];
+            for (int i = 0; i < variables; i++) {
+                dataRanges[i] = new DataRange(in.readDouble(), in.readDouble());
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize(variables, size));
+            in.readFully(buffer.array());
+            int[][] controllers = null;
+            if (in.readBoolean()) {
+                controllers = new int[size][];
+                for (int i = 0; i < size; i++) {
+                    int length = in.readInt();
+                    if (length < 0) {
+                        throw new IOException("Invalid checkpoint "+file);
+                    }
+                    controllers[i] = new int[length];
+                    for (int j = 0; j < length; j++) {
+                        controllers[i][j] = in.readInt();
+                    }
+                }
+            }
+            return new Checkpoint(seed, step, interval, columnar, DataStateBlock.readFrom(dataRanges, size, buffer), controllers);
+        }
+    }
+
+    private static int bufferSize(int variables, int size) throws IOException {
+        long bytes = DataStateBlock.byteSize(variables, size);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Checkpoint too large: "+bytes+" bytes");
+        }
+        return (int) bytes;
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateBlock;
+import stark.ds.DataStateBlockFunction;
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateFunction;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Instances of this class are sample sets in which the data states of the samples
+ * are stored in a {@link DataStateBlock}, namely one array per variable.
+ * For each sample, only the system state without its data state is kept as an object.
+ * Penalty functions, replicas and random functions over data states are computed directly on the block,
+ * while system states are rebuilt only when a new step has to be sampled.
+ * The result of all the operations on a columnar sample set is a columnar sample set.
+ */
+public class ColumnarSampleSet<T extends SystemState> extends SampleSet<T> {
+
+    private final DataStateBlock data;
+    private final List<T> states;
+
+    /**
+     * Creates a columnar sample set from a block of data states and the list of
+     * system states, without data states, that are associated with each row of the block.
+     *
+     * @param data data states in the sample.
+     * @param states system states in the sample, without data states.
+     * @throws IllegalArgumentException if <code>data.size() != states.size()</code>.
+     */
+    protected ColumnarSampleSet(DataStateBlock data, List<T> states) {
+        super(List.of());
+        if (data.size() != states.size()) {
+            throw new IllegalArgumentException("Incompatible size of data sets!");
+        }
+        this.data = data;
+        this.states = states;
+    }
+
+    /**
+     * Returns the columnar sample set containing the given system states.
+     *
+     * @param states a non-empty list of system states.
+     * @return the columnar sample set containing the given system states.
+     * @param <T> model domain
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends SystemState> ColumnarSampleSet<T> of(List<T> states) {
+        DataStateBlock data = DataStateBlock.of(states.stream().map(SystemState::getDataState).toList());
+        return new ColumnarSampleSet<>(data, states.stream().parallel().map(s -> (T) s.setDataState(null)).toList());
+    }
+
+    /**
+     * Returns the columnar sample set containing the elements of the given sample set.
+     *
+     * @param sampleSet a non-empty sample set.
+     * @return the columnar sample set containing the elements of <code>sampleSet</code>.
+     * @param <T> model domain
+     */
+    public static <T extends SystemState> ColumnarSampleSet<T> of(SampleSet<T> sampleSet) {
+        if (sampleSet instanceof ColumnarSampleSet<T> columnarSampleSet) {
+            return columnarSampleSet;
+        }
+        return of(sampleSet.stream().toList());
+    }
+
+    /**
+     * Returns a columnar set of samples, of a given size, generated with a given function.
+     *
+     * @param rg random generator
+     * @param generator random function used to generate the samples
+     * @param size number of samples
+     * @return the columnar sample set of size <code>size</code> in which each sample is obtained by applying function <code>generator</code>.
+     * @param <T> model domain
+     */
+    public static <T extends SystemState> ColumnarSampleSet<T> generate(RandomGenerator rg, Function<RandomGenerator, T> generator, int size) {
+        return of(IntStream.range(0, size).mapToObj(i -> generator.apply(rg)).toList());
+    }
+
+    /**
+     * Returns a columnar set of samples, of a given size, generated with a given function.
+     * The sample with index <code>i</code> is generated with the random stream associated with
+     * step <code>0</code> and index <code>i</code>.
+     *
+     * @param streams random streams
+     * @param generator random function used to generate the samples
+     * @param size number of samples
+     * @return the columnar sample set of size <code>size</code> in which each sample is obtained by applying function <code>generator</code>.
+     * @param <T> model domain
+     */
+    public static <T extends SystemState> ColumnarSampleSet<T> generate(RandomStreams streams, Function<RandomGenerator, T> generator, int size) {
+        return of(IntStream.range(0, size).parallel().mapToObj(i -> generator.apply(streams.get(0, i))).toList());
+    }
+
+    /**
+     * Returns the block containing the data states of this sample set.
+     *
+     * @return the block containing the data states of this sample set.
+     */
+    public DataStateBlock getDataStateBlock() {
+        return data;
+    }
+
+    /**
+     * Columnar sample sets have a fixed size.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void add(T state) {
+        throw new UnsupportedOperationException("Columnar sample sets cannot be extended");
+    }
+
+    @Override
+    public int size() {
+        return states.size();
+    }
+
+    @Override
+    protected double[] computePenaltyFunction(DataStateExpression f) {
+        return data.eval(f);
+    }
+
+    /**
+     * Returns a sequential stream of this sample set.
+     * Each element of the stream is a system state rebuilt from the corresponding row of the block.
+     *
+     * @return a sequential stream of this sample set.
+     */
+    @Override
+    public Stream<T> stream() {
+        return IntStream.range(0, size()).mapToObj(this::get);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(int i) {
+        return (T) states.get(i).setDataState(data.getDataState(i));
+    }
+
+    @Override
+    public ColumnarSampleSet<T> apply(UnaryOperator<T> function) {
+        return of(this.stream().parallel().map(function).toList());
+    }
+
+    @Override
+    public ColumnarSampleSet<T> apply(RandomGenerator rg, BiFunction<RandomGenerator, T, T> function) {
+        return of(this.stream().parallel().map(s -> function.apply(rg, s)).toList());
+    }
+
+    @Override
+    public ColumnarSampleSet<T> apply(RandomStreams streams, int step, BiFunction<RandomGenerator, T, T> function) {
+        return of(IntStream.range(0, size()).parallel().mapToObj(i -> function.apply(streams.get(step, i), get(i))).toList());
+    }
+
+    /**
+     * Returns the block environment shared by all the samples in this set, if any. This is the case
+     * when each sample is a {@link BlockSystemState} and all of them have the same, non-null, block environment.
+     *
+     * @return the block environment shared by all the samples in this set, or <code>null</code> if no such environment exists.
+     */
+    public DataStateBlockFunction getBlockEnvironment() {
+        if (!(states.get(0) instanceof BlockSystemState first)||(first.getBlockEnvironment() == null)) {
+            return null;
+        }
+        DataStateBlockFunction environment = first.getBlockEnvironment();
+        for (T s : states) {
+            if (!(s instanceof BlockSystemState bs)||(bs.getBlockEnvironment() != environment)) {
+                return null;
+            }
+        }
+        return environment;
+    }
+
+    /**
+     * Returns the columnar sample set obtained by performing one step of each sample. The agent of each
+     * sample is sampled first, then the given environment is applied once to the block of the resulting
+     * data states. The random generator of row <code>i</code> is used both for the agent and for the environment.
+     *
+     * @param rg function associating each sample with its random generator.
+     * @param environment environment shared by all the samples.
+     * @return the columnar sample set obtained by performing one step of each sample.
+     * @throws ClassCastException if the samples are not instances of {@link BlockSystemState}.
+     */
+    public ColumnarSampleSet<SystemState> applyBlock(IntFunction<RandomGenerator> rg, DataStateBlockFunction environment) {
+        RandomGenerator[] generators = IntStream.range(0, size()).mapToObj(rg).toArray(RandomGenerator[]::new);
+        List<BlockSystemState> agents = IntStream.range(0, size()).parallel().mapToObj(i -> ((BlockSystemState) get(i)).sampleAgent(generators[i])).toList();
+        DataStateBlock block = environment.apply(i -> generators[i], DataStateBlock.of(agents.stream().map(SystemState::getDataState).toList()));
+        for (int i = 0; i < block.size(); i++) {
+            block.setStep(i, agents.get(i).getDataState().getStep() + 1);
+        }
+        return new ColumnarSampleSet<>(block, agents.stream().parallel().map(s -> s.setDataState(null)).toList());
+    }
+
+    @Override
+    public ColumnarSampleSet<T> replica(int k) {
+        return new ColumnarSampleSet<>(data.replica(k), this.states.stream().flatMap(e -> IntStream.range(0, k).mapToObj(i -> e)).toList());
+    }
+
+    /**
+     * Applies the given function directly to the rows of the block. System states are not rebuilt,
+     * since applying a {@link DataStateFunction} only replaces their data states.
+     */
+    @Override
+    public ColumnarSampleSet<T> applyDistribution(RandomGenerator rg, DataStateFunction function, boolean parallel) {
+        return new ColumnarSampleSet<>(data.apply(i -> rg, function, parallel), states);
+    }
+
+    @Override
+    public ColumnarSampleSet<SystemState> applyDistribution(RandomGenerator rg, DataStateFunction function) {
+        return new ColumnarSampleSet<>(data.apply(i -> rg, function, true), Collections.unmodifiableList(states));
+    }
+
+    @Override
+    public ColumnarSampleSet<SystemState> applyDistribution(RandomStreams streams, int step, DataStateFunction function) {
+        return new ColumnarSampleSet<>(data.apply(i -> streams.get(step, i), function, true), Collections.unmodifiableList(states));
+    }
+
+}
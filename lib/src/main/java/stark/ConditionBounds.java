@@ -0,0 +1,75 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import java.time.Duration;
+
+/**
+ * Bounds on the micro-steps performed to sample a state satisfying a condition. The sampling of each element
+ * of a sample set stops, even if the condition is not satisfied, after <code>maxSteps</code> micro-steps or
+ * when <code>timeout</code> has elapsed since it started.
+ *
+ * @param maxSteps maximum number of micro-steps performed for each sample.
+ * @param timeout maximum time spent for each sample, or <code>null</code> if the sampling is not timed out.
+ */
+public record ConditionBounds(int maxSteps, Duration timeout) {
+
+    public ConditionBounds {
+        if (maxSteps < 0) {
+            throw new IllegalArgumentException("The number of micro-steps must be non negative!");
+        }
+        if ((timeout != null)&&(timeout.isNegative()||timeout.isZero())) {
+            throw new IllegalArgumentException("The timeout must be positive!");
+        }
+    }
+
+    /**
+     * Returns the bounds that let each sample evolve until the condition is satisfied.
+     *
+     * @return the bounds that let each sample evolve until the condition is satisfied.
+     */
+    public static ConditionBounds unbounded() {
+        return new ConditionBounds(Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Returns the bounds that stop each sample after the given number of micro-steps.
+     *
+     * @param maxSteps maximum number of micro-steps performed for each sample.
+     * @return the bounds that stop each sample after <code>maxSteps</code> micro-steps.
+     */
+    public static ConditionBounds steps(int maxSteps) {
+        return new ConditionBounds(maxSteps, null);
+    }
+
+    /**
+     * Returns these bounds where each sample is also stopped after the given time.
+     *
+     * @param timeout maximum time spent for each sample.
+     * @return these bounds where each sample is also stopped after <code>timeout</code>.
+     */
+    public ConditionBounds withTimeout(Duration timeout) {
+        return new ConditionBounds(maxSteps, timeout);
+    }
+
+}
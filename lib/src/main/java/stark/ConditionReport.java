@@ -0,0 +1,54 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+/**
+ * Reports the samples of a step that, while generated by a conditional generation, did not reach the condition.
+ * These samples are kept in the step with the last state reached before the generation stopped.
+ *
+ * @param step the step of the sequence containing the samples.
+ * @param samples number of samples of the step.
+ * @param exhausted indexes of the samples that performed the maximum number of micro-steps.
+ * @param timedOut indexes of the samples whose generation has been timed out.
+ */
+public record ConditionReport(int step, int samples, int[] exhausted, int[] timedOut) {
+
+    /**
+     * Returns the number of samples that did not reach the condition.
+     *
+     * @return the number of samples that did not reach the condition.
+     */
+    public int unreached() {
+        return exhausted.length + timedOut.length;
+    }
+
+    /**
+     * Returns true if all the samples of the step reached the condition.
+     *
+     * @return true if all the samples of the step reached the condition.
+     */
+    public boolean allReached() {
+        return unreached() == 0;
+    }
+
+}
@@ -22,13 +22,19 @@
 
 package stark;
 
+import java.io.PrintStream;
+
 /**
  * This class can be used to monitor simulations.
+ * Messages are printed on a given stream, by default <code>System.out</code>, and the simulation
+ * can be stopped by invoking {@link #cancel()}.
  */
 public class ConsoleMonitor implements SimulationMonitor {
 
     private final String label;
+    private final PrintStream out;
     private long last;
+    private volatile boolean cancelled = false;
 
     /**
      * Assigns a name to the simulation.
@@ -36,24 +42,59 @@ public class ConsoleMonitor implements SimulationMonitor {
      * @param label a string corresponding to the simulation name.
      */
     public ConsoleMonitor(String label) {
+        this(label, System.out);
+    }
+
+    /**
+     * Assigns a name to the simulation and the stream where messages are printed.
+     *
+     * @param label a string corresponding to the simulation name.
+     * @param out stream where messages are printed.
+     */
+    public ConsoleMonitor(String label, PrintStream out) {
         this.label = label;
+        this.out = out;
     }
 
     @Override
     public void startSamplingsOfStep(int step) {
-        System.out.println(label+": Sampling of step "+step+" started.");
+        out.println(label+": Sampling of step "+step+" started.");
         last = System.currentTimeMillis();
     }
 
     @Override
     public void endSamplingsOfStep(int step) {
         long elapsed = System.currentTimeMillis() - last;
-        System.out.println(label+": Sampling of step "+step+" completed.");
-        System.out.println(label+": Elapsed time "+(elapsed/1000.0)+"s");
+        out.println(label+": Sampling of step "+step+" completed.");
+        out.println(label+": Elapsed time "+(elapsed/1000.0)+"s");
+    }
+
+    @Override
+    public void samplingStatistics(SamplingStatistics statistics) {
+        out.printf("%s: Step %d, %d samples, %.1f samples/s, latency %.3fs%s%n",
+                label,
+                statistics.step(),
+                statistics.samples(),
+                statistics.samplesPerSecond(),
+                statistics.nanos()/1.0e9,
+                (statistics.allocatedBytes() < 0 ? "" : String.format(", ~%.1fMB allocated", statistics.allocatedBytes()/(1024.0*1024.0))));
+    }
+
+    @Override
+    public void checkpointSaved(int step) {
+        out.println(label+": Checkpoint of step "+step+" saved.");
+    }
+
+    /**
+     * Cancels the simulation: sampling and evaluations that use this monitor stop as soon as possible
+     * by throwing a {@link SimulationCancelledException}.
+     */
+    public void cancel() {
+        this.cancelled = true;
     }
 
     @Override
     public boolean hasBeenCancelled() {
-        return false;
+        return cancelled;
     }
 }
@@ -23,10 +23,11 @@
 package stark;
 
 import stark.controller.Controller;
-import stark.controller.EffectStep;
 import stark.ds.DataState;
+import stark.ds.DataStateBlockFunction;
 import stark.ds.DataStateBooleanExpression;
 import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -36,10 +37,11 @@ import org.apache.commons.math3.random.RandomGenerator;
  * an environment, and
  * a set of application-relevant data.
  */
-public class ControlledSystem implements SystemState {
+public class ControlledSystem implements BlockSystemState {
 
     private final Controller controller;
     private final DataStateFunction environment;
+    private final DataStateBlockFunction blockEnvironment;
     private final DataState state;
 
     /**
@@ -49,11 +51,42 @@ public class ControlledSystem implements SystemState {
      * @param state current data state.
      */
     public ControlledSystem(Controller controller, DataStateFunction environment, DataState state) {
+        this(controller, environment, null, state);
+    }
+
+    /**
+     * Returns a system with the given agent, environment and data state, where the environment
+     * can be applied to a whole block of data states.
+     * @param controller process modelling the agent,
+     * @param environment function modelling the environment on blocks of data states,
+     * @param state current data state.
+     * @return a system whose environment can be applied to a whole block of data states.
+     */
+    public static ControlledSystem withBlockEnvironment(Controller controller, DataStateBlockFunction environment, DataState state) {
+        return new ControlledSystem(controller, environment.asDataStateFunction(), environment, state);
+    }
+
+    private ControlledSystem(Controller controller, DataStateFunction environment, DataStateBlockFunction blockEnvironment, DataState state) {
         this.controller = controller;
         this.environment = environment;
+        this.blockEnvironment = blockEnvironment;
         this.state = state;
     }
 
+    /**
+     * Returns the process modelling the agent of this system.
+     */
+    Controller getController() {
+        return controller;
+    }
+
+    /**
+     * Returns the system with the same environment and data state of this one, and the given agent.
+     */
+    ControlledSystem setController(Controller controller) {
+        return new ControlledSystem(controller, environment, blockEnvironment, state);
+    }
+
     @Override
     public DataState getDataState() {
         return state;
@@ -61,11 +94,27 @@ public class ControlledSystem implements SystemState {
 
     @Override
     public SystemState sampleNext(RandomGenerator rg) {
-        EffectStep<Controller> step = controller.next(rg, state);
+        DataStateUpdateBuffer updates = DataStateUpdateBuffer.scratch();
+        Controller next = controller.next(rg, state, updates);
         int c_step = state.getStep();
-        DataState newState = environment.apply(rg, state.apply(step.effect()));
+        DataState newState = environment.apply(rg, DataState.applyOrShare(state, updates));
+        if (newState == state) {
+            newState = state.copy();
+        }
         newState.setStep(c_step+1);
-        return new ControlledSystem(step.next(), environment, newState);
+        return new ControlledSystem(next, environment, blockEnvironment, newState);
+    }
+
+    @Override
+    public DataStateBlockFunction getBlockEnvironment() {
+        return blockEnvironment;
+    }
+
+    @Override
+    public BlockSystemState sampleAgent(RandomGenerator rg) {
+        DataStateUpdateBuffer updates = DataStateUpdateBuffer.scratch();
+        Controller next = controller.next(rg, state, updates);
+        return new ControlledSystem(next, environment, blockEnvironment, DataState.applyOrShare(state, updates));
     }
 
     @Override
@@ -81,7 +130,7 @@ public class ControlledSystem implements SystemState {
 
     @Override
     public SystemState setDataState(DataState dataState) {
-        return new ControlledSystem(controller, environment, dataState);
+        return new ControlledSystem(controller, environment, blockEnvironment, dataState);
     }
 
 }
@@ -35,7 +35,23 @@ import java.util.SplittableRandom;
  */
 public class DefaultRandomGenerator extends AbstractRandomGenerator {
 
-    private SplittableRandom random = new SplittableRandom();
+    private SplittableRandom random;
+
+    /**
+     * Creates a random generator initialised with a random seed.
+     */
+    public DefaultRandomGenerator() {
+        this.random = new SplittableRandom();
+    }
+
+    /**
+     * Creates a random generator initialised with the given seed.
+     *
+     * @param seed initial seed.
+     */
+    public DefaultRandomGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
 
     @Override
     public void setSeed(long seed) {
@@ -22,7 +22,11 @@
 
 package stark;
 
+import stark.controller.CompiledController;
+import stark.controller.Controller;
 import stark.distance.DistanceExpression;
+import stark.ds.DataState;
+import stark.ds.DataStateBlock;
 import stark.ds.DataStateExpression;
 import stark.ds.DataStateFunction;
 import stark.ds.DataStateBooleanExpression;
@@ -30,9 +34,22 @@ import stark.perturbation.Perturbation;
 import stark.PerceivedSystemState;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * This class represent a collection of sequences of data sampled from a model described in terms
@@ -40,10 +57,38 @@ import java.util.function.Function;
  */
 public class EvolutionSequence {
 
+    /**
+     * Threads used to generate steps ahead of the requests of the sequences having a look-ahead.
+     */
+    private static final ExecutorService PRODUCERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "stark-sequence-producer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Outcomes of the bounded conditional sampling of an element.
+     */
+    static final byte REACHED = 0;
+    static final byte EXHAUSTED = 1;
+    static final byte TIMED_OUT = 2;
+
     protected       SampleSet<SystemState>              lastGenerated;
     private final   ArrayList<SampleSet<SystemState>>   sequence;
     private final   RandomGenerator                     rg;
+    private final   RandomStreams                       streams;
     private final   SimulationMonitor                   monitor;
+    private         RetentionPolicy                     retention = RetentionPolicy.keepAll();
+    private         SpillFile                           spillFile;
+    private         int                                 firstRetained = 0;
+    private         Path                                checkpointFile;
+    private         int                                 checkpointInterval;
+    private volatile int                                lookAhead = 0;
+    private volatile boolean                            commonRandomNumbers = false;
+    private         int                                 requested = -1;
+    private         boolean                             producing = false;
+    private         Throwable                           producerFailure;
+    private final   Map<Integer, CompletableFuture<SampleSet<SystemState>>> futures = new HashMap<>();
 
     /**
      * Creates an evolution sequence originating from the given generator.
@@ -57,10 +102,50 @@ public class EvolutionSequence {
         this.lastGenerated = SampleSet.generate(rg, generator, size);
         this.sequence = new ArrayList<>();
         this.rg = rg;
+        this.streams = null;
         this.monitor = monitor;
         this.sequence.add(lastGenerated);
     }
 
+    /**
+     * Creates an evolution sequence originating from the given generator, where each sample uses its own random stream.
+     * The random values used to generate a sample only depend on the seed of <code>streams</code>,
+     * on the step and on the index of the sample, hence the sequence does not depend on the number of threads
+     * used to generate it.
+     *
+     * @param monitor monitor used to control generation of evolution sequence;
+     * @param streams random streams;
+     * @param generator function used to generate the initial states of the evolution sequence;
+     * @param size number of samplings at each time step.
+     */
+    public EvolutionSequence(SimulationMonitor monitor, RandomStreams streams, Function<RandomGenerator, SystemState> generator, int size) {
+        this(monitor, streams, SampleSet.generate(streams, generator, size));
+    }
+
+    /**
+     * Creates an evolution sequence originating from the given sample set, where each sample uses its own random stream.
+     *
+     * @param monitor monitor used to control generation of evolution sequence;
+     * @param streams random streams;
+     * @param initial sample set at the first step of the evolution sequence.
+     */
+    public EvolutionSequence(SimulationMonitor monitor, RandomStreams streams, SampleSet<SystemState> initial) {
+        this(monitor, new DefaultRandomGenerator(streams.getSeed()), streams, List.of(initial));
+    }
+
+    /**
+     * Creates an evolution sequence originating from the given sample set.
+     * All the steps of the sequence are obtained by applying the operations of <code>initial</code>,
+     * hence they are stored in the same way (e.g., in columnar form if <code>initial</code> is a {@link ColumnarSampleSet}).
+     *
+     * @param monitor monitor used to control generation of evolution sequence;
+     * @param rg random generator;
+     * @param initial sample set at the first step of the evolution sequence.
+     */
+    public EvolutionSequence(SimulationMonitor monitor, RandomGenerator rg, SampleSet<SystemState> initial) {
+        this(monitor, rg, List.of(initial));
+    }
+
     /**
      * Creates an evolution sequence originating from the given generator.
      *
@@ -76,11 +161,20 @@ public class EvolutionSequence {
      * Creates an evolution sequence whose first elements are contained in the given sequence.
      */
     protected EvolutionSequence(SimulationMonitor monitor, RandomGenerator rg, List<SampleSet<SystemState>> sequence) {
+        this(monitor, rg, null, sequence);
+    }
+
+    /**
+     * Creates an evolution sequence whose first elements are contained in the given sequence.
+     * When <code>streams</code> is not <code>null</code>, new steps are sampled by using a random stream for each sample.
+     */
+    protected EvolutionSequence(SimulationMonitor monitor, RandomGenerator rg, RandomStreams streams, List<SampleSet<SystemState>> sequence) {
         this.sequence = new ArrayList<>(sequence);
         if (!sequence.isEmpty()) {
             this.lastGenerated = this.sequence.get(this.sequence.size()-1);
         }
         this.rg = rg;
+        this.streams = streams;
         this.monitor = monitor;
     }
 
@@ -92,7 +186,7 @@ public class EvolutionSequence {
      * @throws IllegalArgumentException if <code>steps<0</code>.
      */
     protected EvolutionSequence(EvolutionSequence originalSequence, int steps) {
-        this(originalSequence.monitor, originalSequence.rg, originalSequence.select(steps));
+        this(originalSequence.monitor, originalSequence.rg, originalSequence.streams, originalSequence.prefix(steps+1));
     }
 
     /**
@@ -107,7 +201,19 @@ public class EvolutionSequence {
             return List.of();
         }
         generateUpTo(to);
-        return this.sequence.stream().skip(Math.max(0,from)).limit(Math.max(0,1+to-from)).toList();
+        return IntStream.rangeClosed(Math.max(0,from), to).mapToObj(this::get).toList();
+    }
+
+    /**
+     * Returns the first <code>n</code> elements of this sequence as they are stored, namely
+     * dropped steps are <code>null</code> and spilled steps are not read back.
+     *
+     * @param n number of steps.
+     * @return the first <code>n</code> elements of this sequence as they are stored.
+     */
+    synchronized List<SampleSet<SystemState>> prefix(int n) {
+        generateUpTo(n-1);
+        return new ArrayList<>(this.sequence.subList(0, Math.max(0, n)));
     }
 
     /**
@@ -135,14 +241,261 @@ public class EvolutionSequence {
      * @param i step index.
      * @return the sample set at the given step.
      * @throws IndexOutOfBoundsException if <code>((i<0)||(i>=length()))</code>.
+     * @throws IllegalStateException if the step has been dropped by the retention policy of this sequence.
      */
     public SampleSet<SystemState> get(int i) {
-        if (getLastGeneratedStep()<i) {
+        if ((lookAhead > 0)||(getLastGeneratedStep()<i)) {
             generateUpTo(i);
         }
+        SampleSet<SystemState> result = stored(i);
+        if (result == null) {
+            throw new IllegalStateException("Step "+i+" has been dropped from the evolution sequence");
+        }
+        return result;
+    }
+
+    private synchronized SampleSet<SystemState> stored(int i) {
         return sequence.get(i);
     }
 
+    /**
+     * Returns a future that is completed with the sample set at the given step as soon as it is generated.
+     * When this sequence has a look-ahead, the step is generated by the background producer of this sequence,
+     * otherwise it is generated by a separate thread as in {@link #get(int)}.
+     *
+     * @param i step index.
+     * @return a future that is completed with the sample set at step <code>i</code>.
+     * @throws IndexOutOfBoundsException if <code>i<0</code>.
+     */
+    public synchronized CompletableFuture<SampleSet<SystemState>> getAsync(int i) {
+        if (i < 0) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        if (lookAhead == 0) {
+            return CompletableFuture.supplyAsync(() -> get(i), PRODUCERS);
+        }
+        request(i);
+        if (i <= getLastGeneratedStep()) {
+            SampleSet<SystemState> result = sequence.get(i);
+            return (result == null ? CompletableFuture.failedFuture(new IllegalStateException("Step "+i+" has been dropped from the evolution sequence")) : CompletableFuture.completedFuture(result));
+        }
+        return futures.computeIfAbsent(i, k -> new CompletableFuture<>());
+    }
+
+    /**
+     * Sets the number of steps that are generated in background ahead of the last requested one.
+     * When the look-ahead is positive, a request for step <code>n</code>, via {@link #get(int)},
+     * {@link #getAsync(int)} or {@link #prefetch(int)}, lets a background producer generate all the steps
+     * up to <code>n+lookAhead</code>, so that the analysis of step <code>n</code> overlaps with the simulation
+     * of the following steps. When the look-ahead is <code>0</code>, the default, steps are generated on demand.
+     *
+     * @param lookAhead number of steps generated ahead of the last requested one.
+     * @throws IllegalArgumentException if <code>lookAhead</code> is negative.
+     */
+    public synchronized void setLookAhead(int lookAhead) {
+        if (lookAhead < 0) {
+            throw new IllegalArgumentException("Look-ahead must be non negative!");
+        }
+        this.lookAhead = lookAhead;
+    }
+
+    /**
+     * Returns the number of steps that are generated in background ahead of the last requested one.
+     *
+     * @return the number of steps that are generated in background ahead of the last requested one.
+     */
+    public int getLookAhead() {
+        return lookAhead;
+    }
+
+    /**
+     * Sets whether the perturbations of this sequence, obtained with {@link #apply(Perturbation, int, int)}, are
+     * coupled with it by common random numbers. When they are, the first replica of a sample of the perturbed
+     * step is simulated with the same random stream used to simulate, at the same step, the sample it has been
+     * obtained from, while the other replicas use streams derived from it so that they are distinct samples;
+     * only the effects of the perturbation use independent random values. Hence, the coupled
+     * samples follow the same random choices as long as the perturbation does not change the number of
+     * random values they need in a step, and the distances between this sequence and its perturbations are
+     * estimated with a smaller variance. The perturbations of a coupled sequence are coupled as well.
+     *
+     * @param commonRandomNumbers <code>true</code> if the perturbations of this sequence replay its random streams.
+     * @throws IllegalStateException if <code>commonRandomNumbers</code> is <code>true</code> and this sequence
+     * does not use {@link RandomStreams}.
+     */
+    public synchronized void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        if (commonRandomNumbers && (streams == null)) {
+            throw new IllegalStateException("Common random numbers require random streams");
+        }
+        this.commonRandomNumbers = commonRandomNumbers;
+    }
+
+    /**
+     * Returns true if the perturbations of this sequence are coupled with it by common random numbers.
+     *
+     * @return true if the perturbations of this sequence are coupled with it by common random numbers.
+     */
+    public boolean isCommonRandomNumbers() {
+        return commonRandomNumbers;
+    }
+
+    /**
+     * Notifies this sequence that the steps up to <code>n</code> will be requested soon.
+     * If this sequence has a look-ahead, their generation is started in background and this method returns immediately,
+     * otherwise this method has no effect.
+     *
+     * @param n index of a step.
+     */
+    public synchronized void prefetch(int n) {
+        if (lookAhead > 0) {
+            request(n);
+        }
+    }
+
+    /**
+     * Lets the background producer generate all the steps up to <code>n+lookAhead</code>.
+     * If the previous producer has failed, its failure has already been reported to the pending requests
+     * and a new producer is started.
+     */
+    private void request(int n) {
+        requested = Math.max(requested, n + lookAhead);
+        if (!producing && (getLastGeneratedStep() < requested)) {
+            producerFailure = null;
+            producing = true;
+            PRODUCERS.execute(this::produce);
+        }
+    }
+
+    /**
+     * Body of the background producer. Steps are generated without holding the lock of this sequence,
+     * that is only acquired to publish each generated step.
+     */
+    private void produce() {
+        try {
+            while (true) {
+                int lastGeneratedStep;
+                synchronized (this) {
+                    if ((lookAhead == 0)||(getLastGeneratedStep() >= requested)) {
+                        producing = false;
+                        // Steps requested before the look-ahead has been disabled are generated on demand
+                        futures.forEach((k, f) -> CompletableFuture.supplyAsync(() -> get(k), PRODUCERS).whenComplete((r, e) -> {
+                            if (e == null) {
+                                f.complete(r);
+                            } else {
+                                f.completeExceptionally(e);
+                            }
+                        }));
+                        futures.clear();
+                        notifyAll();
+                        return;
+                    }
+                    lastGeneratedStep = getLastGeneratedStep();
+                    startSamplingsOfStep(lastGeneratedStep);
+                }
+                SampleSet<SystemState> next = sampleStep(lastGeneratedStep, this::generateNextStep);
+                synchronized (this) {
+                    doAdd(next);
+                    endSamplingsOfStep(lastGeneratedStep);
+                    checkpoint();
+                    CompletableFuture<SampleSet<SystemState>> future = futures.remove(lastGeneratedStep + 1);
+                    if (future != null) {
+                        future.complete(next);
+                    }
+                    notifyAll();
+                }
+            }
+        } catch (Throwable e) {
+            // Errors are also reported to the pending requests, that would otherwise wait forever
+            synchronized (this) {
+                producerFailure = e;
+                producing = false;
+                futures.values().forEach(f -> f.completeExceptionally(e));
+                futures.clear();
+                notifyAll();
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Waits until the background producer has generated step <code>n</code>.
+     */
+    private void awaitStep(int n) {
+        request(n);
+        while (getLastGeneratedStep() < n) {
+            if (producerFailure instanceof SimulationCancelledException cancelled) {
+                throw cancelled;
+            }
+            if (producerFailure != null) {
+                throw new IllegalStateException("Generation of the evolution sequence failed", producerFailure);
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for step "+n, e);
+            }
+        }
+    }
+
+    /**
+     * Waits until the background producer, if any, has published the step it is generating. This is needed
+     * when the look-ahead has been disabled while the producer is running, so that the same step is not
+     * generated both by the producer and by the calling thread.
+     */
+    private void awaitProducer() {
+        while (producing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the generation of step "+(getLastGeneratedStep()+1), e);
+            }
+        }
+    }
+
+    /**
+     * Sets the retention policy of this sequence. Steps that are outside the window of the
+     * policy are evicted immediately; the policy is then applied each time a new step is generated.
+     *
+     * @param retention the retention policy of this sequence.
+     */
+    public synchronized void setRetentionPolicy(RetentionPolicy retention) {
+        this.retention = retention;
+        evict();
+    }
+
+    /**
+     * Returns the retention policy of this sequence.
+     *
+     * @return the retention policy of this sequence.
+     */
+    public RetentionPolicy getRetentionPolicy() {
+        return retention;
+    }
+
+    /**
+     * Evicts the steps that are not retained by the retention policy of this sequence.
+     */
+    private void evict() {
+        while (retention.isEvicted(firstRetained, sequence.size())) {
+            SampleSet<SystemState> sampleSet = sequence.get(firstRetained);
+            if ((sampleSet != null)&&!(sampleSet instanceof StoredSampleSet)) {
+                sampleSet.release();
+                sequence.set(firstRetained, (retention.spillDirectory() == null ? null : StoredSampleSet.spill(getSpillFile(), sampleSet)));
+            }
+            firstRetained++;
+        }
+    }
+
+    private SpillFile getSpillFile() {
+        if (spillFile == null) {
+            spillFile = new SpillFile(retention.spillDirectory());
+        }
+        return spillFile;
+    }
+
     /**
      * Returns the index of last generated step.
      *
@@ -158,11 +511,17 @@ public class EvolutionSequence {
      * @param n index of the last generated samplings.
      */
     public synchronized void generateUpTo(int n) {
+        if (lookAhead > 0) {
+            awaitStep(n);
+            return;
+        }
+        awaitProducer();
         while (getLastGeneratedStep()<n) {
             int lastGeneratedStep = getLastGeneratedStep();
             startSamplingsOfStep(lastGeneratedStep);
-            doAdd( generateNextStep() );
+            doAdd( sampleStep(lastGeneratedStep, this::generateNextStep) );
             endSamplingsOfStep(lastGeneratedStep);
+            checkpoint();
         }
     }
 
@@ -170,15 +529,164 @@ public class EvolutionSequence {
      * This method is used to generate the evolution sequence up to certain conditions.
      *
      * @param conditions list of conditions to be checked.
+     * @throws IllegalStateException if this sequence has a look-ahead.
      */
     public synchronized void generateUpToCond(ArrayList<DataStateBooleanExpression> conditions) {
+        if (lookAhead > 0) {
+            throw new IllegalStateException("Conditional generation is not available when steps are generated ahead");
+        }
+        awaitProducer();
         while (!conditions.isEmpty()) {
             int lastGeneratedStep = getLastGeneratedStep();
             startSamplingsOfStep(lastGeneratedStep);
-            doAdd(generateNextStepCond(conditions.get(0)));
+            DataStateBooleanExpression condition = conditions.get(0);
+            doAdd(sampleStep(lastGeneratedStep, () -> generateNextStepCond(condition)));
             conditions.remove(0);
             endSamplingsOfStep(lastGeneratedStep);
+            checkpoint();
+        }
+    }
+
+    /**
+     * Generates one step of this sequence for each of the given conditions, where each sample evolves until it
+     * satisfies the condition or until it exceeds the given bounds. Samples are simulated as independent tasks of a
+     * work-stealing pool, so that samples needing many micro-steps do not delay the other ones. When the sequence
+     * does not use {@link RandomStreams}, the samples share the random generator and are simulated sequentially.
+     * The samples that did not reach a condition are kept with the last state they reached, are listed in the
+     * returned reports and are notified to the monitor of this sequence.
+     *
+     * @param conditions list of conditions to be checked.
+     * @param bounds bounds on the micro-steps performed for each sample.
+     * @return the reports of the generated steps, one for each condition.
+     * @throws IllegalStateException if this sequence has a look-ahead.
+     */
+    public synchronized List<ConditionReport> generateUpToCond(List<DataStateBooleanExpression> conditions, ConditionBounds bounds) {
+        if (lookAhead > 0) {
+            throw new IllegalStateException("Conditional generation is not available when steps are generated ahead");
+        }
+        awaitProducer();
+        List<ConditionReport> reports = new ArrayList<>(conditions.size());
+        for (DataStateBooleanExpression condition : conditions) {
+            int lastGeneratedStep = getLastGeneratedStep();
+            startSamplingsOfStep(lastGeneratedStep);
+            byte[] outcomes = new byte[lastGenerated.size()];
+            doAdd(sampleStep(lastGeneratedStep, () -> generateNextStepCond(condition, bounds, outcomes)));
+            ConditionReport report = new ConditionReport(lastGeneratedStep + 1, outcomes.length, indexesOf(outcomes, EXHAUSTED), indexesOf(outcomes, TIMED_OUT));
+            if ((monitor != null)&&!report.allReached()) {
+                monitor.conditionNotReached(report);
+            }
+            reports.add(report);
+            endSamplingsOfStep(lastGeneratedStep);
+            checkpoint();
+        }
+        return reports;
+    }
+
+    private static int[] indexesOf(byte[] outcomes, byte outcome) {
+        return IntStream.range(0, outcomes.length).filter(i -> outcomes[i] == outcome).toArray();
+    }
+
+    /**
+     * Enables periodic checkpoints of this sequence. Each <code>interval</code> steps, the last generated
+     * sample set is saved in the given file, which can be used to resume the generation with
+     * {@link #resume(SimulationMonitor, Path, Function)}. The data states of the samples are saved, together with
+     * the state of their controller when samples are {@link ControlledSystem}s, and the sequence must use
+     * {@link RandomStreams} so that the resumed generation produces the same samples. Since only the state of
+     * compiled controllers can be saved, the controllers of these systems must be obtained with
+     * {@link Controller#compile(Controller)}.
+     *
+     * @param file file where checkpoints are saved.
+     * @param interval number of steps between two checkpoints.
+     * @throws IllegalArgumentException if <code>interval</code> is not positive.
+     * @throws IllegalStateException if this sequence does not use random streams, or if the state of the
+     * controller of some sample cannot be saved.
+     */
+    public synchronized void setCheckpoint(Path file, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive!");
+        }
+        if (streams == null) {
+            throw new IllegalStateException("Checkpoints require an evolution sequence based on random streams");
+        }
+        if (lastGenerated != null) {
+            controllerStates(lastGenerated);
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Returns the state of the controller of each sample in the given sample set, or <code>null</code>
+     * if the samples are not controlled systems.
+     *
+     * @throws IllegalStateException if the state of the controller of some sample cannot be saved.
+     */
+    private static int[][] controllerStates(SampleSet<SystemState> sample) {
+        if (sample.stream().noneMatch(s -> s instanceof ControlledSystem)) {
+            return null;
         }
+        return sample.stream().map(s -> {
+            int[] state = ((s instanceof ControlledSystem system)&&(system.getController() instanceof CompiledController controller) ? controller.getState() : null);
+            if (state == null) {
+                throw new IllegalStateException("Checkpoints require compiled controllers");
+            }
+            return state;
+        }).toArray(int[][]::new);
+    }
+
+    /**
+     * Saves a checkpoint if the last generated step is a multiple of the checkpoint interval.
+     */
+    private void checkpoint() {
+        int step = getLastGeneratedStep();
+        if ((checkpointFile != null)&&(step % checkpointInterval == 0)) {
+            DataStateBlock data = (lastGenerated instanceof ColumnarSampleSet<SystemState> columnar ? columnar.getDataStateBlock() : DataStateBlock.of(lastGenerated.stream().map(SystemState::getDataState).toList()));
+            new Checkpoint(streams.getSeed(), step, checkpointInterval, lastGenerated instanceof ColumnarSampleSet, data, controllerStates(lastGenerated)).write(checkpointFile);
+            if (monitor != null) {
+                monitor.checkpointSaved(step);
+            }
+        }
+    }
+
+    /**
+     * Resumes the generation of an evolution sequence from the checkpoint saved in the given file.
+     * The steps that precede the checkpoint are not available in the returned sequence,
+     * while the following ones are identical to those of the sequence that saved the checkpoint.
+     * The system states are rebuilt from the saved data states with <code>restore</code>, which must return
+     * a state behaving like the saved one, e.g. with the same environment. When the checkpoint contains the state
+     * of the controllers, <code>restore</code> must return a {@link ControlledSystem} whose controller is compiled
+     * from the same controller of the saved one, and the saved state of the controller is then restored.
+     * Checkpoints keep being saved in the same file.
+     *
+     * @param monitor monitor used to control generation of evolution sequence;
+     * @param file a file where checkpoints have been saved by {@link #setCheckpoint(Path, int)};
+     * @param restore function used to rebuild a system state from a saved data state.
+     * @return the evolution sequence resumed from the checkpoint in <code>file</code>.
+     * @throws IOException if an I/O error occurs or if the file does not contain a checkpoint.
+     * @throws IllegalArgumentException if the saved state of a controller cannot be restored in the state
+     * returned by <code>restore</code>.
+     */
+    public static EvolutionSequence resume(SimulationMonitor monitor, Path file, Function<DataState, SystemState> restore) throws IOException {
+        Checkpoint checkpoint = Checkpoint.read(file);
+        DataStateBlock data = checkpoint.data();
+        int[][] controllers = checkpoint.controllers();
+        List<SystemState> states = IntStream.range(0, data.size()).mapToObj(i -> {
+            SystemState state = restore.apply(data.getDataState(i));
+            if (controllers == null) {
+                return state;
+            }
+            if (!((state instanceof ControlledSystem system)&&(system.getController() instanceof CompiledController controller))) {
+                throw new IllegalArgumentException("Restored states must have compiled controllers");
+            }
+            return system.setController(controller.withState(controllers[i]));
+        }).toList();
+        List<SampleSet<SystemState>> steps = new ArrayList<>(Collections.nCopies(checkpoint.step(), null));
+        steps.add(checkpoint.columnar() ? ColumnarSampleSet.of(states) : new SampleSet<>(states));
+        RandomStreams streams = new RandomStreams(checkpoint.seed());
+        EvolutionSequence result = new EvolutionSequence(monitor, new DefaultRandomGenerator(checkpoint.seed()), streams, steps);
+        result.firstRetained = checkpoint.step();
+        result.setCheckpoint(file, checkpoint.interval());
+        return result;
     }
 
     /**
@@ -189,6 +697,7 @@ public class EvolutionSequence {
     protected void doAdd(SampleSet<SystemState> sampling) {
         lastGenerated = sampling;
         sequence.add(lastGenerated);
+        evict();
     }
 
     /**
@@ -199,11 +708,146 @@ public class EvolutionSequence {
      * from the last distribution in this sequence.
      */
     protected SampleSet<SystemState> generateNextStep() {
-        return lastGenerated.apply(s -> s.sampleNext(rg));
+        if ((lastGenerated instanceof ColumnarSampleSet<SystemState> columnar)&&(columnar.getBlockEnvironment() != null)) {
+            if (streams != null) {
+                int step = length();
+                return columnar.applyBlock(i -> unlessCancelled(streams.get(step, i)), columnar.getBlockEnvironment());
+            }
+            return columnar.applyBlock(i -> unlessCancelled(rg), columnar.getBlockEnvironment());
+        }
+        if (streams != null) {
+            return lastGenerated.apply(streams, length(), cancellable((r, s) -> s.sampleNext(r)));
+        }
+        return lastGenerated.apply(rg, cancellable((r, s) -> s.sampleNext(r)));
     }
 
     public SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition) {
-        return lastGenerated.apply(s -> s.sampleNextCond(rg,condition));
+        if (streams != null) {
+            return lastGenerated.apply(streams, length(), cancellable((r, s) -> s.sampleNextCond(r, condition)));
+        }
+        return lastGenerated.apply(rg, cancellable((r, s) -> s.sampleNextCond(r, condition)));
+    }
+
+    /**
+     * Returns the sample of the distribution reached from the last distribution in this sequence by letting each
+     * sample evolve until it satisfies the given condition or exceeds the given bounds. The outcome of the sampling
+     * of the element with index <code>i</code> is stored in <code>outcomes[i]</code>.
+     *
+     * @param condition condition to reach.
+     * @param bounds bounds on the micro-steps performed for each sample.
+     * @param outcomes array where the outcomes of the samplings are stored.
+     * @return the sample of the distribution reached from the last distribution in this sequence.
+     */
+    protected SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition, ConditionBounds bounds, byte[] outcomes) {
+        List<SystemState> states = lastGenerated.stream().toList();
+        SystemState[] result = new SystemState[states.size()];
+        if (streams == null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = sampleUntil(rg, states.get(i), condition, bounds, outcomes, i);
+            }
+            return lastGenerated.withStates(List.of(result));
+        }
+        int step = length();
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[result.length];
+        for (int i = 0; i < result.length; i++) {
+            int index = i;
+            tasks[i] = ForkJoinTask.adapt(() -> {
+                result[index] = sampleUntil(streams.get(step, index), states.get(index), condition, bounds, outcomes, index);
+            });
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        return lastGenerated.withStates(List.of(result));
+    }
+
+    /**
+     * Samples the evolution of the given state until it satisfies the given condition or exceeds the given bounds.
+     */
+    private SystemState sampleUntil(RandomGenerator rg, SystemState state, DataStateBooleanExpression condition, ConditionBounds bounds, byte[] outcomes, int i) {
+        long start = System.nanoTime();
+        long timeout = (bounds.timeout() == null ? Long.MAX_VALUE : bounds.timeout().toNanos());
+        SystemState result = state;
+        int steps = 0;
+        while (!condition.eval(result.getDataState())) {
+            SimulationMonitor.checkCancelled(monitor);
+            if (steps == bounds.maxSteps()) {
+                outcomes[i] = EXHAUSTED;
+                return result;
+            }
+            if (System.nanoTime() - start >= timeout) {
+                outcomes[i] = TIMED_OUT;
+                return result;
+            }
+            result = result.sampleNext(rg);
+            steps++;
+        }
+        outcomes[i] = REACHED;
+        return result;
+    }
+
+    /**
+     * Returns the function that checks whether the simulation has been cancelled before applying the given one.
+     */
+    private BiFunction<RandomGenerator, SystemState, SystemState> cancellable(BiFunction<RandomGenerator, SystemState, SystemState> function) {
+        if (monitor == null) {
+            return function;
+        }
+        return (r, s) -> {
+            SimulationMonitor.checkCancelled(monitor);
+            return function.apply(r, s);
+        };
+    }
+
+    /**
+     * Returns the given value if the simulation has not been cancelled.
+     */
+    private <T> T unlessCancelled(T value) {
+        SimulationMonitor.checkCancelled(monitor);
+        return value;
+    }
+
+    /**
+     * Samples a step with the given sampler and, if this sequence has a monitor, notifies it with the
+     * statistics of the sampling.
+     */
+    private SampleSet<SystemState> sampleStep(int lastGeneratedStep, Supplier<SampleSet<SystemState>> sampler) {
+        StepGenerationEvent event = new StepGenerationEvent();
+        event.begin();
+        SampleSet<SystemState> result;
+        if (monitor == null) {
+            result = sampler.get();
+        } else {
+            SimulationMonitor.checkCancelled(monitor);
+            long allocated = AllocationCounter.allocatedBytes();
+            long start = System.nanoTime();
+            result = sampler.get();
+            monitor.samplingStatistics(new SamplingStatistics(lastGeneratedStep, result.size(), System.nanoTime() - start, AllocationCounter.allocatedSince(allocated)));
+        }
+        if (event.shouldCommit()) {
+            event.step = lastGeneratedStep;
+            event.samples = result.size();
+            event.perturbed = (this instanceof PerturbedEvolutionSequence);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the monitor of this sequence, or <code>null</code> if this sequence is not monitored.
+     *
+     * @return the monitor of this sequence.
+     */
+    public SimulationMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Throws a {@link SimulationCancelledException} if the monitor of this sequence has been cancelled.
+     * This method is used by long evaluations over this sequence to stop as soon as possible.
+     *
+     * @throws SimulationCancelledException if the monitor of this sequence has been cancelled.
+     */
+    public void checkCancelled() {
+        SimulationMonitor.checkCancelled(monitor);
     }
 
     /**
@@ -247,6 +891,16 @@ public class EvolutionSequence {
         return rg;
     }
 
+    /**
+     * Returns the random streams used to sample steps of this evolution sequence, or <code>null</code>
+     * if all the samples share the same random generator.
+     *
+     * @return the random streams used to sample steps of this evolution sequence.
+     */
+    protected RandomStreams getRandomStreams() {
+        return streams;
+    }
+
 
     /**
      * Returns the evolution sequence obtained from this evolution sequence by applying the given
@@ -262,7 +916,40 @@ public class EvolutionSequence {
         if (perturbedStep<0) {
             throw new IllegalArgumentException();
         }
-        return new PerturbedEvolutionSequence(this.monitor, this.rg, this.select(perturbedStep-1), this.get(perturbedStep), perturbation, scale);
+        SampleSet<SystemState> perturbedSampleSet = this.get(perturbedStep);
+        if (perturbedSampleSet instanceof StoredSampleSet) {
+            throw new IllegalStateException("Step "+perturbedStep+" is not kept in memory and cannot be perturbed");
+        }
+        return apply(perturbation, perturbedStep, scale, this.prefix(perturbedStep), perturbedSampleSet);
+    }
+
+    /**
+     * Returns the evolution sequence obtained by applying the given perturbation to the given sample set,
+     * that takes the place of step <code>perturbedStep</code> of this sequence, while the previous steps
+     * of the result are those in <code>prefix</code>. The steps that follow the perturbed one are sampled
+     * as in {@link #apply(Perturbation, int, int)}.
+     */
+    EvolutionSequence apply(Perturbation perturbation, int perturbedStep, int scale, List<SampleSet<SystemState>> prefix, SampleSet<SystemState> perturbedSampleSet) {
+        PerturbationEvent event = new PerturbationEvent();
+        event.begin();
+        RandomStreams perturbedStreams;
+        if (this.streams == null) {
+            perturbedStreams = null;
+        } else if (commonRandomNumbers) {
+            perturbedStreams = this.streams.replicate(scale);
+        } else {
+            perturbedStreams = this.streams.fork(perturbedStep);
+        }
+        EvolutionSequence result = new PerturbedEvolutionSequence(this.monitor, this.rg, perturbedStreams, prefix, perturbedSampleSet, perturbation, scale);
+        result.setRetentionPolicy(this.retention);
+        result.setLookAhead(this.lookAhead);
+        result.setCommonRandomNumbers(this.commonRandomNumbers);
+        if (event.shouldCommit()) {
+            event.step = perturbedStep;
+            event.scale = scale;
+            event.commit();
+        }
+        return result;
     }
 
     /**
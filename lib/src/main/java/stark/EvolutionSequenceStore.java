@@ -0,0 +1,194 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateBlock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * This class is used to store the sample sets of an evolution sequence in a binary file, and
+ * to open them, via memory mapping, as a read-only evolution sequence.
+ * <p>A file consists of a header, containing the number of variables, the number of steps and the data ranges,
+ * followed by an index with the position and the number of samples of each step, and by the data state block
+ * of each step, stored as described in {@link DataStateBlock#writeTo(ByteBuffer)}.</p>
+ */
+public final class EvolutionSequenceStore {
+
+    private static final int MAGIC = 0x5354524b;
+    private static final int VERSION = 1;
+
+    private EvolutionSequenceStore() {
+    }
+
+    /**
+     * Stores the first <code>steps</code> steps of the given evolution sequence in the given file.
+     *
+     * @param file target file.
+     * @param sequence an evolution sequence.
+     * @param steps number of stored steps.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(Path file, EvolutionSequence sequence, int steps) throws IOException {
+        write(file, sequence.select(0, steps - 1));
+    }
+
+    /**
+     * Stores the given sample sets in the given file. The data states in all the sample sets must have the same ranges.
+     *
+     * @param file target file.
+     * @param steps a non-empty list of sample sets.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the sample sets are empty or have different data ranges.
+     */
+    public static void write(Path file, List<SampleSet<SystemState>> steps) throws IOException {
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("At least a step must be stored!");
+        }
+        DataStateBlock first = StoredSampleSet.toBlock(steps.get(0));
+        int variables = first.variables();
+        long headerSize = 4L * Integer.BYTES + 2L * Double.BYTES * variables + (long) steps.size() * (Long.BYTES + Integer.BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer index = ByteBuffer.allocate((int) ((long) steps.size() * (Long.BYTES + Integer.BYTES)));
+            long position = headerSize;
+            for (SampleSet<SystemState> step : steps) {
+                DataStateBlock block = (step == steps.get(0) ? first : StoredSampleSet.toBlock(step));
+                checkRanges(first, block);
+                ByteBuffer buffer = ByteBuffer.allocate((int) DataStateBlock.byteSize(variables, block.size()));
+                block.writeTo(buffer);
+                buffer.flip();
+                index.putLong(position).putInt(block.size());
+                position += writeFully(channel, buffer, position);
+            }
+            ByteBuffer header = ByteBuffer.allocate((int) (headerSize - index.capacity()));
+            header.putInt(MAGIC).putInt(VERSION).putInt(variables).putInt(steps.size());
+            for (int i = 0; i < variables; i++) {
+                header.putDouble(first.getDataRange(i).minValue()).putDouble(first.getDataRange(i).maxValue());
+            }
+            header.flip();
+            index.flip();
+            writeFully(channel, header, 0);
+            writeFully(channel, index, header.capacity());
+        }
+    }
+
+    private static void checkRanges(DataStateBlock first, DataStateBlock block) {
+        if (block.variables() != first.variables()) {
+            throw new IllegalArgumentException("Incompatible size of data states!");
+        }
+        for (int i = 0; i < first.variables(); i++) {
+            if (!first.getDataRange(i).equals(block.getDataRange(i))) {
+                throw new IllegalArgumentException("Incompatible data range at index "+i+"!");
+            }
+        }
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * Opens the evolution sequence stored in the given file. The steps in the file are mapped in memory
+     * and can be shared, read-only, by different processes.
+     * The returned sequence cannot be extended beyond the stored steps, nor perturbed.
+     *
+     * @param file a file written with {@link #write(Path, List)}.
+     * @return the evolution sequence stored in <code>file</code>.
+     * @throws IOException if an I/O error occurs or if the file is not a stored evolution sequence.
+     */
+    public static EvolutionSequence open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Opens the evolution sequence stored in the given file. Steps that are not in the file,
+     * and the system states to which perturbations are applied, are obtained from the sequence provided by
+     * <code>source</code>, that is created only when needed. The perturbed sequences share the stored steps
+     * that precede the perturbed one. This is consistent only if <code>source</code> provides the
+     * sequence that has been stored, e.g. when it is generated with the same {@link RandomStreams}.
+     *
+     * @param file a file written with {@link #write(Path, List)}.
+     * @param source function providing the sequence used when stored steps are not enough.
+     * @return the evolution sequence stored in <code>file</code>.
+     * @throws IOException if an I/O error occurs or if the file is not a stored evolution sequence.
+     */
+    public static EvolutionSequence open(Path file, Supplier<EvolutionSequence> source) throws IOException {
+        return open(file, source, null);
+    }
+
+    /**
+     * Opens the evolution sequence stored in the given file. Steps that are not in the file are obtained
+     * from the sequence provided by <code>source</code>, while the stored steps are perturbed by applying
+     * the perturbations to the system states rebuilt with <code>restore</code> from their data states,
+     * so that the source does not need to sample them again. This is consistent only if <code>source</code>
+     * provides the sequence that has been stored and <code>restore</code> returns states behaving like
+     * the stored ones, e.g. with the same controller and environment.
+     *
+     * @param file a file written with {@link #write(Path, List)}.
+     * @param source function providing the sequence used when stored steps are not enough.
+     * @param restore function used to rebuild a system state from a stored data state.
+     * @return the evolution sequence stored in <code>file</code>.
+     * @throws IOException if an I/O error occurs or if the file is not a stored evolution sequence.
+     */
+    public static EvolutionSequence open(Path file, Supplier<EvolutionSequence> source, Function<DataState, SystemState> restore) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 4L * Integer.BYTES));
+            if ((header.remaining() < 4 * Integer.BYTES) || (header.getInt() != MAGIC)) {
+                throw new IOException("File "+file+" does not contain an evolution sequence");
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported version of file "+file);
+            }
+            int variables = header.getInt();
+            int steps = header.getInt();
+            ByteBuffer ranges = channel.map(FileChannel.MapMode.READ_ONLY, 4L * Integer.BYTES,
+                    2L * Double.BYTES * variables + (long) steps * (Long.BYTES + Integer.BYTES));
+            DataRange[] dataRanges = IntStream.range(0, variables).mapToObj(i -> new DataRange(ranges.getDouble(), ranges.getDouble())).toArray(DataRange[]::new);
+            List<SampleSet<SystemState>> sampleSets = new ArrayList<>(steps);
+            for (int i = 0; i < steps; i++) {
+                long position = ranges.getLong();
+                int rows = ranges.getInt();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, DataStateBlock.byteSize(variables, rows));
+                sampleSets.add(new StoredSampleSet(() -> DataStateBlock.readFrom(dataRanges, rows, buffer.duplicate()), rows));
+            }
+            return new StoredEvolutionSequence(sampleSets, source, restore);
+        }
+    }
+
+}
@@ -23,10 +23,10 @@
 package stark;
 
 import stark.controller.Controller;
-import stark.controller.EffectStep;
 import stark.ds.DataState;
 import stark.ds.DataStateBooleanExpression;
 import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdateBuffer;
 import stark.feedback.Feedback;
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -66,11 +66,15 @@ public class FeedbackSystem implements SystemState {
     //}
 
     public SystemState sampleNext(RandomGenerator rg) {
-        EffectStep<Controller> step = controller.next(rg, state);
+        DataStateUpdateBuffer updates = DataStateUpdateBuffer.scratch();
+        Controller next = controller.next(rg, state, updates);
         int c_step = state.getStep();
-        DataState newState = environment.apply(rg, feedback.apply(rg,state.apply(step.effect())));
+        DataState newState = environment.apply(rg, feedback.apply(rg, DataState.applyOrShare(state, updates)));
+        if (newState == state) {
+            newState = state.copy();
+        }
         newState.setStep(c_step +1);
-        return new FeedbackSystem(step.next(), environment, newState, feedback.next());
+        return new FeedbackSystem(next, environment, newState, feedback.next());
     }
 
     @Override
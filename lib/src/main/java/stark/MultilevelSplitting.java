@@ -0,0 +1,174 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateExpression;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates the probability of rare events by fixed-effort multilevel splitting. The event is that a score,
+ * typically a penalty function, reaches a given value within a given number of steps. The value is
+ * approached through increasing intermediate levels: at each stage, <code>effort</code> trajectories are started
+ * from the states where the previous level has been reached, cloning them uniformly at random, and are
+ * simulated until they reach the next level or the horizon. Trajectories that do not reach the next level are
+ * pruned. The product of the fractions of trajectories reaching each level is an unbiased estimate of the
+ * probability of the event, whose relative error grows with the number of levels instead of with the
+ * inverse of the probability.
+ * Each trajectory of a stage uses its own random stream, hence estimates do not depend on the number of
+ * threads used to compute them.
+ */
+public class MultilevelSplitting {
+
+    /**
+     * Key used to derive, from the given streams, the ones used by the stages of splitting.
+     */
+    private static final long SPLITTING_STREAMS_KEY = -3;
+
+    private final DataStateExpression score;
+    private final double[] levels;
+    private final int horizon;
+    private final int effort;
+
+    /**
+     * Creates the splitting of the event that <code>score</code> reaches the last of the given levels within
+     * <code>horizon</code> steps.
+     *
+     * @param score score function on data states.
+     * @param levels strictly increasing levels of the score.
+     * @param horizon number of steps within which the last level must be reached.
+     * @param effort number of trajectories simulated at each stage.
+     * @throws IllegalArgumentException if <code>levels</code> is empty or not strictly increasing, or if
+     * <code>horizon</code> or <code>effort</code> are not positive.
+     */
+    public MultilevelSplitting(DataStateExpression score, double[] levels, int horizon, int effort) {
+        if ((levels.length == 0)||IntStream.range(1, levels.length).anyMatch(i -> levels[i] <= levels[i - 1])) {
+            throw new IllegalArgumentException("Levels must be strictly increasing!");
+        }
+        if ((horizon <= 0)||(effort <= 0)) {
+            throw new IllegalArgumentException("Horizon and effort must be positive!");
+        }
+        this.score = Objects.requireNonNull(score);
+        this.levels = levels.clone();
+        this.horizon = horizon;
+        this.effort = effort;
+    }
+
+    /**
+     * Returns the estimate of the probability that the score reaches the last level within the horizon,
+     * starting from the first step of the given sequence. The random streams and the monitor of the sequence
+     * are used to simulate the trajectories.
+     *
+     * @param sequence an evolution sequence using random streams.
+     * @return the estimate of the probability that the score reaches the last level within the horizon.
+     * @throws IllegalArgumentException if <code>sequence</code> does not use random streams.
+     */
+    public SplittingEstimate estimate(EvolutionSequence sequence) {
+        if (sequence.getRandomStreams() == null) {
+            throw new IllegalArgumentException("Multilevel splitting requires random streams");
+        }
+        return estimate(sequence.getRandomStreams(), sequence.get(0), sequence.getMonitor());
+    }
+
+    /**
+     * Returns the estimate of the probability that the score reaches the last level within the horizon,
+     * starting from the given sample set. The <code>i</code>-th trajectory of the first stage starts from
+     * the element of <code>initial</code> with index <code>i</code> modulo its size.
+     *
+     * @param streams random streams used to simulate the trajectories.
+     * @param initial initial states.
+     * @param monitor monitor checked for cancellation between the steps of the trajectories, or <code>null</code>.
+     * @return the estimate of the probability that the score reaches the last level within the horizon.
+     * @throws SimulationCancelledException if <code>monitor</code> has been cancelled.
+     */
+    public SplittingEstimate estimate(RandomStreams streams, SampleSet<SystemState> initial, SimulationMonitor monitor) {
+        List<SystemState> initialStates = initial.stream().toList();
+        Entrance[] entrances = IntStream.range(0, initialStates.size()).mapToObj(i -> new Entrance(initialStates.get(i), 0)).toArray(Entrance[]::new);
+        double[] conditionalProbabilities = new double[levels.length];
+        double probability = 1.0;
+        double relativeVariance = 0.0;
+        int trajectories = 0;
+        RandomStreams splittingStreams = streams.fork(SPLITTING_STREAMS_KEY);
+        for (int stage = 0; stage < levels.length; stage++) {
+            Entrance[] starts = entrances;
+            RandomStreams stageStreams = splittingStreams.fork(stage);
+            double level = levels[stage];
+            boolean first = (stage == 0);
+            Entrance[] reached = IntStream.range(0, effort).parallel().mapToObj(i -> {
+                RandomGenerator rg = stageStreams.get(0, i);
+                Entrance start = (first ? starts[i % starts.length] : starts[rg.nextInt(starts.length)]);
+                return simulate(rg, start, level, monitor);
+            }).filter(Objects::nonNull).toArray(Entrance[]::new);
+            trajectories += effort;
+            double p = (double) reached.length / effort;
+            conditionalProbabilities[stage] = p;
+            probability *= p;
+            if (reached.length == 0) {
+                return new SplittingEstimate(0.0, conditionalProbabilities, 0.0, 0.0, trajectories);
+            }
+            relativeVariance += (1 - p) / (effort * p);
+            entrances = reached;
+        }
+        double variance = probability * probability * relativeVariance;
+        double effectiveSampleSize = (variance == 0.0 ? trajectories : probability * (1 - probability) / variance);
+        return new SplittingEstimate(probability, conditionalProbabilities, variance, effectiveSampleSize, trajectories);
+    }
+
+    /**
+     * Simulates a trajectory from the given entrance until the score reaches the given level, and returns the
+     * state where the level is reached, or <code>null</code> if it is not reached within the horizon.
+     */
+    private Entrance simulate(RandomGenerator rg, Entrance start, double level, SimulationMonitor monitor) {
+        SystemState state = start.state();
+        int step = start.step();
+        while (score.eval(state.getDataState()) < level) {
+            if (step >= horizon) {
+                return null;
+            }
+            SimulationMonitor.checkCancelled(monitor);
+            state = state.sampleNext(rg);
+            step++;
+        }
+        return new Entrance(state, step);
+    }
+
+    /**
+     * Returns the levels of this splitting.
+     *
+     * @return the levels of this splitting.
+     */
+    public double[] getLevels() {
+        return Arrays.copyOf(levels, levels.length);
+    }
+
+    /**
+     * A state where a level has been reached, with the step where it has been reached.
+     */
+    private record Entrance(SystemState state, int step) {
+    }
+
+}
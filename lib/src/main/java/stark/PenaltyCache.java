@@ -0,0 +1,103 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateExpression;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The sorted evaluations of penalty functions on a sample set, indexed by the identity of the functions.
+ * Only the most recently used {@link #MAX_ENTRIES} evaluations are kept, and they are softly referenced,
+ * so that the garbage collector can reclaim them when memory is low.
+ */
+final class PenaltyCache {
+
+    static final int MAX_ENTRIES = 16;
+
+    private final Map<Key, SoftReference<double[]>> entries = new LinkedHashMap<>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<double[]>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Returns the cached evaluation of the given function, or <code>null</code> if it is not cached.
+     */
+    synchronized double[] get(DataStateExpression f) {
+        SoftReference<double[]> reference = entries.get(new Key(f));
+        double[] result = (reference == null ? null : reference.get());
+        if ((reference != null)&&(result == null)) {
+            entries.remove(new Key(f));
+        }
+        return result;
+    }
+
+    /**
+     * Caches the evaluation of the given function.
+     */
+    synchronized void put(DataStateExpression f, double[] values) {
+        entries.put(new Key(f), new SoftReference<>(values));
+    }
+
+    /**
+     * Removes all the cached evaluations.
+     */
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached evaluations.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A penalty function compared by identity.
+     */
+    private static final class Key {
+
+        private final DataStateExpression f;
+
+        private Key(DataStateExpression f) {
+            this.f = f;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Key other)&&(other.f == f);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(f);
+        }
+
+    }
+
+}
@@ -27,6 +27,7 @@ import stark.ds.DataStateFunction;
 import stark.perturbation.Perturbation;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,7 +36,12 @@ import java.util.Optional;
  */
 public class PerturbedEvolutionSequence extends EvolutionSequence {
 
-    private Perturbation p;
+    /**
+     * Key used to derive, from the streams of the sequence, the ones used to apply the perturbation.
+     */
+    private static final long PERTURBATION_STREAMS_KEY = -1;
+
+    private volatile Perturbation p;
 
     /**
      * Generates the perturbed version of a given evolution sequence,
@@ -51,13 +57,44 @@ public class PerturbedEvolutionSequence extends EvolutionSequence {
      *              in the simulation of the perturbed system.
      */
     protected PerturbedEvolutionSequence(SimulationMonitor monitor, RandomGenerator rg, List<SampleSet<SystemState>> sequence, SampleSet<SystemState> perturbedStep, Perturbation p, int scale) {
-        super(monitor, rg, sequence);
+        this(monitor, rg, null, sequence, perturbedStep, p, scale);
+    }
+
+    /**
+     * Generates the perturbed version of a given evolution sequence where each sample uses its own random stream.
+     * When <code>streams</code> is <code>null</code>, all the samples share the random generator <code>rg</code>.
+     *
+     * @param monitor a monitor
+     * @param rg a random generator
+     * @param streams random streams used to sample the steps of the perturbed sequence
+     * @param sequence an evolution sequence
+     * @param perturbedStep initial data state to which the perturbation is applied
+     * @param p the perturbation
+     * @param scale multiplication factor for the number of samples to be used
+     *              in the simulation of the perturbed system.
+     */
+    protected PerturbedEvolutionSequence(SimulationMonitor monitor, RandomGenerator rg, RandomStreams streams, List<SampleSet<SystemState>> sequence, SampleSet<SystemState> perturbedStep, Perturbation p, int scale) {
+        super(monitor, rg, streams, sequence);
         this.p = p;
         doAdd(doApply(perturbedStep.replica(scale)));
     }
 
+    /**
+     * Perturbed sequences cannot be checkpointed, since checkpoints do not contain the perturbations being applied.
+     *
+     * @throws UnsupportedOperationException always.
+     */
     @Override
-    protected synchronized SampleSet<SystemState> generateNextStep() {
+    public synchronized void setCheckpoint(Path file, int interval) {
+        throw new UnsupportedOperationException("Perturbed evolution sequences cannot be checkpointed");
+    }
+
+    /**
+     * This method is not synchronized, since it is invoked either by {@link #generateUpTo(int)}, that holds the
+     * lock of this sequence, or by the background producer, that is the only one generating steps when a look-ahead is set.
+     */
+    @Override
+    protected SampleSet<SystemState> generateNextStep() {
         this.p = this.p.step();
         return doApply(super.generateNextStep());
     }
@@ -68,6 +105,12 @@ public class PerturbedEvolutionSequence extends EvolutionSequence {
         return doApply(super.generateNextStepCond(condition));
     }
 
+    @Override
+    protected SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition, ConditionBounds bounds, byte[] outcomes) {
+        this.p = this.p.step();
+        return doApply(super.generateNextStepCond(condition, bounds, outcomes));
+    }
+
 
     /**
      * Applies this perturbation to a given sample set.
@@ -75,10 +118,12 @@ public class PerturbedEvolutionSequence extends EvolutionSequence {
      * @param sample a given sample set
      * @return the perturbation of <code>sample</code> via <code>this.p</code>.
      */
-    protected synchronized SampleSet<SystemState> doApply(SampleSet<SystemState> sample) {
+    protected SampleSet<SystemState> doApply(SampleSet<SystemState> sample) {
         Optional<DataStateFunction> perturbationFunction = this.p.effect();
-        if (perturbationFunction.isPresent()) {
-            return sample.apply(getRandomGenerator(), (rg, s) -> s.apply(rg, perturbationFunction.get()));
+        if (perturbationFunction.isPresent() && (getRandomStreams() != null)) {
+            return sample.applyDistribution(getRandomStreams().fork(PERTURBATION_STREAMS_KEY), length(), perturbationFunction.get());
+        } else if (perturbationFunction.isPresent()) {
+            return sample.applyDistribution(getRandomGenerator(), perturbationFunction.get());
         } else {
             return sample;
         }
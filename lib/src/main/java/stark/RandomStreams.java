@@ -0,0 +1,123 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * This class provides independent streams of random values, one for each sample at each step.
+ * The stream used for a sample only depends on a master seed, on the step and on the index of the sample,
+ * so that simulations give the same results regardless of the number of threads used to sample them.
+ */
+public final class RandomStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Key used to derive the streams of the replicas that are not coupled with their element.
+     */
+    private static final long REPLICA_STREAMS_KEY = -4;
+
+    private final long seed;
+
+    private final int replicas;
+
+    /**
+     * Creates the streams derived from the given master seed.
+     *
+     * @param seed master seed.
+     */
+    public RandomStreams(long seed) {
+        this(seed, 1);
+    }
+
+    private RandomStreams(long seed, int replicas) {
+        this.seed = seed;
+        this.replicas = replicas;
+    }
+
+    /**
+     * Returns the master seed of these streams.
+     *
+     * @return the master seed of these streams.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the random generator that must be used to sample the element with the given index at the given step.
+     * Each invocation returns a new generator, hence the result can be safely used by a single thread.
+     *
+     * @param step a time step.
+     * @param index index of a sample.
+     * @return the random generator associated with sample <code>index</code> at step <code>step</code>.
+     */
+    public RandomGenerator get(int step, int index) {
+        int replica = index % replicas;
+        if (replica == 0) {
+            return new DefaultRandomGenerator(mix(mix(seed + GOLDEN_GAMMA * (step + 1L)) + GOLDEN_GAMMA * (index / replicas + 1L)));
+        }
+        return new RandomStreams(seed).fork(REPLICA_STREAMS_KEY).fork(replica).get(step, index / replicas);
+    }
+
+    /**
+     * Returns the streams where the element with index <code>i*scale</code> uses the stream that these streams
+     * associate with the element with index <code>i</code>, while the other elements with index in
+     * <code>[i*scale, (i+1)*scale)</code> use streams derived, for each offset, from that of element <code>i</code>.
+     * These streams are used to sample the replicas of a sample set obtained with {@link SampleSet#replica(int)},
+     * so that the first replica of each element replays its random values, and the other replicas are
+     * distinct samples.
+     *
+     * @param scale number of replicas of each element.
+     * @return the streams where the first of the <code>scale</code> replicas of each element shares its stream.
+     */
+    public RandomStreams replicate(int scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("The number of replicas must be positive!");
+        }
+        return new RandomStreams(seed, replicas * scale);
+    }
+
+    /**
+     * Returns the streams derived from these ones with the given key.
+     * Streams obtained with different keys are independent of each other and of these ones, and they associate
+     * a different stream with each element, even when these streams are replicated.
+     *
+     * @param key key identifying the derived streams.
+     * @return the streams derived from these ones with the given key.
+     */
+    public RandomStreams fork(long key) {
+        return new RandomStreams(mix(seed ^ mix(key + GOLDEN_GAMMA)));
+    }
+
+    /**
+     * Finalisation function of SplitMix64, used to decorrelate the seeds of the streams.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import java.nio.file.Path;
+
+/**
+ * A retention policy describes which steps of an evolution sequence are kept in memory.
+ * Only the last <code>window</code> steps are retained; older steps are dropped or, when
+ * <code>spillDirectory</code> is not <code>null</code>, their data states are spilled to a file
+ * in that directory and read back when needed.
+ *
+ * @param window number of recent steps kept in memory, or a negative value if all the steps are kept.
+ * @param spillDirectory directory where evicted steps are spilled, or <code>null</code> if evicted steps are dropped.
+ */
+public record RetentionPolicy(int window, Path spillDirectory) {
+
+    public RetentionPolicy {
+        if (window == 0) {
+            throw new IllegalArgumentException("At least the last step must be retained!");
+        }
+    }
+
+    /**
+     * Returns the policy that keeps all the steps in memory.
+     *
+     * @return the policy that keeps all the steps in memory.
+     */
+    public static RetentionPolicy keepAll() {
+        return new RetentionPolicy(-1, null);
+    }
+
+    /**
+     * Returns the policy that keeps in memory only the given number of recent steps and drops the other ones.
+     *
+     * @param window number of recent steps kept in memory.
+     * @return the policy that keeps in memory only the last <code>window</code> steps.
+     */
+    public static RetentionPolicy window(int window) {
+        return new RetentionPolicy(window, null);
+    }
+
+    /**
+     * Returns the policy that keeps in memory only the given number of recent steps and spills
+     * the other ones to the given directory.
+     *
+     * @param window number of recent steps kept in memory.
+     * @param spillDirectory directory where evicted steps are stored.
+     * @return the policy that keeps in memory only the last <code>window</code> steps and spills the other ones to <code>spillDirectory</code>.
+     */
+    public static RetentionPolicy spill(int window, Path spillDirectory) {
+        return new RetentionPolicy(window, spillDirectory);
+    }
+
+    /**
+     * Returns true if the step with the given index must be evicted from a sequence with the given length.
+     *
+     * @param step index of a step.
+     * @param length length of the sequence.
+     * @return true if <code>step</code> is not among the last <code>window</code> steps of a sequence with the given length.
+     */
+    public boolean isEvicted(int step, int length) {
+        return (window > 0) && (step < length - window);
+    }
+
+}
@@ -28,6 +28,7 @@ import org.apache.commons.math3.random.RandomGenerator;
 import stark.penalty.*;
 import stark.penalty.Penalty;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.*;
@@ -42,6 +43,8 @@ public class SampleSet<T extends SystemState> {
 
     private final List<T> states;
 
+    private final PenaltyCache penalties = new PenaltyCache();
+
     /**
      * Creates an empty sample set.
      */
@@ -71,6 +74,21 @@ public class SampleSet<T extends SystemState> {
         return new SampleSet<>(IntStream.range(0, size).mapToObj(i -> generator.apply(rg)).toList());
     }
 
+    /**
+     * Returns a set of samples, of a given size, generated with a given function.
+     * The sample with index <code>i</code> is generated with the random stream associated with
+     * step <code>0</code> and index <code>i</code>, hence samples can be generated in parallel.
+     *
+     * @param streams random streams
+     * @param generator random function used to generate the samples
+     * @param size number of samples
+     * @return the sample set of size <code>size</code> in which each sample is obtained by applying function <code>generator</code>.
+     * @param <T> model domain
+     */
+    public static <T extends SystemState> SampleSet<T> generate(RandomStreams streams, Function<RandomGenerator, T> generator, int size) {
+        return new SampleSet<>(IntStream.range(0, size).parallel().mapToObj(i -> generator.apply(streams.get(0, i))).toList());
+    }
+
     /**
      * Adds a new system state to this sample set.
      *
@@ -78,6 +96,7 @@ public class SampleSet<T extends SystemState> {
      */
     public void add(T state) {
         states.add(state);
+        penalties.clear();
     }
 
     /**
@@ -94,12 +113,92 @@ public class SampleSet<T extends SystemState> {
      * returns a (sorted) array containing its evaluation on the data state
      * of each element in the sample set.
      *
+     * Evaluations are cached by the identity of <code>f</code>, hence <code>f</code> must not depend on
+     * anything but the data states.
+     *
      * @param f a penalty function.
      * @return a sorted array containing all the evaluations of <code>f</code> over the
      * data states associated to the system states in the sample set.
      */
     public synchronized double[] evalPenaltyFunction(DataStateExpression f) {
-        return states.stream().map(SystemState::getDataState).mapToDouble(f).sorted().toArray();
+        return sortedPenalty(f).clone();
+    }
+
+    /**
+     * Returns the sorted evaluations of <code>f</code> cached by this sample set, computing them if needed.
+     * The result is shared, hence it must not be modified.
+     */
+    synchronized double[] sortedPenalty(DataStateExpression f) {
+        PenaltyEvaluationEvent event = new PenaltyEvaluationEvent();
+        event.begin();
+        double[] result = penalties.get(f);
+        boolean cached = (result != null);
+        if (!cached) {
+            result = computePenaltyFunction(f);
+            Arrays.sort(result);
+            penalties.put(f, result);
+        }
+        if (event.shouldCommit()) {
+            event.samples = result.length;
+            event.cached = cached;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the evaluations of <code>f</code> on the data states of the elements of this sample set, in any order.
+     *
+     * @param f a penalty function.
+     * @return the evaluations of <code>f</code> on the data states of the elements of this sample set.
+     */
+    protected double[] computePenaltyFunction(DataStateExpression f) {
+        return states.stream().map(SystemState::getDataState).mapToDouble(f).toArray();
+    }
+
+    /**
+     * Releases the cached evaluations of penalty functions. This method is invoked when the step containing
+     * this sample set is evicted from its sequence.
+     */
+    void release() {
+        penalties.clear();
+    }
+
+    /**
+     * Given a penalty function, described by means of an expression over data states, returns its sorted
+     * evaluations on the data states of the elements in this sample set together with the weights of
+     * the elements. All the weights of an unweighted sample set are <code>1</code>.
+     *
+     * @param f a penalty function.
+     * @return the sorted evaluations of <code>f</code> with the weights of the samples they are evaluated on.
+     */
+    public synchronized WeightedValues evalWeightedPenaltyFunction(DataStateExpression f) {
+        double[] values = evalPenaltyFunction(f);
+        double[] weights = new double[values.length];
+        Arrays.fill(weights, 1.0);
+        return new WeightedValues(values, weights);
+    }
+
+    /**
+     * Returns the weights of the elements of this sample set, or <code>null</code> if this sample set is not weighted.
+     */
+    double[] weights() {
+        return null;
+    }
+
+    /**
+     * Returns the sample set containing the given states, one for each element of this sample set, that
+     * keeps the weights of this sample set.
+     */
+    SampleSet<T> withStates(List<T> states) {
+        return new SampleSet<>(states);
+    }
+
+    /**
+     * Returns true if either this sample set or the given one is weighted.
+     */
+    private boolean isWeighted(SampleSet<T> other) {
+        return (weights() != null)||(other.weights() != null);
     }
 
     /**
@@ -118,9 +217,24 @@ public class SampleSet<T extends SystemState> {
         if (other.size() % this.size() != 0) {
             throw new IllegalArgumentException("Incompatible size of data sets!");
         }
-        double[] thisData = this.evalPenaltyFunction(f);
-        double[] otherData = other.evalPenaltyFunction(f);
-        return computeDistance(distance, thisData, otherData);
+        DistanceEvent event = new DistanceEvent();
+        event.begin();
+        double result;
+        if (isWeighted(other)) {
+            result = this.evalWeightedPenaltyFunction(f).distance(distance, other.evalWeightedPenaltyFunction(f));
+        } else {
+            result = computeDistance(distance, this.sortedPenalty(f), other.sortedPenalty(f));
+        }
+        commit(event, other.size());
+        return result;
+    }
+
+    private void commit(DistanceEvent event, int otherSamples) {
+        if (event.shouldCommit()) {
+            event.samples = size();
+            event.otherSamples = otherSamples;
+            event.commit();
+        }
     }
 
     /**
@@ -184,13 +298,20 @@ public class SampleSet<T extends SystemState> {
         if (other.size() % this.size() != 0) {
             throw new IllegalArgumentException("Incompatible size of data sets!");
         }
+        if (isWeighted(other)) {
+            return distance(rho.effectUpTo(step).get(step), (v1, v2) -> Math.max(0, v2 - v1), other);
+        }
+        DistanceEvent event = new DistanceEvent();
+        event.begin();
         DataStateExpression f = rho.effectUpTo(step).get(step);
-        double[] thisData = this.evalPenaltyFunction(f);
-        double[] otherData = other.evalPenaltyFunction(f);
+        double[] thisData = this.sortedPenalty(f);
+        double[] otherData = other.sortedPenalty(f);
         int k = otherData.length / thisData.length;
-        return IntStream.range(0, thisData.length).parallel()
+        double result = IntStream.range(0, thisData.length).parallel()
                 .mapToDouble(i -> IntStream.range(0, k).mapToDouble(j -> Math.max(0,otherData[i * k + j] - thisData[i])).sum())
                 .sum() / otherData.length;
+        commit(event, otherData.length);
+        return result;
     }
 
     /**
@@ -222,13 +343,20 @@ public class SampleSet<T extends SystemState> {
         if (other.size() % this.size() != 0) {
             throw new IllegalArgumentException("Incompatible size of data sets!");
         }
+        if (isWeighted(other)) {
+            return distance(rho.effectUpTo(step).get(step), (v1, v2) -> Math.max(0, v1 - v2), other);
+        }
+        DistanceEvent event = new DistanceEvent();
+        event.begin();
         DataStateExpression f = rho.effectUpTo(step).get(step);
-        double[] thisData = this.evalPenaltyFunction(f);
-        double[] otherData = other.evalPenaltyFunction(f);
+        double[] thisData = this.sortedPenalty(f);
+        double[] otherData = other.sortedPenalty(f);
         int k = otherData.length / thisData.length;
-        return IntStream.range(0, thisData.length).parallel()
+        double result = IntStream.range(0, thisData.length).parallel()
                 .mapToDouble(i -> IntStream.range(0, k).mapToDouble(j -> Math.max(0, thisData[i] - otherData[i * k + j])).sum())
                 .sum() / otherData.length;
+        commit(event, otherData.length);
+        return result;
     }
 
     /**
@@ -257,24 +385,57 @@ public class SampleSet<T extends SystemState> {
      * the function <code>f</code>.
      */
     public synchronized double[] bootstrapDistance(RandomGenerator rg, DataStateExpression f, ToDoubleBiFunction<double[], double[]> distanceFunction, SampleSet<T> other, int m, double z) {
+        return bootstrapDistance(rg, f, distanceFunction, other, m, z, null);
+    }
+
+    /**
+     * Returns the confidence interval of the evaluation of the distance between this sample set and <code>other</code>
+     * computed according to the function <code>f</code>. Before each round of bootstrapping, the given monitor is
+     * checked and the evaluation is stopped if the simulation has been cancelled.
+     * When one of the two sample sets is weighted, each round resamples the values of both sets with
+     * probabilities proportional to their weights, so that <code>distanceFunction</code> is applied to unweighted data.
+     * Rounds are evaluated in parallel, each with its own random stream derived from <code>rg</code>, hence
+     * <code>distanceFunction</code> may be invoked concurrently and must not retain the arrays it receives.
+     *
+     * @param rg a random generator
+     * @param f penalty function used to compute the distance.
+     * @param other sample set to compare.
+     * @param m number of applications of bootstrapping
+     * @param z the desired quantile of the standard-normal distribution
+     * @param monitor monitor checked for cancellation, or <code>null</code>.
+     * @return the limits of the confidence interval of the evaluation of the distance between this sample set and <code>other</code> computed according to
+     * the function <code>f</code>.
+     * @throws SimulationCancelledException if <code>monitor</code> has been cancelled.
+     */
+    public synchronized double[] bootstrapDistance(RandomGenerator rg, DataStateExpression f, ToDoubleBiFunction<double[], double[]> distanceFunction, SampleSet<T> other, int m, double z, SimulationMonitor monitor) {
         if (other.size()%this.size()!=0) {
             throw new IllegalArgumentException("Incompatible size of data sets!");
         }
-        double[] W = new double[m];
+        BootstrapEvent event = new BootstrapEvent();
+        event.begin();
+        boolean weighted = isWeighted(other);
+        WeightedValues thisValues = (weighted ? this.evalWeightedPenaltyFunction(f) : null);
+        WeightedValues otherValues = (weighted ? other.evalWeightedPenaltyFunction(f) : null);
+        double[] thisData = (weighted ? thisValues.values() : this.sortedPenalty(f));
+        double[] otherData = (weighted ? otherValues.values() : other.sortedPenalty(f));
+        double[] W = (weighted
+                ? Bootstrap.rounds(rg, thisValues, otherValues, distanceFunction, m, monitor)
+                : Bootstrap.rounds(rg, thisData, otherData, distanceFunction, m, monitor));
         double WSum = 0.0;
-        double[] thisData = this.evalPenaltyFunction(f);
-        double[] otherData = other.evalPenaltyFunction(f);
-        for (int i = 0; i<m; i++){
-            double[] thisBootstrapData = IntStream.range(0, thisData.length).mapToDouble(j -> thisData[rg.nextInt(thisData.length)]).sorted().toArray();
-            double[] otherBootstrapData = IntStream.range(0, otherData.length).mapToDouble(j -> otherData[rg.nextInt(otherData.length)]).sorted().toArray();
-            W[i] = distanceFunction.applyAsDouble(thisBootstrapData, otherBootstrapData);
-            WSum += W[i];
+        for (double w : W) {
+            WSum += w;
         }
         double BootMean = WSum/m;
         double StandardError = Math.sqrt(IntStream.range(0,m).mapToDouble(j->Math.pow(W[j]-BootMean,2)).sum()/(m-1));
         double[] CI = new double[2];
         CI[0] = Math.max(0,BootMean - z*StandardError);
         CI[1] = Math.min(BootMean + z*StandardError,1);
+        if (event.shouldCommit()) {
+            event.rounds = m;
+            event.samples = thisData.length;
+            event.otherSamples = otherData.length;
+            event.commit();
+        }
         return CI;
     }
 
@@ -318,6 +479,14 @@ public class SampleSet<T extends SystemState> {
         return bootstrapDistance(rg, f, this::computeDistanceLeq, other, m , z);
     }
 
+    /**
+     * As {@link #bootstrapDistanceLeq(RandomGenerator, DataStateExpression, SampleSet, int, double)},
+     * where the given monitor is checked for cancellation before each round of bootstrapping.
+     */
+    public synchronized double[] bootstrapDistanceLeq(RandomGenerator rg, DataStateExpression f, SampleSet<T> other, int m, double z, SimulationMonitor monitor) {
+        return bootstrapDistance(rg, f, this::computeDistanceLeq, other, m , z, monitor);
+    }
+
     /**
      * In case the random generator is not passed as parameter,
      * the default one is used.
@@ -342,6 +511,14 @@ public class SampleSet<T extends SystemState> {
         return bootstrapDistance(rg, f, this::computeDistanceGeq, other, m , z);
     }
 
+    /**
+     * As {@link #bootstrapDistanceGeq(RandomGenerator, DataStateExpression, SampleSet, int, double)},
+     * where the given monitor is checked for cancellation before each round of bootstrapping.
+     */
+    public synchronized double[] bootstrapDistanceGeq(RandomGenerator rg, DataStateExpression f, SampleSet<T> other, int m, double z, SimulationMonitor monitor) {
+        return bootstrapDistance(rg, f, this::computeDistanceGeq, other, m , z, monitor);
+    }
+
     /**
      * In case the random generator is not passed as parameter,
      * the default one is used.
@@ -350,6 +527,70 @@ public class SampleSet<T extends SystemState> {
         return bootstrapDistance(new DefaultRandomGenerator(), f, this::computeDistanceGeq, other, m, z);
     }
 
+    /**
+     * Returns the confidence interval of the evaluation of the distance between this sample set and <code>other</code>
+     * computed according to the functions <code>f</code> and <code>distance</code>.
+     * The interval is evaluated analytically, without resampling: by the central limit theorem, the distance is
+     * approximately normal, and its variance is estimated by the delta method from the influence of each sample on
+     * the cost of the monotone transport between the two sets. Weighted sets count as many samples as their
+     * effective sample size.
+     * As for {@link #bootstrapDistance(RandomGenerator, DataStateExpression, ToDoubleBiFunction, SampleSet, int, double)},
+     * the interval is clipped to <code>[0,1]</code>.
+     *
+     * @param f penalty function used to compute the distance.
+     * @param distance ground distance on reals.
+     * @param other sample set to compare.
+     * @param z the desired quantile of the standard-normal distribution
+     * @return the limits of the confidence interval of the evaluation of the distance between this sample set and <code>other</code> computed according to
+     * the functions <code>f</code> and <code>distance</code>.
+     */
+    public synchronized double[] analyticDistance(DataStateExpression f, DoubleBinaryOperator distance, SampleSet<T> other, double z) {
+        if (other.size()%this.size()!=0) {
+            throw new IllegalArgumentException("Incompatible size of data sets!");
+        }
+        double value;
+        double variance;
+        if (isWeighted(other)) {
+            WeightedValues thisValues = this.evalWeightedPenaltyFunction(f);
+            WeightedValues otherValues = other.evalWeightedPenaltyFunction(f);
+            value = thisValues.distance(distance, otherValues);
+            variance = thisValues.transportVariance(distance, otherValues);
+        } else {
+            double[] thisData = this.sortedPenalty(f);
+            double[] otherData = other.sortedPenalty(f);
+            value = computeDistance(distance, thisData, otherData);
+            variance = WeightedValues.transportVariance(distance, thisData, uniform(thisData.length), thisData.length,
+                    otherData, uniform(otherData.length), otherData.length);
+        }
+        double standardError = Math.sqrt(variance);
+        double[] CI = new double[2];
+        CI[0] = Math.max(0, value - z*standardError);
+        CI[1] = Math.min(value + z*standardError, 1);
+        return CI;
+    }
+
+    /**
+     * As {@link #analyticDistance(DataStateExpression, DoubleBinaryOperator, SampleSet, double)},
+     * where the asymmetric distance between <code>other</code> and this sample set is considered.
+     */
+    public synchronized double[] analyticDistanceLeq(DataStateExpression f, SampleSet<T> other, double z) {
+        return analyticDistance(f, (v1, v2) -> Math.max(0.0, v2-v1), other, z);
+    }
+
+    /**
+     * As {@link #analyticDistance(DataStateExpression, DoubleBinaryOperator, SampleSet, double)},
+     * where the asymmetric distance between this sample set and <code>other</code> is considered.
+     */
+    public synchronized double[] analyticDistanceGeq(DataStateExpression f, SampleSet<T> other, double z) {
+        return analyticDistance(f, (v1, v2) -> Math.max(0.0, v1-v2), other, z);
+    }
+
+    private static double[] uniform(int size) {
+        double[] masses = new double[size];
+        Arrays.fill(masses, 1.0 / size);
+        return masses;
+    }
+
     /**
      * Returns a sequential stream of this sample set.
      *
@@ -380,6 +621,24 @@ public class SampleSet<T extends SystemState> {
         );
     }
 
+    /**
+     * Returns a new sample set obtained by applying a given function to all the elements of this sample set.
+     * The element with index <code>i</code> is transformed with the random stream associated with
+     * step <code>step</code> and index <code>i</code>, hence the result does not depend on the number of threads
+     * used to compute it.
+     *
+     * @param streams random streams used to sample random values.
+     * @param step step at which the function is applied.
+     * @param function function used to generate a new element.
+     * @return a new sample set obtained by applying <code>function</code> to all the elements of this sample set.
+     */
+    public SampleSet<T> apply(RandomStreams streams, int step, BiFunction<RandomGenerator, T, T> function) {
+        List<T> elements = randomAccessStates();
+        return new SampleSet<>(
+                IntStream.range(0, elements.size()).parallel().mapToObj(i -> function.apply(streams.get(step, i), elements.get(i))).toList()
+        );
+    }
+
     /**
      * Returns a sample set obtained from this one by replicating all the elements the given number of times.
      *
@@ -392,6 +651,7 @@ public class SampleSet<T extends SystemState> {
         );
     }
 
+    @SuppressWarnings("unchecked")
     public SampleSet<T> applyDistribution(RandomGenerator rg, DataStateFunction function, boolean parallel){
         if(parallel){
             return new SampleSet<>(this.stream().parallel().map(s -> (T) s.apply(rg, function)).toList());
@@ -407,4 +667,28 @@ public class SampleSet<T extends SystemState> {
     public SampleSet<SystemState> applyDistribution(RandomGenerator rg, DataStateFunction function){
         return new SampleSet<>(this.stream().parallel().map(s -> s.apply(rg, function)).toList());
     }
+
+    /**
+     * Returns the sample set obtained by applying the given function to the data state of each element of this
+     * sample set. The element with index <code>i</code> uses the random stream associated with step <code>step</code>
+     * and index <code>i</code>.
+     *
+     * @param streams random streams used to sample random values.
+     * @param step step at which the function is applied.
+     * @param function function applied to data states.
+     * @return the sample set obtained by applying <code>function</code> to the data state of each element of this sample set.
+     */
+    public SampleSet<SystemState> applyDistribution(RandomStreams streams, int step, DataStateFunction function){
+        List<T> elements = randomAccessStates();
+        return new SampleSet<>(
+                IntStream.range(0, elements.size()).parallel().mapToObj(i -> elements.get(i).apply(streams.get(step, i), function)).toList()
+        );
+    }
+
+    /**
+     * Returns the elements of this sample set in a list supporting fast random access.
+     */
+    private List<T> randomAccessStates() {
+        return stream().toList();
+    }
 }
\ No newline at end of file
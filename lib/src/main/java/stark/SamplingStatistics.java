@@ -0,0 +1,56 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import java.time.Duration;
+
+/**
+ * Statistics collected during the sampling of a step of an evolution sequence.
+ *
+ * @param step the step from which the samples are obtained, as notified by {@link SimulationMonitor#startSamplingsOfStep(int)}.
+ * @param samples number of sampled system states.
+ * @param nanos time, in nanoseconds, needed to sample the step.
+ * @param allocatedBytes estimate of the bytes allocated while sampling the step, or <code>-1</code> if
+ *                       the virtual machine does not support this estimate.
+ */
+public record SamplingStatistics(int step, int samples, long nanos, long allocatedBytes) {
+
+    /**
+     * Returns the time needed to sample the step.
+     *
+     * @return the time needed to sample the step.
+     */
+    public Duration latency() {
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Returns the number of system states sampled per second.
+     *
+     * @return the number of system states sampled per second.
+     */
+    public double samplesPerSecond() {
+        return (nanos == 0 ? Double.POSITIVE_INFINITY : samples * 1.0e9 / nanos);
+    }
+
+}
@@ -43,9 +43,48 @@ public interface SimulationMonitor {
 
     /**
      * This method returns <code>true</code> if the simulation has been cancelled.
+     * It is invoked, possibly from many threads, before each sample is simulated and
+     * between the rounds of bootstrap and distance evaluations, hence it should be cheap.
      *
      * @return <code>true</code> if the simulation has been cancelled.
      */
     boolean hasBeenCancelled();
 
+    /**
+     * This method is invoked when the sampling of a step terminates, with the statistics collected while sampling it.
+     *
+     * @param statistics statistics of the sampling of a step.
+     */
+    default void samplingStatistics(SamplingStatistics statistics) {
+    }
+
+    /**
+     * This method is invoked when some samples of a step generated by a bounded conditional generation
+     * did not reach the condition.
+     *
+     * @param report the samples that did not reach the condition.
+     */
+    default void conditionNotReached(ConditionReport report) {
+    }
+
+    /**
+     * This method is invoked when a checkpoint of the simulation has been saved after the sampling of step <code>n</code>.
+     *
+     * @param step an integer identifying a time step.
+     */
+    default void checkpointSaved(int step) {
+    }
+
+    /**
+     * Throws a {@link SimulationCancelledException} if the given monitor is not <code>null</code> and has been cancelled.
+     *
+     * @param monitor a monitor, or <code>null</code>.
+     * @throws SimulationCancelledException if <code>monitor</code> has been cancelled.
+     */
+    static void checkCancelled(SimulationMonitor monitor) {
+        if ((monitor != null)&&monitor.hasBeenCancelled()) {
+            throw new SimulationCancelledException();
+        }
+    }
+
 }
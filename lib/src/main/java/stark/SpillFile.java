@@ -0,0 +1,133 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataRange;
+import stark.ds.DataStateBlock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A spill file is an append-only file where the data state blocks of evicted steps are stored.
+ * The file is deleted when it is closed. A spill file that is no longer reachable, namely when the sequence
+ * and the sample sets stored in it have been discarded, is closed by a cleaner.
+ */
+class SpillFile implements Closeable {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final FileChannel channel;
+    private final Cleaner.Cleanable cleanable;
+    private long size = 0;
+
+    /**
+     * Creates a new spill file in the given directory.
+     *
+     * @param directory directory where the file is created.
+     * @throws UncheckedIOException if the file cannot be created.
+     */
+    SpillFile(Path directory) {
+        try {
+            Path file = Files.createTempFile(directory, "stark-", ".seg");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.cleanable = CLEANER.register(this, closing(channel));
+    }
+
+    /**
+     * Returns the action closing the given channel, that must not refer to the spill file to let it be cleaned.
+     */
+    private static Runnable closing(FileChannel channel) {
+        return () -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Closes and deletes this file. The blocks stored in this file cannot be read after it has been closed.
+     */
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    /**
+     * Appends the given block to this file.
+     *
+     * @param block a data state block.
+     * @return the position in the file where <code>block</code> is stored.
+     */
+    synchronized long write(DataStateBlock block) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) DataStateBlock.byteSize(block.variables(), block.size()));
+        block.writeTo(buffer);
+        buffer.flip();
+        long position = size;
+        try {
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return position;
+    }
+
+    /**
+     * Reads the block stored at the given position.
+     *
+     * @param position position of the block in the file.
+     * @param dataRanges data ranges of the block.
+     * @param rows number of rows of the block.
+     * @return the block stored at <code>position</code>.
+     */
+    DataStateBlock read(long position, DataRange[] dataRanges, int rows) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) DataStateBlock.byteSize(dataRanges.length, rows));
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Unexpected end of spill file");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        return DataStateBlock.readFrom(dataRanges, rows, buffer);
+    }
+
+}
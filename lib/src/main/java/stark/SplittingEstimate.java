@@ -0,0 +1,48 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+/**
+ * The estimate computed by {@link MultilevelSplitting}.
+ *
+ * @param probability estimate of the probability that the score reaches the last level within the horizon.
+ * @param conditionalProbabilities estimates of the probabilities that a trajectory that has reached a level
+ *                                 reaches the next one, the first one being the probability of reaching
+ *                                 the first level.
+ * @param variance estimate of the variance of <code>probability</code>.
+ * @param effectiveSampleSize number of independent trajectories that plain Monte Carlo needs to estimate
+ *                            <code>probability</code> with the same variance.
+ * @param trajectories number of trajectory segments simulated to compute the estimate.
+ */
+public record SplittingEstimate(double probability, double[] conditionalProbabilities, double variance, double effectiveSampleSize, int trajectories) {
+
+    /**
+     * Returns the relative error of the estimate, namely the ratio between its standard deviation and its value.
+     *
+     * @return the relative error of the estimate.
+     */
+    public double relativeError() {
+        return (probability == 0.0 ? Double.POSITIVE_INFINITY : Math.sqrt(variance) / probability);
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataState;
+import stark.ds.DataStateBooleanExpression;
+import stark.perturbation.Perturbation;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An evolution sequence whose first steps have been read from an {@link EvolutionSequenceStore}.
+ * Further steps and perturbations are obtained from a source sequence, if any. The perturbed sequences
+ * share the stored steps that precede the perturbed one. When the system states of the stored steps can be
+ * rebuilt from their data states, stored steps are perturbed without sampling them again on the source.
+ */
+class StoredEvolutionSequence extends EvolutionSequence {
+
+    private final Supplier<EvolutionSequence> sourceSupplier;
+    private final Function<DataState, SystemState> restore;
+    private EvolutionSequence source;
+
+    StoredEvolutionSequence(List<SampleSet<SystemState>> sequence, Supplier<EvolutionSequence> sourceSupplier, Function<DataState, SystemState> restore) {
+        super(null, null, sequence);
+        this.sourceSupplier = sourceSupplier;
+        this.restore = restore;
+    }
+
+    private synchronized EvolutionSequence getSource() {
+        if (sourceSupplier == null) {
+            throw new UnsupportedOperationException("Stored evolution sequences cannot be extended");
+        }
+        if (source == null) {
+            source = sourceSupplier.get();
+        }
+        return source;
+    }
+
+    @Override
+    protected SampleSet<SystemState> generateNextStep() {
+        return getSource().get(length());
+    }
+
+    @Override
+    public SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition) {
+        throw new UnsupportedOperationException("Stored evolution sequences cannot be extended");
+    }
+
+    @Override
+    protected SampleSet<SystemState> generateNextStepCond(DataStateBooleanExpression condition, ConditionBounds bounds, byte[] outcomes) {
+        throw new UnsupportedOperationException("Stored evolution sequences cannot be extended");
+    }
+
+    @Override
+    public EvolutionSequence apply(Perturbation perturbation, int perturbedStep, int scale) {
+        if ((perturbedStep < 0)||(perturbedStep >= length())) {
+            return getSource().apply(perturbation, perturbedStep, scale);
+        }
+        EvolutionSequence nominal = getSource();
+        return nominal.apply(perturbation, perturbedStep, scale, prefix(perturbedStep), restore(nominal, perturbedStep));
+    }
+
+    /**
+     * Returns the system states of the given stored step, rebuilt from its data states when possible,
+     * and otherwise sampled on the source sequence.
+     */
+    private SampleSet<SystemState> restore(EvolutionSequence nominal, int step) {
+        SampleSet<SystemState> initial = nominal.get(0);
+        if ((restore == null)||(initial instanceof WeightedSampleSet)) {
+            return nominal.get(step);
+        }
+        List<SystemState> states = get(step).stream().map(s -> restore.apply(s.getDataState())).toList();
+        return (initial instanceof ColumnarSampleSet ? ColumnarSampleSet.of(states) : new SampleSet<>(states));
+    }
+
+    @Override
+    public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        getSource().setCommonRandomNumbers(commonRandomNumbers);
+    }
+
+    @Override
+    public boolean isCommonRandomNumbers() {
+        return (sourceSupplier != null) && getSource().isCommonRandomNumbers();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataRange;
+import stark.ds.DataStateBlock;
+import stark.ds.DataStateExpression;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A sample set whose data states are stored outside the heap, e.g. in a {@link SpillFile} or
+ * in a file mapped in memory. Data states are loaded each time they are needed, and the
+ * elements of the set are {@link PerceivedSystemState}s: stored steps can be
+ * used to evaluate penalties and distances but not to sample new steps.
+ */
+class StoredSampleSet extends SampleSet<SystemState> {
+
+    private final Supplier<DataStateBlock> loader;
+    private final int size;
+
+    /**
+     * Creates a sample set whose data states are loaded with the given function.
+     *
+     * @param loader function used to load the data states of the sample set.
+     * @param size number of samples.
+     */
+    StoredSampleSet(Supplier<DataStateBlock> loader, int size) {
+        super(List.of());
+        this.loader = loader;
+        this.size = size;
+    }
+
+    /**
+     * Writes the data states of the given sample set to the given file.
+     *
+     * @param file a spill file.
+     * @param sampleSet a non-empty sample set.
+     * @return the sample set that reads from <code>file</code> the data states of <code>sampleSet</code>.
+     */
+    static StoredSampleSet spill(SpillFile file, SampleSet<SystemState> sampleSet) {
+        DataStateBlock block = toBlock(sampleSet);
+        DataRange[] dataRanges = IntStream.range(0, block.variables()).mapToObj(block::getDataRange).toArray(DataRange[]::new);
+        long position = file.write(block);
+        int rows = block.size();
+        return new StoredSampleSet(() -> file.read(position, dataRanges, rows), rows);
+    }
+
+    /**
+     * Returns the block containing the data states of the given sample set.
+     *
+     * @param sampleSet a non-empty sample set.
+     * @return the block containing the data states of <code>sampleSet</code>.
+     */
+    static DataStateBlock toBlock(SampleSet<SystemState> sampleSet) {
+        if (sampleSet instanceof ColumnarSampleSet<SystemState> columnarSampleSet) {
+            return columnarSampleSet.getDataStateBlock();
+        }
+        if (sampleSet instanceof StoredSampleSet storedSampleSet) {
+            return storedSampleSet.load();
+        }
+        return DataStateBlock.of(sampleSet.stream().map(SystemState::getDataState).toList());
+    }
+
+    private DataStateBlock load() {
+        return loader.get();
+    }
+
+    @Override
+    public void add(SystemState state) {
+        throw new UnsupportedOperationException("Stored sample sets cannot be extended");
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected double[] computePenaltyFunction(DataStateExpression f) {
+        return load().eval(f);
+    }
+
+    @Override
+    public Stream<SystemState> stream() {
+        DataStateBlock block = load();
+        return IntStream.range(0, size).mapToObj(i -> new PerceivedSystemState(block.getDataState(i)));
+    }
+
+}
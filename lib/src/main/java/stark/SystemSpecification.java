@@ -22,7 +22,9 @@
 
 package stark;
 
+import stark.distance.ConfidenceStrategy;
 import stark.distance.DistanceExpression;
+import stark.ds.DataState;
 import stark.ds.DataStateExpression;
 import stark.perturbation.Perturbation;
 import stark.robtl.RobustnessFormula;
@@ -30,7 +32,14 @@ import stark.robtl.RobustnessFunction;
 import stark.robtl.TruthValues;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 /**
@@ -42,6 +51,12 @@ public class SystemSpecification {
     public final static int DEFAULT_SIZE = 1;
     public final static int DEFAULT_M = 50;
     public final static double DEFAULT_Z = 1.96;
+
+    /**
+     * Key used to derive, from the streams of the specification, the ones used by the batches of sequential sampling.
+     */
+    private static final long BATCH_STREAMS_KEY = -2;
+
     private final ControlledSystem system;
     private final Map<String, DataStateExpression> penalties;
     private final Map<String, RobustnessFormula> formulas;
@@ -51,8 +66,18 @@ public class SystemSpecification {
     private final Map<String, DistanceExpression> expressions;
     private int m = 50;
     private double z = 1.96;
+    private ConfidenceStrategy confidenceStrategy = ConfidenceStrategy.BOOTSTRAP;
     private RandomGenerator rand = new DefaultRandomGenerator();
     private int scale = 10;
+    private boolean columnar = false;
+    private RandomStreams streams;
+    private RetentionPolicy retention = RetentionPolicy.keepAll();
+    private int lookAhead = 0;
+    private boolean commonRandomNumbers = false;
+    private boolean importanceSampling = false;
+    private double epsilon = 0;
+    private int maxSize = 0;
+    private final Map<Integer, Integer> sequentialSampleSizes = new HashMap<>();
 
     /**
      * Generates a system specification from the following parameters:
@@ -161,7 +186,228 @@ public class SystemSpecification {
      * this size.
      */
     public void generateSequence() {
-        this.sequence = new EvolutionSequence(rand, rg -> system, this.size);
+        this.sequence = newSequence();
+    }
+
+    private EvolutionSequence newSequence() {
+        if ((epsilon > 0)&&importanceSampling) {
+            throw new IllegalStateException("Sequential sampling is not available with importance sampling");
+        }
+        if ((epsilon > 0)&&((lookAhead > 0)||!RetentionPolicy.keepAll().equals(retention))) {
+            throw new IllegalStateException("Sequential sampling keeps all the steps and does not generate steps ahead");
+        }
+        if (epsilon > 0) {
+            return new BatchedEvolutionSequence(null, this::newBatch);
+        }
+        EvolutionSequence result = newBatch(0);
+        result.setRetentionPolicy(retention);
+        result.setLookAhead(lookAhead);
+        return result;
+    }
+
+    /**
+     * Returns a sequence of <code>size</code> samples. When random streams are set, the batch with index
+     * <code>j&gt;0</code> uses the streams forked with key <code>j</code> from those reserved to batches, so that
+     * the first batch is the sequence that is generated when sequential sampling is disabled, and no batch replays
+     * the streams of a perturbation.
+     */
+    private EvolutionSequence newBatch(int j) {
+        RandomStreams batchStreams = ((streams == null)||(j == 0) ? streams : streams.fork(BATCH_STREAMS_KEY).fork(j));
+        if (importanceSampling && columnar) {
+            throw new IllegalStateException("Columnar sample sets are not available with importance sampling");
+        }
+        if (batchStreams != null) {
+            SampleSet<SystemState> initial;
+            if (importanceSampling) {
+                initial = WeightedSampleSet.generate(batchStreams, rg -> system, this.size);
+            } else {
+                initial = (columnar ? ColumnarSampleSet.generate(batchStreams, rg -> system, this.size) : SampleSet.generate(batchStreams, rg -> system, this.size));
+            }
+            EvolutionSequence result = new EvolutionSequence(null, batchStreams, initial);
+            result.setCommonRandomNumbers(commonRandomNumbers);
+            return result;
+        } else if (commonRandomNumbers) {
+            throw new IllegalStateException("Common random numbers require random streams");
+        } else if (importanceSampling) {
+            return new EvolutionSequence(null, rand, WeightedSampleSet.generate(rand, rg -> system, this.size));
+        } else if (columnar) {
+            return new EvolutionSequence(null, rand, ColumnarSampleSet.generate(rand, rg -> system, this.size));
+        } else {
+            return new EvolutionSequence(rand, rg -> system, this.size);
+        }
+    }
+
+    /**
+     * Stores the first <code>steps</code> steps of the evolution sequence of this specification in the given file.
+     *
+     * @param file target file.
+     * @param steps number of stored steps.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void storeSequence(Path file, int steps) throws IOException {
+        EvolutionSequenceStore.write(file, getSequence(), steps);
+    }
+
+    /**
+     * Uses the evolution sequence stored in the given file as the evolution sequence of this specification.
+     * Steps that are not in the file, and perturbations, are computed on a sequence generated from this
+     * specification when needed. Hence, the stored sequence should have been generated with the same
+     * parameters and random streams (see {@link #setRandomStreams(long)}).
+     *
+     * @param file a file written with {@link #storeSequence(Path, int)}.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void attachSequence(Path file) throws IOException {
+        this.sequence = EvolutionSequenceStore.open(file, this::newSequence);
+    }
+
+    /**
+     * Uses the evolution sequence stored in the given file as the evolution sequence of this specification.
+     * Steps that are not in the file are computed on a sequence generated from this specification when needed,
+     * while perturbations of stored steps are applied to the system states rebuilt with <code>restore</code>
+     * from the stored data states (see {@link EvolutionSequenceStore#open(Path, Supplier, Function)}).
+     *
+     * @param file a file written with {@link #storeSequence(Path, int)}.
+     * @param restore function used to rebuild a system state from a stored data state.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void attachSequence(Path file, Function<DataState, SystemState> restore) throws IOException {
+        this.sequence = EvolutionSequenceStore.open(file, this::newSequence, restore);
+    }
+
+    /**
+     * Sets the retention policy of the evolution sequence generated by this specification.
+     *
+     * @param retention the retention policy of the evolution sequence.
+     */
+    public void setRetentionPolicy(RetentionPolicy retention) {
+        this.retention = retention;
+        if (this.sequence != null) {
+            this.sequence.setRetentionPolicy(retention);
+        }
+    }
+
+    /**
+     * Sets the number of steps of the evolution sequence that are generated in background
+     * ahead of the ones requested by the evaluation of formulae (see {@link EvolutionSequence#setLookAhead(int)}).
+     *
+     * @param lookAhead number of steps generated ahead of the last requested one.
+     */
+    public void setLookAhead(int lookAhead) {
+        this.lookAhead = lookAhead;
+        if (this.sequence != null) {
+            this.sequence.setLookAhead(lookAhead);
+        }
+    }
+
+    /**
+     * Sets whether the perturbations of the evolution sequence are coupled with it by common random numbers
+     * (see {@link EvolutionSequence#setCommonRandomNumbers(boolean)}). Coupling requires the random streams
+     * set by {@link #setRandomStreams(long)}.
+     *
+     * @param commonRandomNumbers <code>true</code> if the perturbed samples replay the random streams of their nominal ones.
+     */
+    public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        this.commonRandomNumbers = commonRandomNumbers;
+        if (this.sequence != null) {
+            this.sequence.setCommonRandomNumbers(commonRandomNumbers);
+        }
+    }
+
+    /**
+     * Sets whether the evolution sequence is sampled by importance sampling. In this case its sample sets are
+     * {@link WeightedSampleSet}s, whose samples carry the likelihood ratio of the biased draws performed by the
+     * system (see {@link stark.ds.DataStateRandomExpression#biased}), and distances are evaluated on the
+     * weighted distributions. The setting is used when the next sequence is generated.
+     *
+     * @param importanceSampling <code>true</code> if the evolution sequence is sampled by importance sampling.
+     */
+    public void setImportanceSampling(boolean importanceSampling) {
+        this.importanceSampling = importanceSampling;
+    }
+
+    /**
+     * Enables the sequential sampling mode. In this mode the evolution sequence, and its perturbations, are
+     * {@link BatchedEvolutionSequence}s that grow by batches of <code>size</code> samples, reusing all the samples
+     * already generated: the confidence intervals computed by {@link #evalDistanceExpressionCI(String, String, int, int)}
+     * are refined until they are narrower than <code>epsilon</code>, and the three-valued evaluations of formulae
+     * until they are not {@link TruthValues#UNKNOWN}, or until the sequence has <code>maxSize</code> samples.
+     * The number of samples finally used at each evaluated step is returned by {@link #getSequentialSampleSize(int)}.
+     * Sequential sampling is disabled when <code>epsilon</code> is <code>0</code>. Since batched sequences keep all
+     * their steps and do not generate steps ahead, sequential sampling cannot be used together with a retention
+     * policy set by {@link #setRetentionPolicy(RetentionPolicy)}, or with a look-ahead set by {@link #setLookAhead(int)}:
+     * in this case the generation of the sequence fails with an <code>IllegalStateException</code>.
+     *
+     * @param epsilon maximal width of confidence intervals.
+     * @param maxSize maximal number of samples of the evolution sequence.
+     * @throws IllegalArgumentException if <code>epsilon</code> is negative, or if it is positive and
+     * <code>maxSize</code> is smaller than the size of the sample sets.
+     */
+    public void setSequentialSampling(double epsilon, int maxSize) {
+        if ((epsilon < 0)||((epsilon > 0)&&(maxSize < size))) {
+            throw new IllegalArgumentException();
+        }
+        this.epsilon = epsilon;
+        this.maxSize = maxSize;
+        this.sequence = null;
+        this.sequentialSampleSizes.clear();
+    }
+
+    /**
+     * Returns the number of samples of the evolution sequence when the last sequential evaluation
+     * at the given step has terminated.
+     *
+     * @param step an evaluation step.
+     * @return the number of samples used by the last sequential evaluation at <code>step</code>, if any.
+     */
+    public OptionalInt getSequentialSampleSize(int step) {
+        Integer result = sequentialSampleSizes.get(step);
+        return (result == null ? OptionalInt.empty() : OptionalInt.of(result));
+    }
+
+    /**
+     * Returns true if a batch can be added to the given sequence without exceeding <code>maxSize</code> samples.
+     */
+    private boolean canGrow(BatchedEvolutionSequence sequence) {
+        return sequence.getSampleSize() + size <= maxSize;
+    }
+
+    /**
+     * Returns the function that evaluates the given one, adding batches to the evolution sequence while its
+     * result is {@link TruthValues#UNKNOWN}, when sequential sampling is enabled.
+     */
+    private RobustnessFunction<TruthValues> sequential(RobustnessFunction<TruthValues> function) {
+        return (sampleSize, step, sequence) -> {
+            TruthValues value = function.eval(sampleSize, step, sequence);
+            if (sequence instanceof BatchedEvolutionSequence batched) {
+                while ((value == TruthValues.UNKNOWN)&&canGrow(batched)) {
+                    batched.addBatch();
+                    value = function.eval(sampleSize, step, sequence);
+                }
+                sequentialSampleSizes.put(step, batched.getSampleSize());
+            }
+            return value;
+        };
+    }
+
+    /**
+     * Sets whether the sample sets of the evolution sequence are stored in columnar form.
+     *
+     * @param columnar <code>true</code> if the data states of each step are stored in a {@link stark.ds.DataStateBlock}.
+     */
+    public void setColumnar(boolean columnar) {
+        this.columnar = columnar;
+    }
+
+    /**
+     * Sets the master seed of the random streams used to generate the evolution sequence.
+     * When this seed is set, each sample is simulated with its own random stream, so that the
+     * evolution sequence does not depend on the number of threads used to generate it.
+     *
+     * @param seed master seed of the random streams.
+     */
+    public void setRandomStreams(long seed) {
+        this.streams = new RandomStreams(seed);
     }
 
     /**
@@ -291,7 +537,7 @@ public class SystemSpecification {
         if (formula == null) {
             return TruthValues.FALSE;
         }
-        return eval(RobustnessFormula.getThreeValuedEvaluationFunction(rand, m, z, formula), sampleSize, step);
+        return eval(sequential(RobustnessFormula.getThreeValuedEvaluationFunction(rand, m, z, confidenceStrategy, formula)), sampleSize, step);
     }
 
     /**
@@ -312,7 +558,7 @@ public class SystemSpecification {
             return null;
         }
         TruthValues[] data = new TruthValues[(to-from)/by];
-        eval(RobustnessFormula.getThreeValuedEvaluationFunction(rand, m, z, formula), sampleSize, from, by, data);
+        eval(sequential(RobustnessFormula.getThreeValuedEvaluationFunction(rand, m, z, confidenceStrategy, formula)), sampleSize, from, by, data);
         return data;
     }
 
@@ -332,7 +578,7 @@ public class SystemSpecification {
             return null;
         }
         TruthValues[] data = new TruthValues[steps.length];
-        eval(RobustnessFormula.getThreeValuedEvaluationFunction(rand, m, z, formula), sampleSize, steps, data);
+        eval(sequential(RobustnessFormula.getThreeValuedEvaluationFunction(rand, m, z, confidenceStrategy, formula)), sampleSize, steps, data);
         return data;
     }
 
@@ -395,6 +641,28 @@ public class SystemSpecification {
         this.z = z;
     }
 
+    /**
+     * Returns the strategy used to evaluate confidence intervals.
+     *
+     * @return the strategy used to evaluate confidence intervals.
+     */
+    public ConfidenceStrategy getConfidenceStrategy() {
+        return confidenceStrategy;
+    }
+
+    /**
+     * Sets the strategy used to evaluate confidence intervals. With {@link ConfidenceStrategy#ANALYTIC_THEN_BOOTSTRAP},
+     * the three-valued evaluation of formulae bootstraps only the atoms whose threshold falls within the analytic
+     * interval, while {@link #evalDistanceExpressionCI(String, String, int, int)}, where no threshold is given,
+     * returns the analytic intervals.
+     *
+     * @param confidenceStrategy the strategy used to evaluate confidence intervals.
+     * @throws NullPointerException if <code>confidenceStrategy</code> is <code>null</code>.
+     */
+    public void setConfidenceStrategy(ConfidenceStrategy confidenceStrategy) {
+        this.confidenceStrategy = Objects.requireNonNull(confidenceStrategy);
+    }
+
     public void setRand(long seed){
         this.rand.setSeed(seed);
     }
@@ -451,6 +719,37 @@ public class SystemSpecification {
         return expr.compute(step, getSequence(), perturbed);
     }
 
+    /**
+     * Returns the evaluation of a distance expression with a given ID
+     * between this sequence and its perturbation, obtained by applying
+     * the perturbation with a given ID,
+     * at a given time step, together with its confidence interval.
+     * When sequential sampling is enabled (see {@link #setSequentialSampling(double, int)}),
+     * batches are added to the sequences until the interval is narrower than the given epsilon.
+     *
+     * @param expressionName ID of the distance expression
+     * @param perturbationName ID of the perturbation
+     * @param step time step at which the perturbation is applied, and at which the evaluation of the distance expression starts
+     * @param scale number of samples for the simulation of the perturbed sequence
+     * @return the array containing the evaluation, at time <code>step</code>,
+     * of the distance expression corresponding to <code>expressionName</code>
+     * and the bounds of its confidence interval.
+     */
+    public double[] evalDistanceExpressionCI(String expressionName, String perturbationName, int step, int scale) {
+        EvolutionSequence nominal = getSequence();
+        EvolutionSequence perturbed = nominal.apply(getPerturbation(perturbationName), step, scale);
+        DistanceExpression expr = getDistanceExpression(expressionName);
+        double[] result = expr.evalCI(rand, step, nominal, perturbed, m, z, confidenceStrategy);
+        if (nominal instanceof BatchedEvolutionSequence batched) {
+            while ((result[2] - result[1] > epsilon)&&canGrow(batched)) {
+                batched.addBatch();
+                result = expr.evalCI(rand, step, nominal, perturbed, m, z, confidenceStrategy);
+            }
+            sequentialSampleSizes.put(step, batched.getSampleSize());
+        }
+        return result;
+    }
+
     /**
      * Returns the evaluations of a distance expression with a given ID
      * between this sequence and its perturbation, obtained by applying
@@ -471,7 +770,7 @@ public class SystemSpecification {
     public double[] evalDistanceExpression(String expressionName, String perturbationName, int perturbationStep, int scale, int[] steps) {
         EvolutionSequence perturbed = getSequence().apply(getPerturbation(perturbationName), perturbationStep, scale);
         DistanceExpression expr = getDistanceExpression(expressionName);
-        return IntStream.of(steps).mapToDouble(i -> expr.compute(i, getSequence(), perturbed)).toArray();
+        return expr.compute(steps, getSequence(), perturbed);
     }
 
     /**
@@ -513,13 +812,24 @@ public class SystemSpecification {
     }
 
     /**
-     * Resets the default parameters.
+     * Resets the default parameters, including the settings used to generate the evolution sequence.
+     * The random generator set by {@link #setRand(long)} is kept.
      */
     public void clear() {
         this.sequence = null;
         this.size = DEFAULT_SIZE;
         this.m = DEFAULT_M;
         this.z = DEFAULT_Z;
+        this.columnar = false;
+        this.streams = null;
+        this.retention = RetentionPolicy.keepAll();
+        this.lookAhead = 0;
+        this.epsilon = 0;
+        this.maxSize = 0;
+        this.commonRandomNumbers = false;
+        this.importanceSampling = false;
+        this.confidenceStrategy = ConfidenceStrategy.BOOTSTRAP;
+        this.sequentialSampleSizes.clear();
     }
 
 }
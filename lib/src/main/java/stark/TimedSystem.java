@@ -23,11 +23,11 @@
 package stark;
 
 import stark.controller.Controller;
-import stark.controller.EffectStep;
 import stark.ds.DataState;
 import stark.ds.DataStateBooleanExpression;
 import stark.ds.DataStateExpression;
 import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -61,8 +61,13 @@ public class TimedSystem implements SystemState {
 
 
     public TimedSystem sampleNextMicro(RandomGenerator rg){
-        EffectStep<Controller> step = controller.next(rg, state);
-        return new TimedSystem(step.next(), environment, environment.apply(rg, state.apply(step.effect())),generateNextTime);
+        DataStateUpdateBuffer updates = DataStateUpdateBuffer.scratch();
+        Controller next = controller.next(rg, state, updates);
+        DataState newState = environment.apply(rg, DataState.applyOrShare(state, updates));
+        if (newState == state) {
+            newState = state.copy();
+        }
+        return new TimedSystem(next, environment, newState, generateNextTime);
     }
 
     @Override
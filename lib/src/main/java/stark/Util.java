@@ -132,7 +132,9 @@ public class Util {
      * @param <T> model domain.
      */
     public static <T extends SystemState> double[][] evalDistanceExpression(EvolutionSequence sequence, EvolutionSequence sequence2, int from, int to, DistanceExpression ...  expressions) {
-        return IntStream.range(from, to).mapToObj(i -> Stream.of(expressions).mapToDouble(expr -> expr.compute(i, sequence, sequence2)).toArray()).toArray(double[][]::new);
+        int[] steps = IntStream.range(from, to).toArray();
+        double[][] evaluations = Stream.of(expressions).map(expr -> expr.compute(steps, sequence, sequence2)).toArray(double[][]::new);
+        return IntStream.range(0, steps.length).mapToObj(i -> Stream.of(evaluations).mapToDouble(e -> e[i]).toArray()).toArray(double[][]::new);
     }
 
     /**
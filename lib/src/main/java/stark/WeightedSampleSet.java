@@ -0,0 +1,224 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateFunction;
+import stark.ds.LikelihoodRatioGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Instances of this class are sample sets in which each sample carries a weight, namely the likelihood ratio
+ * between the nominal distribution of the sample and the biased one it has been sampled from. All the random
+ * functions applied to the samples receive a {@link LikelihoodRatioGenerator}, so that the biased draws they
+ * perform, see {@link stark.ds.DataStateRandomExpression#biased}, update the weights of the samples.
+ * The result of all the operations on a weighted sample set is a weighted sample set, while distances
+ * and bootstrapping between weighted sample sets take weights into account.
+ * Weights are not stored in checkpoints and spill files, hence weighted sequences should keep all their steps
+ * in memory.
+ */
+public class WeightedSampleSet<T extends SystemState> extends SampleSet<T> {
+
+    private final double[] weights;
+
+    /**
+     * Creates a weighted sample set from a given list of system states and their weights.
+     *
+     * @param states system states in the sample.
+     * @param weights weights of the system states.
+     * @throws IllegalArgumentException if <code>states</code> and <code>weights</code> have a different size.
+     */
+    public WeightedSampleSet(List<T> states, double[] weights) {
+        super(states);
+        if (states.size() != weights.length) {
+            throw new IllegalArgumentException("Incompatible size of data sets!");
+        }
+        this.weights = weights;
+    }
+
+    /**
+     * Returns a weighted set of samples, of a given size, generated with a given function.
+     * Each sample is generated with its own likelihood ratio generator wrapping <code>rg</code>,
+     * hence a generator performing biased draws gives samples with the weight of their initial state.
+     *
+     * @param rg random generator
+     * @param generator random function used to generate the samples
+     * @param size number of samples
+     * @return the weighted sample set of size <code>size</code> in which each sample is obtained by applying function <code>generator</code>.
+     * @param <T> model domain
+     */
+    public static <T extends SystemState> WeightedSampleSet<T> generate(RandomGenerator rg, Function<RandomGenerator, T> generator, int size) {
+        return weigh(i -> rg, size, false, (r, i) -> generator.apply(r));
+    }
+
+    /**
+     * Returns a weighted set of samples, of a given size, generated with a given function.
+     * The sample with index <code>i</code> is generated with the random stream associated with
+     * step <code>0</code> and index <code>i</code>.
+     *
+     * @param streams random streams
+     * @param generator random function used to generate the samples
+     * @param size number of samples
+     * @return the weighted sample set of size <code>size</code> in which each sample is obtained by applying function <code>generator</code>.
+     * @param <T> model domain
+     */
+    public static <T extends SystemState> WeightedSampleSet<T> generate(RandomStreams streams, Function<RandomGenerator, T> generator, int size) {
+        return weigh(i -> streams.get(0, i), size, true, (r, i) -> generator.apply(r));
+    }
+
+    /**
+     * Returns the weighted sample set whose element with index <code>i</code> is obtained by applying
+     * <code>function</code> to the likelihood ratio generator wrapping <code>rg.apply(i)</code>, and whose weight
+     * is the ratio accumulated by that generator.
+     */
+    private static <R extends SystemState> WeightedSampleSet<R> weigh(IntFunction<RandomGenerator> rg, int size, boolean parallel, BiFunction<RandomGenerator, Integer, R> function) {
+        double[] weights = new double[size];
+        IntStream indexes = (parallel ? IntStream.range(0, size).parallel() : IntStream.range(0, size));
+        List<R> states = indexes.mapToObj(i -> {
+            LikelihoodRatioGenerator generator = new LikelihoodRatioGenerator(rg.apply(i));
+            R state = function.apply(generator, i);
+            weights[i] = generator.getLikelihoodRatio();
+            return state;
+        }).toList();
+        return new WeightedSampleSet<>(states, weights);
+    }
+
+    /**
+     * Returns the weighted sample set obtained by applying <code>function</code> to each element of this sample set,
+     * where the new weights are the old ones multiplied by the likelihood ratios of the biased draws.
+     */
+    private <R extends SystemState> WeightedSampleSet<R> map(IntFunction<RandomGenerator> rg, boolean parallel, BiFunction<RandomGenerator, T, R> function) {
+        List<T> elements = stream().toList();
+        WeightedSampleSet<R> result = weigh(rg, elements.size(), parallel, (r, i) -> function.apply(r, elements.get(i)));
+        for (int i = 0; i < weights.length; i++) {
+            result.weights[i] *= weights[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the weights of the samples of this set.
+     *
+     * @return the weights of the samples of this set.
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Returns the effective sample size of this set, namely the number of unweighted samples
+     * giving estimates with the same variance.
+     *
+     * @return the effective sample size of this set.
+     */
+    public double effectiveSampleSize() {
+        return new WeightedValues(new double[weights.length], weights).effectiveSampleSize();
+    }
+
+    @Override
+    double[] weights() {
+        return weights;
+    }
+
+    @Override
+    SampleSet<T> withStates(List<T> states) {
+        return new WeightedSampleSet<>(states, weights);
+    }
+
+    /**
+     * Weighted sample sets have a fixed size.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void add(T state) {
+        throw new UnsupportedOperationException("Weighted sample sets cannot be extended");
+    }
+
+    @Override
+    public synchronized WeightedValues evalWeightedPenaltyFunction(DataStateExpression f) {
+        double[] values = stream().map(SystemState::getDataState).mapToDouble(f).toArray();
+        int[] order = IntStream.range(0, values.length).boxed().sorted(Comparator.comparingDouble(i -> values[i])).mapToInt(i -> i).toArray();
+        return new WeightedValues(Arrays.stream(order).mapToDouble(i -> values[i]).toArray(), Arrays.stream(order).mapToDouble(i -> weights[i]).toArray());
+    }
+
+    /**
+     * Returns the importance sampling estimate of the expected value of the given function.
+     *
+     * @param function a function on system states.
+     * @return the estimate of the expected value of <code>function</code>.
+     */
+    @Override
+    public double mean(ToDoubleFunction<T> function) {
+        List<T> elements = stream().toList();
+        return IntStream.range(0, weights.length).mapToDouble(i -> weights[i] * function.applyAsDouble(elements.get(i))).sum() / Math.max(1, weights.length);
+    }
+
+    @Override
+    public WeightedSampleSet<T> apply(UnaryOperator<T> function) {
+        return new WeightedSampleSet<>(this.stream().parallel().map(function).toList(), weights);
+    }
+
+    @Override
+    public WeightedSampleSet<T> apply(RandomGenerator rg, BiFunction<RandomGenerator, T, T> function) {
+        return map(i -> rg, true, function);
+    }
+
+    @Override
+    public WeightedSampleSet<T> apply(RandomStreams streams, int step, BiFunction<RandomGenerator, T, T> function) {
+        return map(i -> streams.get(step, i), true, function);
+    }
+
+    @Override
+    public WeightedSampleSet<T> replica(int k) {
+        double[] replicaWeights = Arrays.stream(weights).flatMap(w -> IntStream.range(0, k).mapToDouble(i -> w)).toArray();
+        return new WeightedSampleSet<>(this.stream().flatMap(e -> IntStream.range(0, k).mapToObj(i -> e)).toList(), replicaWeights);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public WeightedSampleSet<T> applyDistribution(RandomGenerator rg, DataStateFunction function, boolean parallel) {
+        return map(i -> rg, parallel, (r, s) -> (T) s.apply(r, function));
+    }
+
+    @Override
+    public WeightedSampleSet<SystemState> applyDistribution(RandomGenerator rg, DataStateFunction function) {
+        return map(i -> rg, true, (r, s) -> s.apply(r, function));
+    }
+
+    @Override
+    public WeightedSampleSet<SystemState> applyDistribution(RandomStreams streams, int step, DataStateFunction function) {
+        return map(i -> streams.get(step, i), true, (r, s) -> s.apply(r, function));
+    }
+
+}
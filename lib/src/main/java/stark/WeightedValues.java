@@ -0,0 +1,236 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+
+/**
+ * The evaluation of a penalty function on a weighted sample set: <code>values</code> are sorted and
+ * <code>weights[i]</code> is the likelihood ratio of the sample whose value is <code>values[i]</code>.
+ * Expectations and probabilities are estimated with the unbiased importance sampling estimator, that divides
+ * the weighted sum by the number of samples, while distances compare the distributions obtained by
+ * normalising the weights.
+ *
+ * @param values sorted values of the penalty function.
+ * @param weights weights of the values.
+ */
+public record WeightedValues(double[] values, double[] weights) {
+
+    public WeightedValues {
+        if (values.length != weights.length) {
+            throw new IllegalArgumentException("Incompatible size of values and weights!");
+        }
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the estimate of the expected value.
+     *
+     * @return the estimate of the expected value.
+     */
+    public double mean() {
+        double sum = 0.0;
+        for (int i = 0; i < values.length; i++) {
+            sum += weights[i] * values[i];
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Returns the estimate of the probability that the value satisfies the given predicate.
+     *
+     * @param predicate a predicate on values.
+     * @return the estimate of the probability that the value satisfies <code>predicate</code>.
+     */
+    public double probability(DoublePredicate predicate) {
+        double sum = 0.0;
+        for (int i = 0; i < values.length; i++) {
+            if (predicate.test(values[i])) {
+                sum += weights[i];
+            }
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Returns the effective sample size of the weights, namely the number of unweighted samples
+     * giving estimates with the same variance.
+     *
+     * @return the effective sample size of the weights.
+     */
+    public double effectiveSampleSize() {
+        double sum = 0.0;
+        double squares = 0.0;
+        for (double w : weights) {
+            sum += w;
+            squares += w * w;
+        }
+        return (squares == 0.0 ? 0.0 : sum * sum / squares);
+    }
+
+    /**
+     * Returns the Wasserstein lifting of the given ground distance between the distribution of these values
+     * and the one of <code>other</code>. Values are coupled monotonically, as in
+     * {@link SampleSet#distance(stark.ds.DataStateExpression, DoubleBinaryOperator, SampleSet)}, and when all the weights
+     * are equal the two methods give the same result.
+     *
+     * @param distance ground distance on reals.
+     * @param other values to compare.
+     * @return the Wasserstein lifting of <code>distance</code> between these values and <code>other</code>.
+     */
+    public double distance(DoubleBinaryOperator distance, WeightedValues other) {
+        return transport(distance, values, normalised(), other.values, other.normalised());
+    }
+
+    /**
+     * Returns the asymptotic variance of the distance returned by {@link #distance(DoubleBinaryOperator, WeightedValues)},
+     * where the two sets of values are considered as samples of sizes equal to their effective sample sizes.
+     */
+    double transportVariance(DoubleBinaryOperator distance, WeightedValues other) {
+        return transportVariance(distance, values, normalised(), effectiveSampleSize(), other.values, other.normalised(), other.effectiveSampleSize());
+    }
+
+    /**
+     * Returns the asymptotic variance of the cost of the monotone transport of the masses <code>p</code> of the
+     * sorted values <code>x</code>, sampled <code>n</code> times, to the masses <code>q</code> of the sorted values
+     * <code>y</code>, sampled <code>m</code> times. The variance is estimated by the delta method, as the sum of the
+     * variances of the influences of the samples of the two distributions divided by the respective sample sizes.
+     */
+    static double transportVariance(DoubleBinaryOperator distance, double[] x, double[] p, double n, double[] y, double[] q, double m) {
+        return influenceVariance(distance, x, p, y, q) / n
+                + influenceVariance((v1, v2) -> distance.applyAsDouble(v2, v1), y, q, x, p) / m;
+    }
+
+    /**
+     * Returns the variance of the influence of the values <code>x</code> on the cost of their monotone transport
+     * to <code>y</code>. The influence of <code>x[i]</code> is the change of the cost obtained by moving all the mass
+     * of <code>x</code> above <code>x[i]</code> to <code>x[i]</code>, while keeping its coupling with <code>y</code>.
+     */
+    private static double influenceVariance(DoubleBinaryOperator distance, double[] x, double[] p, double[] y, double[] q) {
+        double[] quantiles = new double[y.length];
+        double sum = 0.0;
+        for (int j = 0; j < y.length; j++) {
+            sum += q[j];
+            quantiles[j] = sum;
+        }
+        double[] levels = new double[x.length];
+        sum = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            sum += p[i];
+            levels[i] = sum;
+        }
+        double[] influence = new double[x.length];
+        double cumulated = 0.0;
+        for (int l = x.length - 2; l >= 0; l--) {
+            int j = Arrays.binarySearch(quantiles, levels[l] - 1.0E-12);
+            j = Math.min(j < 0 ? -j - 1 : j, y.length - 1);
+            cumulated += distance.applyAsDouble(x[l + 1], y[j]) - distance.applyAsDouble(x[l], y[j]);
+            influence[l] = cumulated;
+        }
+        double mean = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            mean += p[i] * influence[i];
+        }
+        double variance = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            variance += p[i] * (influence[i] - mean) * (influence[i] - mean);
+        }
+        return variance;
+    }
+
+    /**
+     * Returns the cost of the monotone transport of the masses <code>p</code> of the sorted values <code>x</code>
+     * to the masses <code>q</code> of the sorted values <code>y</code>.
+     */
+    static double transport(DoubleBinaryOperator distance, double[] x, double[] p, double[] y, double[] q) {
+        double result = 0.0;
+        int i = 0;
+        int j = 0;
+        double a = (x.length > 0 ? p[0] : 0.0);
+        double b = (y.length > 0 ? q[0] : 0.0);
+        while ((i < x.length)&&(j < y.length)) {
+            double mass = Math.min(a, b);
+            if (mass > 0) {
+                result += mass * distance.applyAsDouble(x[i], y[j]);
+            }
+            if (a <= b) {
+                b -= a;
+                i++;
+                a = (i < x.length ? p[i] : 0.0);
+            } else {
+                a -= b;
+                j++;
+                b = (j < y.length ? q[j] : 0.0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the weights divided by their sum.
+     */
+    private double[] normalised() {
+        double sum = Arrays.stream(weights).sum();
+        if (!(sum > 0)) {
+            throw new IllegalStateException("All the samples have zero weight");
+        }
+        return Arrays.stream(weights).map(w -> w / sum).toArray();
+    }
+
+    /**
+     * Returns <code>size()</code> values, sorted, sampled with probabilities proportional to their weights.
+     * The result is an unweighted sample of the distribution of these values, that is used by bootstrapping.
+     *
+     * @param rg random generator used to sample values.
+     * @return unweighted values sampled from the distribution of these values.
+     */
+    public double[] resample(RandomGenerator rg) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        double[] result = new double[values.length];
+        for (int k = 0; k < result.length; k++) {
+            int i = Arrays.binarySearch(cumulative, rg.nextDouble() * sum);
+            i = (i < 0 ? -i - 1 : i + 1);
+            result[k] = values[Math.min(i, values.length - 1)];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+}
@@ -23,7 +23,9 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateFunction;
 import stark.ds.DataStateUpdate;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.List;
@@ -65,4 +67,20 @@ public class ActionController implements Controller {
     public EffectStep<Controller> next(RandomGenerator rg, DataState state) {
         return new EffectStep<>(action.apply(rg, state), nextController);
     }
+
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        if (action != DataStateFunction.TICK_FUNCTION) {
+            updates.addAll(action.apply(rg, state));
+        }
+        return nextController;
+    }
+
+    BiFunction<RandomGenerator, DataState, List<DataStateUpdate>> getAction() {
+        return action;
+    }
+
+    Controller getNextController() {
+        return nextController;
+    }
 }
@@ -24,6 +24,7 @@ package stark.controller;
 
 import stark.ds.DataState;
 import stark.ds.DataStateUpdate;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.List;
@@ -63,4 +64,20 @@ public class AssignmentController implements Controller {
     public EffectStep<Controller> next(RandomGenerator rg, DataState state) {
         return nextController.next(rg, state).applyBefore(assignment.apply(rg, state));
     }
+
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        int mark = updates.size();
+        Controller next = nextController.next(rg, state, updates);
+        updates.insertAll(mark, assignment.apply(rg, state));
+        return next;
+    }
+
+    BiFunction<RandomGenerator, DataState, List<DataStateUpdate>> getAssignment() {
+        return assignment;
+    }
+
+    Controller getNextController() {
+        return nextController;
+    }
 }
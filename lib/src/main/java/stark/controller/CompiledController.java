@@ -0,0 +1,174 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.controller;
+
+import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+
+/**
+ * A compiled controller executes a {@link ControllerProgram}. Its state consists of the node,
+ * and of the counter of pending steps, of each sequential component of the program.
+ * A step of a compiled controller only reads the arrays of the program and updates the state in buffers
+ * reused by each thread. A new compiled controller is created only when the state of some component changes,
+ * and it shares with this one the arrays that did not change.
+ */
+public final class CompiledController implements Controller {
+
+    private final ControllerProgram program;
+    private final int[] nodes;
+    private final int[] counters;
+    private final Controller[] opaque;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private CompiledController(ControllerProgram program, int[] nodes, int[] counters, Controller[] opaque) {
+        this.program = program;
+        this.nodes = nodes;
+        this.counters = counters;
+        this.opaque = opaque;
+    }
+
+    /**
+     * Returns the compiled version of the given controller.
+     *
+     * @param controller a controller.
+     * @return the compiled version of <code>controller</code>.
+     * @throws IllegalArgumentException if <code>controller</code> contains an unguarded recursion.
+     */
+    public static CompiledController compile(Controller controller) {
+        if (controller instanceof CompiledController compiled) {
+            return compiled;
+        }
+        ControllerProgram program = ControllerProgram.compile(controller);
+        int[] counters = new int[program.components()];
+        Arrays.fill(counters, ControllerProgram.NO_COUNTER);
+        return new CompiledController(program, program.initialNodes(), counters, new Controller[program.components()]);
+    }
+
+    /**
+     * Returns the state of this controller, namely the node of each sequential component followed by
+     * the counter of each sequential component, or <code>null</code> if some component is executing
+     * a controller that is not in the program, whose state cannot be saved.
+     *
+     * @return the state of this controller, or <code>null</code> if it cannot be saved.
+     */
+    public int[] getState() {
+        int n = nodes.length;
+        for (int i = 0; i < n; i++) {
+            if ((nodes[i] == ControllerProgram.OPAQUE_STATE)||(opaque[i] != null)) {
+                return null;
+            }
+        }
+        int[] state = Arrays.copyOf(nodes, 2*n);
+        System.arraycopy(counters, 0, state, n, n);
+        return state;
+    }
+
+    /**
+     * Returns the controller that executes the program of this one from the given state.
+     *
+     * @param state a state returned by {@link #getState()} for a controller with the same program.
+     * @return the controller that executes the program of this one from <code>state</code>.
+     * @throws IllegalArgumentException if <code>state</code> is not a state of the program of this controller.
+     */
+    public CompiledController withState(int[] state) {
+        int n = nodes.length;
+        if (state.length != 2*n) {
+            throw new IllegalArgumentException("Invalid controller state!");
+        }
+        for (int i = 0; i < n; i++) {
+            if ((state[i] < 0)||(state[i] >= program.size())||(state[n+i] < ControllerProgram.NO_COUNTER)) {
+                throw new IllegalArgumentException("Invalid controller state!");
+            }
+        }
+        return new CompiledController(program, Arrays.copyOf(state, n), Arrays.copyOfRange(state, n, 2*n), new Controller[n]);
+    }
+
+    @Override
+    public EffectStep<Controller> next(RandomGenerator rg, DataState state) {
+        DataStateUpdateBuffer updates = new DataStateUpdateBuffer();
+        Controller next = next(rg, state, updates);
+        return new EffectStep<>(updates.toList(), next);
+    }
+
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        Buffers buffers = BUFFERS.get();
+        if (buffers.busy) {
+            // A compiled controller invoked by an opaque component of another one
+            buffers = new Buffers();
+        }
+        int n = nodes.length;
+        buffers.load(nodes, counters, opaque);
+        try {
+            program.step(rg, state, updates, buffers.nodes, buffers.counters, buffers.opaque);
+            boolean sameNodes = Arrays.equals(nodes, 0, n, buffers.nodes, 0, n);
+            boolean sameCounters = Arrays.equals(counters, 0, n, buffers.counters, 0, n);
+            boolean sameOpaque = Arrays.equals(opaque, 0, n, buffers.opaque, 0, n);
+            if (sameNodes && sameCounters && sameOpaque) {
+                return this;
+            }
+            return new CompiledController(program,
+                    (sameNodes ? nodes : Arrays.copyOf(buffers.nodes, n)),
+                    (sameCounters ? counters : Arrays.copyOf(buffers.counters, n)),
+                    (sameOpaque ? opaque : Arrays.copyOf(buffers.opaque, n)));
+        } finally {
+            buffers.release(n);
+        }
+    }
+
+    /**
+     * The arrays where a thread computes the state reached by a step of a compiled controller.
+     * Arrays grow to the largest number of components of the programs executed by the thread.
+     */
+    private static final class Buffers {
+
+        private int[] nodes = new int[0];
+        private int[] counters = new int[0];
+        private Controller[] opaque = new Controller[0];
+        private boolean busy = false;
+
+        private void load(int[] nodes, int[] counters, Controller[] opaque) {
+            int n = nodes.length;
+            if (this.nodes.length < n) {
+                this.nodes = new int[n];
+                this.counters = new int[n];
+                this.opaque = new Controller[n];
+            }
+            System.arraycopy(nodes, 0, this.nodes, 0, n);
+            System.arraycopy(counters, 0, this.counters, 0, n);
+            System.arraycopy(opaque, 0, this.opaque, 0, n);
+            this.busy = true;
+        }
+
+        private void release(int n) {
+            Arrays.fill(opaque, 0, n, null);
+            this.busy = false;
+        }
+
+    }
+
+}
@@ -25,6 +25,7 @@ package stark.controller;
 import stark.ds.DataState;
 import stark.ds.DataStateFunction;
 import stark.ds.DataStateUpdate;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.List;
@@ -69,4 +70,32 @@ public interface Controller {
 
     EffectStep<Controller> next(RandomGenerator rg, DataState state);
 
+    /**
+     * Performs a step of this controller by adding its updates to the given buffer.
+     * This method is used by systems to avoid the allocation of an {@link EffectStep} at each step.
+     *
+     * @param rg random generator.
+     * @param state the current data state.
+     * @param updates buffer where the updates of this step are added.
+     * @return the controller used at the next step.
+     */
+    default Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        EffectStep<Controller> step = next(rg, state);
+        updates.addAll(step.effect());
+        return step.next();
+    }
+
+    /**
+     * Returns the controller that behaves like the given one, and that is executed as a table-driven
+     * state machine. References to a {@link ControllerRegistry} are resolved when this method is invoked,
+     * hence all the controllers in the registry must be defined before compilation.
+     *
+     * @param controller a controller.
+     * @return the compiled version of <code>controller</code>.
+     * @throws IllegalArgumentException if <code>controller</code> contains an unguarded recursion.
+     */
+    static Controller compile(Controller controller) {
+        return CompiledController.compile(controller);
+    }
+
 }
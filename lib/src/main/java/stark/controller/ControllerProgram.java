@@ -0,0 +1,373 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.controller;
+
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import stark.ds.DataStateUpdateBuffer;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A controller program is the flat representation of a controller graph.
+ * Each controller in the graph, with the exception of references and of {@link ExecController}s
+ * that are resolved at compile time, is a node identified by an integer. For each node, the program
+ * stores its kind, the indexes of its successors, its probability and its function (action, assignment,
+ * guard or number of steps).
+ * Parallel and probabilistic interleaving controllers that occur at the top of the graph are compiled into a
+ * static tree whose leaves are sequential components. Controllers that cannot be compiled are executed as
+ * opaque nodes, by invoking their method {@link Controller#next(RandomGenerator, DataState, DataStateUpdateBuffer)}.
+ */
+final class ControllerProgram {
+
+    /**
+     * Counter of a component that is not counting steps.
+     */
+    static final int NO_COUNTER = -1;
+
+    /**
+     * Node of a component that is executing a controller that is not in the program.
+     */
+    static final int OPAQUE_STATE = -1;
+
+    private static final byte NIL = 0;
+    private static final byte TICK = 1;
+    private static final byte ACTION = 2;
+    private static final byte ASSIGNMENT = 3;
+    private static final byte CHOICE = 4;
+    private static final byte IF = 5;
+    private static final byte STEPS = 6;
+    private static final byte OPAQUE = 7;
+
+    private static final byte LEAF = 0;
+    private static final byte PARALLEL = 1;
+    private static final byte INTERLEAVING = 2;
+
+    private final byte[] kind;
+    private final int[] first;
+    private final int[] second;
+    private final double[] probability;
+    private final Object[] function;
+
+    private final byte[] topKind;
+    private final int[] topFirst;
+    private final int[] topSecond;
+    private final double[] topProbability;
+    private final int[] initialNodes;
+
+    private final IdentityHashMap<Controller, Integer> index;
+
+    private ControllerProgram(Compiler compiler) {
+        int size = compiler.nodes.size();
+        this.kind = new byte[size];
+        this.first = new int[size];
+        this.second = new int[size];
+        this.probability = new double[size];
+        this.function = new Object[size];
+        for (int i = 0; i < size; i++) {
+            compiler.fill(i, this);
+        }
+        this.topKind = toByteArray(compiler.topKind);
+        this.topFirst = compiler.topFirst.stream().mapToInt(Integer::intValue).toArray();
+        this.topSecond = compiler.topSecond.stream().mapToInt(Integer::intValue).toArray();
+        this.topProbability = compiler.topProbability.stream().mapToDouble(Double::doubleValue).toArray();
+        this.initialNodes = compiler.leaves.stream().mapToInt(Integer::intValue).toArray();
+        this.index = compiler.index;
+    }
+
+    private static byte[] toByteArray(List<Byte> list) {
+        byte[] result = new byte[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the program of the given controller.
+     *
+     * @param controller a controller.
+     * @return the program of <code>controller</code>.
+     * @throws IllegalArgumentException if <code>controller</code> contains an unguarded recursion.
+     */
+    static ControllerProgram compile(Controller controller) {
+        Compiler compiler = new Compiler();
+        compiler.compileTop(controller);
+        compiler.compileNodes();
+        return new ControllerProgram(compiler);
+    }
+
+    /**
+     * Returns the number of sequential components of this program.
+     */
+    int components() {
+        return initialNodes.length;
+    }
+
+    /**
+     * Returns the number of nodes of this program.
+     */
+    int size() {
+        return kind.length;
+    }
+
+    /**
+     * Returns the initial node of each component.
+     */
+    int[] initialNodes() {
+        return initialNodes.clone();
+    }
+
+    /**
+     * Performs a step of the program. The state of each component, namely its node, its counter and,
+     * for opaque components, its controller, is read from, and written back to, the given arrays.
+     */
+    void step(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates, int[] nodes, int[] counters, Controller[] opaque) {
+        stepTop(0, rg, state, updates, nodes, counters, opaque);
+    }
+
+    private void stepTop(int t, RandomGenerator rg, DataState state, DataStateUpdateBuffer updates, int[] nodes, int[] counters, Controller[] opaque) {
+        switch (topKind[t]) {
+            case LEAF -> stepComponent(topFirst[t], rg, state, updates, nodes, counters, opaque);
+            case PARALLEL -> {
+                stepTop(topFirst[t], rg, state, updates, nodes, counters, opaque);
+                stepTop(topSecond[t], rg, state, updates, nodes, counters, opaque);
+            }
+            default -> {
+                if (rg.nextDouble() <= topProbability[t]) {
+                    stepTop(topFirst[t], rg, state, updates, nodes, counters, opaque);
+                } else {
+                    stepTop(topSecond[t], rg, state, updates, nodes, counters, opaque);
+                }
+            }
+        }
+    }
+
+    private void stepComponent(int c, RandomGenerator rg, DataState state, DataStateUpdateBuffer updates, int[] nodes, int[] counters, Controller[] opaque) {
+        if (nodes[c] == OPAQUE_STATE) {
+            stepOpaque(c, opaque[c], rg, state, updates, nodes, counters, opaque);
+        } else {
+            run(c, nodes[c], counters[c], rg, state, updates, nodes, counters, opaque);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void run(int c, int node, int counter, RandomGenerator rg, DataState state, DataStateUpdateBuffer updates, int[] nodes, int[] counters, Controller[] opaque) {
+        while (true) {
+            switch (kind[node]) {
+                case NIL -> {
+                    set(c, node, NO_COUNTER, nodes, counters);
+                    return;
+                }
+                case TICK -> {
+                    set(c, first[node], NO_COUNTER, nodes, counters);
+                    return;
+                }
+                case ACTION -> {
+                    updates.addAll(((BiFunction<RandomGenerator, DataState, List<DataStateUpdate>>) function[node]).apply(rg, state));
+                    set(c, first[node], NO_COUNTER, nodes, counters);
+                    return;
+                }
+                case ASSIGNMENT -> {
+                    // The continuation is evaluated first, then the assignment is applied before its updates.
+                    int mark = updates.size();
+                    run(c, first[node], NO_COUNTER, rg, state, updates, nodes, counters, opaque);
+                    updates.insertAll(mark, ((BiFunction<RandomGenerator, DataState, List<DataStateUpdate>>) function[node]).apply(rg, state));
+                    return;
+                }
+                case CHOICE -> {
+                    node = (rg.nextDouble() <= probability[node] ? first[node] : second[node]);
+                    counter = NO_COUNTER;
+                }
+                case IF -> {
+                    node = (((BiPredicate<RandomGenerator, DataState>) function[node]).test(rg, state) ? first[node] : second[node]);
+                    counter = NO_COUNTER;
+                }
+                case STEPS -> {
+                    int steps = (counter == NO_COUNTER ? ((ToIntBiFunction<RandomGenerator, DataState>) function[node]).applyAsInt(rg, state) : counter);
+                    if (steps <= 0) {
+                        set(c, first[node], NO_COUNTER, nodes, counters);
+                    } else {
+                        set(c, node, steps - 1, nodes, counters);
+                    }
+                    return;
+                }
+                default -> {
+                    stepOpaque(c, (Controller) function[node], rg, state, updates, nodes, counters, opaque);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void stepOpaque(int c, Controller controller, RandomGenerator rg, DataState state, DataStateUpdateBuffer updates, int[] nodes, int[] counters, Controller[] opaque) {
+        Controller next = controller.next(rg, state, updates);
+        Integer node = index.get(next);
+        if (node != null) {
+            set(c, node, NO_COUNTER, nodes, counters);
+            opaque[c] = null;
+        } else {
+            set(c, OPAQUE_STATE, NO_COUNTER, nodes, counters);
+            opaque[c] = next;
+        }
+    }
+
+    private static void set(int c, int node, int counter, int[] nodes, int[] counters) {
+        nodes[c] = node;
+        counters[c] = counter;
+    }
+
+    /**
+     * Builds the nodes of a program by visiting a controller graph.
+     */
+    private static final class Compiler {
+
+        private final IdentityHashMap<Controller, Integer> index = new IdentityHashMap<>();
+        private final List<Controller> nodes = new ArrayList<>();
+        private final List<Byte> topKind = new ArrayList<>();
+        private final List<Integer> topFirst = new ArrayList<>();
+        private final List<Integer> topSecond = new ArrayList<>();
+        private final List<Double> topProbability = new ArrayList<>();
+        private final List<Integer> leaves = new ArrayList<>();
+
+        /**
+         * Returns the controller obtained by removing references and exec controllers from the given one.
+         */
+        private Controller resolve(Controller controller) {
+            Set<Controller> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            while ((controller instanceof ControllerRegistry.ReferenceController)||(controller instanceof ExecController)) {
+                if (!visited.add(controller)) {
+                    throw new IllegalArgumentException("Unguarded recursion in controller!");
+                }
+                controller = (controller instanceof ExecController exec ? exec.getNextController() : ((ControllerRegistry.ReferenceController) controller).resolve());
+            }
+            return controller;
+        }
+
+        private int compileTop(Controller controller) {
+            controller = resolve(controller);
+            int t = topKind.size();
+            topKind.add(LEAF);
+            topFirst.add(0);
+            topSecond.add(0);
+            topProbability.add(0.0);
+            if (controller instanceof ParallelController parallel) {
+                topKind.set(t, PARALLEL);
+                topFirst.set(t, compileTop(parallel.getLeftController()));
+                topSecond.set(t, compileTop(parallel.getRightController()));
+            } else if (controller instanceof ProbabilisticInterleavingController interleaving) {
+                topKind.set(t, INTERLEAVING);
+                topProbability.set(t, interleaving.getProbability());
+                topFirst.set(t, compileTop(interleaving.getLeftController()));
+                topSecond.set(t, compileTop(interleaving.getRightController()));
+            } else {
+                topFirst.set(t, leaves.size());
+                leaves.add(nodeOf(controller));
+            }
+            return t;
+        }
+
+        /**
+         * Returns the node of the given controller, that is added to the program if needed.
+         */
+        private int nodeOf(Controller controller) {
+            Integer node = index.get(controller);
+            if (node != null) {
+                return node;
+            }
+            Controller resolved = resolve(controller);
+            node = index.get(resolved);
+            if (node == null) {
+                node = nodes.size();
+                nodes.add(resolved);
+                index.put(resolved, node);
+            }
+            index.put(controller, node);
+            return node;
+        }
+
+        /**
+         * Adds to the program all the controllers reachable from the ones already added.
+         */
+        private void compileNodes() {
+            for (int i = 0; i < nodes.size(); i++) {
+                Controller controller = nodes.get(i);
+                if (controller instanceof ActionController action) {
+                    nodeOf(action.getNextController());
+                } else if (controller instanceof AssignmentController assignment) {
+                    nodeOf(assignment.getNextController());
+                } else if (controller instanceof GenerativeChoiceController choice) {
+                    nodeOf(choice.getLeftController());
+                    nodeOf(choice.getRightController());
+                } else if (controller instanceof IfThenElseController ifThenElse) {
+                    nodeOf(ifThenElse.getThenController());
+                    nodeOf(ifThenElse.getElseController());
+                } else if (controller instanceof StepController step) {
+                    nodeOf(step.getNextController());
+                }
+            }
+        }
+
+        /**
+         * Stores in the given program the description of the <code>i</code>-th node.
+         */
+        private void fill(int i, ControllerProgram program) {
+            Controller controller = nodes.get(i);
+            if (controller instanceof NilController) {
+                program.kind[i] = NIL;
+            } else if (controller instanceof ActionController action) {
+                program.kind[i] = (action.getAction() == DataStateFunction.TICK_FUNCTION ? TICK : ACTION);
+                program.first[i] = index.get(action.getNextController());
+                program.function[i] = action.getAction();
+            } else if (controller instanceof AssignmentController assignment) {
+                program.kind[i] = ASSIGNMENT;
+                program.first[i] = index.get(assignment.getNextController());
+                program.function[i] = assignment.getAssignment();
+            } else if (controller instanceof GenerativeChoiceController choice) {
+                program.kind[i] = CHOICE;
+                program.probability[i] = choice.getProbability();
+                program.first[i] = index.get(choice.getLeftController());
+                program.second[i] = index.get(choice.getRightController());
+            } else if (controller instanceof IfThenElseController ifThenElse) {
+                program.kind[i] = IF;
+                program.function[i] = ifThenElse.getGuard();
+                program.first[i] = index.get(ifThenElse.getThenController());
+                program.second[i] = index.get(ifThenElse.getElseController());
+            } else if (controller instanceof StepController step) {
+                program.kind[i] = STEPS;
+                program.function[i] = step.getSteps();
+                program.first[i] = index.get(step.getNextController());
+            } else {
+                program.kind[i] = OPAQUE;
+                program.function[i] = controller;
+            }
+        }
+
+    }
+
+}
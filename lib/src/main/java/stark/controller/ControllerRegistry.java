@@ -22,6 +22,10 @@
 
 package stark.controller;
 
+import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
+import org.apache.commons.math3.random.RandomGenerator;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -69,7 +73,41 @@ public class ControllerRegistry {
      * @return a controller that refers to the one defined in this registry with the given name.
      */
     public Controller reference(String name) {
-        return (rg, ds) -> get(name).next(rg, ds);
+        return new ReferenceController(this, name);
+    }
+
+    /**
+     * A controller that behaves like the one associated with a name in a registry.
+     * A class is used instead of a lambda expression so that the references can be resolved
+     * when a controller is compiled.
+     */
+    static final class ReferenceController implements Controller {
+
+        private final ControllerRegistry registry;
+        private final String name;
+
+        private ReferenceController(ControllerRegistry registry, String name) {
+            this.registry = registry;
+            this.name = name;
+        }
+
+        @Override
+        public EffectStep<Controller> next(RandomGenerator rg, DataState state) {
+            return registry.get(name).next(rg, state);
+        }
+
+        @Override
+        public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+            return registry.get(name).next(rg, state, updates);
+        }
+
+        /**
+         * Returns the controller currently associated with the referred name.
+         */
+        Controller resolve() {
+            return registry.get(name);
+        }
+
     }
 
 }
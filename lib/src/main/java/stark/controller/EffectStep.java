@@ -24,11 +24,10 @@ package stark.controller;
 
 import stark.ds.DataStateUpdate;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.BinaryOperator;
 import java.util.function.UnaryOperator;
-import java.util.stream.Stream;
 
 /**
  * Identifies a step executed by a controller.
@@ -60,10 +59,7 @@ public record EffectStep<T>(List<DataStateUpdate> effect, T next) {
      * @return a step consisting of the parallel application of this step with the one given as parameters.
      */
     public EffectStep<T> parallel(BinaryOperator<T> stepOperator, EffectStep<T> other) {
-        List<DataStateUpdate> newEffects = new LinkedList<>();
-        newEffects.addAll(this.effect);
-        newEffects.addAll(other.effect);
-        return new EffectStep<>(newEffects, stepOperator.apply(this.next, other.next));
+        return new EffectStep<>(concat(this.effect, other.effect), stepOperator.apply(this.next, other.next));
     }
 
     /**
@@ -76,7 +72,7 @@ public record EffectStep<T>(List<DataStateUpdate> effect, T next) {
         if (updates.isEmpty()) {
             return this;
         } else {
-            return new EffectStep<>(Stream.concat(updates.stream(), this.effect.stream()).toList(), next);
+            return new EffectStep<>(concat(updates, this.effect), next);
         }
     }
 
@@ -88,9 +84,7 @@ public record EffectStep<T>(List<DataStateUpdate> effect, T next) {
      */
     public EffectStep<T> applyAfter(EffectStep<T> apply) {
         if (this.isCompleted()) return this;
-        LinkedList<DataStateUpdate> updates = new LinkedList<>(this.effect);
-        updates.addAll(apply.effect);
-        return new EffectStep<>(updates, apply.next);
+        return new EffectStep<>(concat(this.effect, apply.effect), apply.next);
     }
 
     /**
@@ -101,4 +95,22 @@ public record EffectStep<T>(List<DataStateUpdate> effect, T next) {
     public boolean isCompleted() {
         return (this.next != null);
     }
+
+    /**
+     * Returns the concatenation of two lists of updates. When one of the two lists is empty
+     * the other one is returned, otherwise a single array backed list is allocated.
+     */
+    private static List<DataStateUpdate> concat(List<DataStateUpdate> first, List<DataStateUpdate> second) {
+        if (first.isEmpty()) return second;
+        if (second.isEmpty()) return first;
+        DataStateUpdate[] result = new DataStateUpdate[first.size() + second.size()];
+        int k = 0;
+        for (DataStateUpdate update : first) {
+            result[k++] = update;
+        }
+        for (DataStateUpdate update : second) {
+            result[k++] = update;
+        }
+        return Arrays.asList(result);
+    }
 }
@@ -23,6 +23,7 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -55,4 +56,12 @@ public class ExecController implements Controller {
         return nextController.next(rg, state);
     }
 
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        return nextController.next(rg, state, updates);
+    }
+
+    Controller getNextController() {
+        return nextController;
+    }
 }
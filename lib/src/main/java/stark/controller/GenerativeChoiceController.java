@@ -23,6 +23,7 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -74,4 +75,24 @@ public class GenerativeChoiceController implements Controller{
         }
     }
 
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        if (rg.nextDouble() <= this.p) {
+            return leftController.next(rg, state, updates);
+        } else {
+            return rightController.next(rg, state, updates);
+        }
+    }
+
+    double getProbability() {
+        return p;
+    }
+
+    Controller getLeftController() {
+        return leftController;
+    }
+
+    Controller getRightController() {
+        return rightController;
+    }
 }
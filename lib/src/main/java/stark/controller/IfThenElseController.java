@@ -23,6 +23,7 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.function.BiPredicate;
@@ -68,5 +69,20 @@ public class IfThenElseController implements Controller{
         return (guard.test(rg, state)?thenController.next(rg, state):elseController.next(rg, state));
     }
 
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        return (guard.test(rg, state)?thenController.next(rg, state, updates):elseController.next(rg, state, updates));
+    }
+
+    BiPredicate<RandomGenerator, DataState> getGuard() {
+        return guard;
+    }
 
+    Controller getThenController() {
+        return thenController;
+    }
+
+    Controller getElseController() {
+        return elseController;
+    }
 }
@@ -23,6 +23,7 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.List;
@@ -45,4 +46,9 @@ public class NilController implements Controller {
         return new EffectStep<>(List.of(), this);
     }
 
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        return this;
+    }
+
 }
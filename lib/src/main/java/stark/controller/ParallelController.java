@@ -23,6 +23,7 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -59,4 +60,22 @@ public class ParallelController implements Controller {
     public EffectStep<Controller> next(RandomGenerator rg, DataState state) {
         return this.leftController.next(rg, state).parallel(ParallelController::new, this.rightController.next(rg, state));
     }
+
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        Controller left = this.leftController.next(rg, state, updates);
+        Controller right = this.rightController.next(rg, state, updates);
+        if ((left == this.leftController)&&(right == this.rightController)) {
+            return this;
+        }
+        return new ParallelController(left, right);
+    }
+
+    Controller getLeftController() {
+        return leftController;
+    }
+
+    Controller getRightController() {
+        return rightController;
+    }
 }
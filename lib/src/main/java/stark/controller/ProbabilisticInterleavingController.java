@@ -24,6 +24,7 @@ package stark.controller;
 
 import stark.ds.DataState;
 import stark.ds.DataStateUpdate;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.List;
@@ -86,4 +87,27 @@ public class ProbabilisticInterleavingController implements Controller {
             return new EffectStep<>(updates, c);
         }
     }
+
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        if (rg.nextDouble() <= this.p) {
+            Controller left = this.leftController.next(rg, state, updates);
+            return (left == this.leftController ? this : new ProbabilisticInterleavingController(this.p, left, this.rightController));
+        } else {
+            Controller right = this.rightController.next(rg, state, updates);
+            return (right == this.rightController ? this : new ProbabilisticInterleavingController(this.p, this.leftController, right));
+        }
+    }
+
+    double getProbability() {
+        return p;
+    }
+
+    Controller getLeftController() {
+        return leftController;
+    }
+
+    Controller getRightController() {
+        return rightController;
+    }
 }
@@ -23,9 +23,10 @@
 package stark.controller;
 
 import stark.ds.DataState;
+import stark.ds.DataStateUpdateBuffer;
 import org.apache.commons.math3.random.RandomGenerator;
 
-import java.util.LinkedList;
+import java.util.List;
 import java.util.function.ToIntBiFunction;
 
 /**
@@ -80,10 +81,23 @@ public class StepController implements Controller {
     public EffectStep<Controller> next(RandomGenerator rg, DataState state) {
         int numberOfSteps = steps.applyAsInt(rg, state);
         if (numberOfSteps<=0) {
-            return new EffectStep<>(new LinkedList<>(), nextController);
+            return new EffectStep<>(List.of(), nextController);
         } else {
-            return new EffectStep<>(new LinkedList<>(), new StepController((rg2, ds) -> numberOfSteps-1, nextController));
+            return new EffectStep<>(List.of(), new StepController(numberOfSteps-1, nextController));
         }
     }
 
+    @Override
+    public Controller next(RandomGenerator rg, DataState state, DataStateUpdateBuffer updates) {
+        int numberOfSteps = steps.applyAsInt(rg, state);
+        return (numberOfSteps<=0 ? nextController : new StepController(numberOfSteps-1, nextController));
+    }
+
+    ToIntBiFunction<RandomGenerator, DataState> getSteps() {
+        return steps;
+    }
+
+    Controller getNextController() {
+        return nextController;
+    }
 }
@@ -67,17 +67,24 @@ public final class AtomicDistanceExpression implements DistanceExpression {
      */
     @Override
     public double compute(int step, EvolutionSequence seq1, EvolutionSequence seq2) {
+        seq1.checkCancelled();
         return seq1.get(step).distance(this.rho, this.distance, seq2.get(step));
     }
 
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z){
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy){
         double[] res = new double[3];
         res[0] = seq1.get(step).distance(this.rho, this.distance, seq2.get(step));
+        if (strategy != ConfidenceStrategy.BOOTSTRAP) {
+            double[] partial = seq1.get(step).analyticDistance(this.rho, this.distance, seq2.get(step), z);
+            res[1] = partial[0];
+            res[2] = partial[1];
+            return res;
+        }
         ToDoubleBiFunction<double[],double[]> bootDist = (a,b)->IntStream.range(0, a.length).parallel()
                 .mapToDouble(i -> IntStream.range(0, b.length/a.length).mapToDouble(j -> distance.applyAsDouble(a[i],b[i * (b.length/a.length) + j])).sum())
                 .sum() / b.length;
-        double[] partial = seq1.get(step).bootstrapDistance(rg, this.rho, bootDist, seq2.get(step),m,z);
+        double[] partial = seq1.get(step).bootstrapDistance(rg, this.rho, bootDist, seq2.get(step),m,z, seq1.getMonitor());
         res[1] = partial[0];
         res[2] = partial[1];
         return res;
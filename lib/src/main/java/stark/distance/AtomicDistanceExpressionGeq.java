@@ -53,14 +53,17 @@ public final class AtomicDistanceExpressionGeq implements DistanceExpression {
      */
     @Override
     public double compute(int step, EvolutionSequence seq1, EvolutionSequence seq2) {
+        seq1.checkCancelled();
         return seq1.get(step).distanceGeq(rho, seq2.get(step));
     }
 
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z){
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy){
         double[] res = new double[3];
         res[0] = seq1.get(step).distanceGeq(rho, seq2.get(step));
-        double[] partial = seq1.get(step).bootstrapDistanceGeq(rg, rho, seq2.get(step),m,z);
+        double[] partial = (strategy == ConfidenceStrategy.BOOTSTRAP
+                ? seq1.get(step).bootstrapDistanceGeq(rg, rho, seq2.get(step),m,z, seq1.getMonitor())
+                : seq1.get(step).analyticDistanceGeq(rho, seq2.get(step), z));
         res[1] = partial[0];
         res[2] = partial[1];
         return res;
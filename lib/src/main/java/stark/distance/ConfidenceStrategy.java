@@ -0,0 +1,48 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.distance;
+
+/**
+ * Strategies used to evaluate the confidence interval of a distance expression.
+ */
+public enum ConfidenceStrategy {
+
+    /**
+     * Intervals of atomic distances are evaluated by means of the empirical bootstrap method.
+     */
+    BOOTSTRAP,
+
+    /**
+     * Intervals of atomic distances are evaluated from the sample variance of the costs of the transport
+     * between the two sample sets, as given by the central limit theorem, without resampling.
+     */
+    ANALYTIC,
+
+    /**
+     * Intervals are first evaluated analytically, and the bootstrap method is used only when the analytic
+     * interval contains the threshold the distance is compared with.
+     * When no threshold is given, the analytic interval is used.
+     */
+    ANALYTIC_THEN_BOOTSTRAP
+
+}
@@ -74,9 +74,9 @@ public final class ConvexCombinationDistanceExpression implements DistanceExpres
      * of the confidence intervals on the evaluations of the expressions.
      */
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z) {
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy) {
         return IntStream.range(0,3).mapToDouble(j -> IntStream.range(0, weights.length)
-                .mapToDouble(i -> weights[i]*expressions[i].evalCI(rg, step, seq1, seq2, m, z)[j])
+                .mapToDouble(i -> weights[i]*expressions[i].evalCI(rg, step, seq1, seq2, m, z, strategy)[j])
                 .sum()).toArray();
     }
 
@@ -79,7 +79,14 @@ public sealed interface DistanceExpression permits
      * at each time step in <code>steps</code>.
      */
     default double[] compute(int[] steps, EvolutionSequence seq1, EvolutionSequence seq2) {
-        return IntStream.of(steps).mapToDouble(i -> compute(i, seq1, seq2)).toArray();
+        IntStream.of(steps).max().ifPresent(n -> {
+            seq1.prefetch(n);
+            seq2.prefetch(n);
+        });
+        return IntStream.of(steps).mapToDouble(i -> {
+            seq1.checkCancelled();
+            return compute(i, seq1, seq2);
+        }).toArray();
     }
 
     /**
@@ -98,7 +105,58 @@ public sealed interface DistanceExpression permits
      * and its confidence interval evaluated via empirical bootstrapping
      * using <code>m</code> and <code>z</code> as parameters for it.
      */
-    double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z);
+    default double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z) {
+        return evalCI(rg, step, seq1, seq2, m, z, ConfidenceStrategy.BOOTSTRAP);
+    }
+
+    /**
+     * Returns the evaluation of the distance expression among the two sequences at the given step
+     * and the related confidence interval, evaluated according to the given strategy.
+     *
+     * @param rg random generator
+     * @param step time step at which we start the evaluation of the expression
+     * @param seq1 an evolution sequence
+     * @param seq2 an evolution sequence
+     * @param m number of repetitions for the bootstrap method
+     * @param z the quantile of the standard normal distribution corresponding to the desired coverage probability.
+     * @param strategy strategy used to evaluate the confidence intervals of atomic distances.
+     * @return the evaluation of the distance expression,
+     * at time <code>step</code>,
+     * between <code>seq1</code> and <code>seq2</code>,
+     * and its confidence interval evaluated according to <code>strategy</code>.
+     */
+    double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy);
+
+    /**
+     * Returns the evaluation of the distance expression among the two sequences at the given step
+     * and the related confidence interval, where the distance is compared with the given threshold.
+     * With strategy {@link ConfidenceStrategy#ANALYTIC_THEN_BOOTSTRAP}, the interval is evaluated by
+     * bootstrapping only when the analytic one contains <code>threshold</code>, namely when it does not
+     * suffice to decide the comparison.
+     *
+     * @param rg random generator
+     * @param step time step at which we start the evaluation of the expression
+     * @param seq1 an evolution sequence
+     * @param seq2 an evolution sequence
+     * @param m number of repetitions for the bootstrap method
+     * @param z the quantile of the standard normal distribution corresponding to the desired coverage probability.
+     * @param strategy strategy used to evaluate the confidence intervals of atomic distances.
+     * @param threshold the value the distance is compared with.
+     * @return the evaluation of the distance expression,
+     * at time <code>step</code>,
+     * between <code>seq1</code> and <code>seq2</code>,
+     * and its confidence interval evaluated according to <code>strategy</code>.
+     */
+    default double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy, double threshold) {
+        if (strategy != ConfidenceStrategy.ANALYTIC_THEN_BOOTSTRAP) {
+            return evalCI(rg, step, seq1, seq2, m, z, strategy);
+        }
+        double[] res = evalCI(rg, step, seq1, seq2, m, z, ConfidenceStrategy.ANALYTIC);
+        if ((res[1] < threshold)&&(threshold < res[2])) {
+            res = evalCI(rg, step, seq1, seq2, m, z, ConfidenceStrategy.BOOTSTRAP);
+        }
+        return res;
+    }
 
     /**
      * In case the random generator is not declared,
@@ -71,12 +71,12 @@ public final class MaxDistanceExpression implements DistanceExpression {
      * by taking the maxima of the respective bounds.
      */
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z) {
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy) {
         if (step<0) {
             throw new IllegalArgumentException();
         }
         return IntStream.range(0,3)
-                .mapToDouble(i -> Math.max(expr1.evalCI(rg, step, seq1, seq2, m, z)[i], expr2.evalCI(rg, step, seq1, seq2, m, z)[i]))
+                .mapToDouble(i -> Math.max(expr1.evalCI(rg, step, seq1, seq2, m, z, strategy)[i], expr2.evalCI(rg, step, seq1, seq2, m, z, strategy)[i]))
                 .toArray();
     }
 
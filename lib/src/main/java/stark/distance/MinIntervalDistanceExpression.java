@@ -77,6 +77,17 @@ public final class MinIntervalDistanceExpression implements DistanceExpression {
                 .orElse(Double.NaN);
     }
 
+    /**
+     * @inheritDoc
+     *
+     * The evaluations of <code>expression</code> are computed once for all the time steps covered by the
+     * intervals starting at <code>steps</code>, and the minimum over each interval is then obtained in constant time.
+     */
+    @Override
+    public double[] compute(int[] steps, EvolutionSequence seq1, EvolutionSequence seq2) {
+        return RangeExtrema.compute(expression, from, to, steps, seq1, seq2, Math::min);
+    }
+
     /**
      * @inheritDoc
      *
@@ -84,12 +95,12 @@ public final class MinIntervalDistanceExpression implements DistanceExpression {
      * by taking the minima of the respective bounds.
      */
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z) {
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy) {
         if (step<0) {
             throw new IllegalArgumentException();
         }
         double[] res = new double[3];
-        List<double[]> resList = IntStream.range(from + step, to + step).parallel().mapToObj(i -> expression.evalCI(rg, i, seq1, seq2, m, z)).toList();
+        List<double[]> resList = IntStream.range(from + step, to + step).parallel().mapToObj(i -> expression.evalCI(rg, i, seq1, seq2, m, z, strategy)).toList();
         res[0] = resList.stream().parallel().mapToDouble(r -> r[0]).min().orElse(Double.NaN);
         res[1] = resList.stream().parallel().mapToDouble(r -> r[1]).min().orElse(Double.NaN);
         res[2] = resList.stream().parallel().mapToDouble(r -> r[2]).min().orElse(Double.NaN);
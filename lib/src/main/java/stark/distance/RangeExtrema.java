@@ -0,0 +1,127 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.distance;
+
+import stark.EvolutionSequence;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse table answering in constant time the maximum, or the minimum, of the evaluations of a distance expression
+ * over an interval of time steps. The evaluations of the expression are computed once, for all the time steps
+ * covered by the queried intervals, so that interval operators evaluated at many overlapping windows do not
+ * evaluate the same step more than once.
+ */
+final class RangeExtrema {
+
+    private final int offset;
+    private final double[][] table;
+    private final DoubleBinaryOperator op;
+
+    /**
+     * Builds the table for the given values, where <code>values[i]</code> is the evaluation at step <code>offset+i</code>.
+     * Row <code>k</code> of the table contains the combination via <code>op</code> of the values in the windows of
+     * length <code>2^k</code>.
+     */
+    RangeExtrema(int offset, double[] values, DoubleBinaryOperator op) {
+        this.offset = offset;
+        this.op = op;
+        int levels = 1;
+        while ((1 << levels) <= values.length) {
+            levels++;
+        }
+        this.table = new double[levels][];
+        this.table[0] = values;
+        for (int k = 1; k < levels; k++) {
+            double[] previous = table[k - 1];
+            int half = 1 << (k - 1);
+            double[] row = new double[values.length - (1 << k) + 1];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = op.applyAsDouble(previous[i], previous[i + half]);
+            }
+            table[k] = row;
+        }
+    }
+
+    /**
+     * Returns the combination of the values at the steps in <code>[from, to)</code>, or <code>NaN</code> if the
+     * interval is empty.
+     *
+     * @param from first step of the interval
+     * @param to step following the last one in the interval
+     * @return the combination of the values at the steps in <code>[from, to)</code>.
+     */
+    double query(int from, int to) {
+        int length = to - from;
+        if (length <= 0) {
+            return Double.NaN;
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(length);
+        return op.applyAsDouble(table[k][from - offset], table[k][to - offset - (1 << k)]);
+    }
+
+    /**
+     * Evaluates, at each of the given steps, the combination via <code>op</code> of the evaluations of
+     * <code>expression</code> in the window <code>[step+from, step+to)</code>. The expression is evaluated once
+     * at each step covered by at least one window.
+     *
+     * @param expression the distance expression evaluated in the windows
+     * @param from the left bound of the windows
+     * @param to the right bound of the windows
+     * @param steps the steps at which the windows start
+     * @param seq1 an evolution sequence
+     * @param seq2 an evolution sequence
+     * @param op the operator combining the evaluations in a window
+     * @return the array containing, for each step in <code>steps</code>, the combination of the evaluations
+     * in the window starting at that step.
+     */
+    static double[] compute(DistanceExpression expression, int from, int to, int[] steps,
+                            EvolutionSequence seq1, EvolutionSequence seq2, DoubleBinaryOperator op) {
+        if (IntStream.of(steps).anyMatch(s -> s < 0)) {
+            throw new IllegalArgumentException();
+        }
+        if (steps.length == 0) {
+            return new double[0];
+        }
+        int first = IntStream.of(steps).min().getAsInt() + from;
+        int last = IntStream.of(steps).max().getAsInt() + to;
+        int[] windows = new int[last - first + 1];
+        for (int s : steps) {
+            windows[s + from - first]++;
+            windows[s + to - first]--;
+        }
+        for (int i = 1; i < windows.length; i++) {
+            windows[i] += windows[i - 1];
+        }
+        int[] needed = IntStream.range(first, last).filter(i -> windows[i - first] > 0).toArray();
+        double[] evaluations = expression.compute(needed, seq1, seq2);
+        double[] values = new double[last - first];
+        for (int i = 0; i < needed.length; i++) {
+            values[needed[i] - first] = evaluations[i];
+        }
+        RangeExtrema index = new RangeExtrema(first, values, op);
+        return IntStream.of(steps).mapToDouble(s -> index.query(s + from, s + to)).toArray();
+    }
+
+}
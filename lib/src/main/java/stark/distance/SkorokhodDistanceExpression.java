@@ -123,8 +123,9 @@ public final class SkorokhodDistanceExpression implements DistanceExpression {
     }
 
     // not yet implemented:
+    // the interval is always evaluated by bootstrapping, regardless of the strategy
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z){
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy){
 
         // find best fitting offset
         int offset = FindLambdaSkorokhod(step, seq1, seq2, this.lambdaCount);
@@ -75,9 +75,9 @@ public final class ThresholdDistanceExpression implements DistanceExpression {
      * (i.e., it is either [0,0] or [1,1]).
      */
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z) {
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy) {
         double[] res = new double[3];
-        double[] value = expression.evalCI(rg, step, seq1, seq2, m, z);
+        double[] value = expression.evalCI(rg, step, seq1, seq2, m, z, strategy, threshold);
         res[0]= relop.eval(value[0],threshold)?0.0:1.0;
         if(value[1]< threshold && threshold< value[2]){
             res[1] = 0.0;
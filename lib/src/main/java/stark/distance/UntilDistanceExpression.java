@@ -61,6 +61,8 @@ public final class UntilDistanceExpression implements DistanceExpression {
      * we compute the maximum between the evaluation of the right expression at time t and
      * the maximum value of the left expression up to time t,
      * and then take the minimum of these evaluations.
+     * The maximum of the left expression is kept while t increases, hence each expression is
+     * computed once per time step.
      *
      * @param step time step at which we start the evaluation of the expression
      * @param seq1 an evolution sequence
@@ -75,22 +77,12 @@ public final class UntilDistanceExpression implements DistanceExpression {
         if (step<0) {
             throw new IllegalArgumentException();
         }
-        /*
-        return IntStream.range(from+step, to+step).parallel()
-                .mapToDouble(i -> Math.max(rightExpression.compute(i, seq1, seq2),
-                        IntStream.range(from+step,i).parallel()
-                                .mapToDouble(j-> leftExpression.compute(j,seq1,seq2)).max().orElse(Double.NaN)))
-                .min().orElse(Double.NaN);
-
-         */
         double res = 1.0;
         double resL = 0.0;
         for(int i = from+step; i<to+step; i++) {
             double resR = rightExpression.compute(i, seq1, seq2);
-            //double resL = leftExpression.compute(i,seq1,seq2);
-            for(int j =from+step; j<i; j++) {
-                double partialL = leftExpression.compute(j,seq1,seq2);
-                resL = Math.max(resL, partialL);
+            if (i > from+step) {
+                resL = Math.max(resL, leftExpression.compute(i-1, seq1, seq2));
             }
             res = Math.min(res,Math.max(resR,resL));
         }
@@ -103,21 +95,34 @@ public final class UntilDistanceExpression implements DistanceExpression {
      * The same calculations applied to obtain the value of the distance,
      * are applied to the bounds of the confidence intervals to obtain the
      * confidence interval on the evaluation of the until distance expression.
+     * Unless <code>strategy</code> is {@link ConfidenceStrategy#BOOTSTRAP}, the intervals do not depend on
+     * <code>rg</code>, hence the maximum of the intervals of the left expression is kept while t increases and
+     * each expression is evaluated once per time step. With the bootstrap method the intervals of the left
+     * expression are evaluated again for each t, with the values drawn from <code>rg</code> in this order,
+     * which requires a number of evaluations quadratic in the length of the time interval.
      */
     @Override
-    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z) {
+    public double[] evalCI(RandomGenerator rg, int step, EvolutionSequence seq1, EvolutionSequence seq2, int m, double z, ConfidenceStrategy strategy) {
         if (step<0) {
             throw new IllegalArgumentException();
         }
         double[] res = {1.0,1.0,1.0};
+        double[] maxL = {0.0,0.0,0.0};
         for(int i = from+step; i<to+step; i++) {
-            double[] resR = rightExpression.evalCI(rg, i, seq1, seq2, m, z);
-            double[] resL = leftExpression.evalCI(rg, i,seq1,seq2,m,z);
-            for(int j =from+step; j<i; j++) {
-                double[] partialL = leftExpression.evalCI(rg, j,seq1,seq2,m,z);
-                resL[0] = Math.max(resL[0], partialL[0]);
-                resL[1] = Math.max(resL[1], partialL[1]);
-                resL[2] = Math.max(resL[2], partialL[2]);
+            double[] resR = rightExpression.evalCI(rg, i, seq1, seq2, m, z, strategy);
+            double[] resL = leftExpression.evalCI(rg, i,seq1,seq2,m,z, strategy);
+            if (strategy != ConfidenceStrategy.BOOTSTRAP) {
+                maxL[0] = Math.max(maxL[0], resL[0]);
+                maxL[1] = Math.max(maxL[1], resL[1]);
+                maxL[2] = Math.max(maxL[2], resL[2]);
+                resL = maxL;
+            } else {
+                for(int j =from+step; j<i; j++) {
+                    double[] partialL = leftExpression.evalCI(rg, j,seq1,seq2,m,z, strategy);
+                    resL[0] = Math.max(resL[0], partialL[0]);
+                    resL[1] = Math.max(resL[1], partialL[1]);
+                    resL[2] = Math.max(resL[2], partialL[2]);
+                }
             }
             res[0] = Math.min(res[0],Math.max(resR[0],resL[0]));
             res[1] = Math.min(res[1],Math.max(resR[1],resL[1]));
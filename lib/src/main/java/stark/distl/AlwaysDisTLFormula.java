@@ -42,7 +42,7 @@ public final class AlwaysDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalAlways(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalAlways(this));
     }
 
     public UDisTLFormula getArgument() {
@@ -81,7 +81,7 @@ public final class BrinkDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalBrink(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalBrink(this));
     }
 
     public DataStateFunction getDistribution() {
@@ -40,7 +40,7 @@ public final class ConjunctionDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalConjunction(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalConjunction(this));
     }
 
     public UDisTLFormula getLeftFormula() {
@@ -0,0 +1,75 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.distl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event emitted each time the function obtained from a DisTL formula is evaluated.
+ * Formulae are identified by their operator and by their identity hash code, so that the evaluations of
+ * the same sub-formula at different steps can be grouped.
+ */
+@Name("stark.DisTLFunctionEvaluation")
+@Label("DisTL Formula Evaluation")
+@Category({"STARK", "Verification"})
+@Description("Evaluation of a DisTL formula at a given step")
+final class DisTLFunctionEvent extends Event {
+
+    @Label("Operator")
+    String operator;
+
+    @Label("Formula Id")
+    String formula;
+
+    @Label("Step")
+    int step;
+
+    @Label("Sample Size")
+    int sampleSize;
+
+    /**
+     * Returns the function that evaluates the given one and records an event for each evaluation.
+     */
+    static <T> DisTLFunction<T> traced(DisTLFormula formula, DisTLFunction<T> function) {
+        String operator = formula.getClass().getSimpleName();
+        String id = Integer.toHexString(System.identityHashCode(formula));
+        return (sampleSize, step, sequence) -> {
+            DisTLFunctionEvent event = new DisTLFunctionEvent();
+            event.begin();
+            T result = function.eval(sampleSize, step, sequence);
+            if (event.shouldCommit()) {
+                event.operator = operator;
+                event.formula = id;
+                event.step = step;
+                event.sampleSize = sampleSize;
+                event.commit();
+            }
+            return result;
+        };
+    }
+
+}
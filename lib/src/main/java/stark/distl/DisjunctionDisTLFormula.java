@@ -39,7 +39,7 @@ public final class DisjunctionDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalDisjunction(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalDisjunction(this));
     }
 
     public UDisTLFormula getLeftFormula() {
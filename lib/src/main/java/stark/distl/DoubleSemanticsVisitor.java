@@ -180,18 +180,21 @@ public class DoubleSemanticsVisitor implements DisTLFormulaVisitor<Double> {
         int from = untilDisTLFormula.getFrom();
         int to = untilDisTLFormula.getTo();
 
-        return(sampleSize, step, sequence) ->
-                maybeParallelize(IntStream.range(step+from, step+to+1)).mapToDouble(
-                        tauPrime -> {
-                            if (tauPrime == from + step){
-                                return rightFunction.eval(sampleSize, tauPrime, sequence);
-                            } else {
-                                return Math.min(
-                                        rightFunction.eval(sampleSize, tauPrime, sequence),
-                                        maybeParallelize(IntStream.range(from+step, tauPrime)).mapToDouble(tauPrimePrime -> leftFunction.eval(sampleSize, tauPrimePrime, sequence))
-                                                .min().orElse(Double.NaN));
-                            }
-                        }).max().orElse(Double.NaN);
+        return (sampleSize, step, sequence) -> {
+            double[] right = maybeParallelize(IntStream.range(step+from, step+to+1)).mapToDouble(tauPrime -> rightFunction.eval(sampleSize, tauPrime, sequence)).toArray();
+            double[] left = maybeParallelize(IntStream.range(step+from, step+to)).mapToDouble(tauPrimePrime -> leftFunction.eval(sampleSize, tauPrimePrime, sequence)).toArray();
+            if (right.length == 0) {
+                return Double.NaN;
+            }
+            // the minimum of the left function before each step is kept while the step increases
+            double result = right[0];
+            double leftMin = Double.POSITIVE_INFINITY;
+            for (int k = 1; k < right.length; k++) {
+                leftMin = Math.min(leftMin, left[k - 1]);
+                result = Math.max(result, Math.min(right[k], leftMin));
+            }
+            return result;
+        };
 
     }
 
@@ -42,7 +42,7 @@ public final class EventuallyDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalEventually(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalEventually(this));
     }
 
     public UDisTLFormula getArgument() {
@@ -30,7 +30,7 @@ public final class FalseDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalFalse();
+        return DisTLFunctionEvent.traced(this, evaluator.evalFalse());
     }
 
     @Override
@@ -39,7 +39,7 @@ public final class ImplicationDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalImplication(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalImplication(this));
     }
 
     public UDisTLFormula getLeftFormula() {
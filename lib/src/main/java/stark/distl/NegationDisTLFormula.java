@@ -37,7 +37,7 @@ public final class NegationDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalNegation(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalNegation(this));
     }
 
     public UDisTLFormula getArgument() {
@@ -88,7 +88,7 @@ public final class TargetDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalTarget(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalTarget(this));
     }
 
     public DataStateFunction getDistribution() {
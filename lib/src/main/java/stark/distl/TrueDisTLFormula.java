@@ -30,7 +30,7 @@ public final class TrueDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalTrue();
+        return DisTLFunctionEvent.traced(this, evaluator.evalTrue());
     }
 
     @Override
@@ -52,7 +52,7 @@ public final class UntilDisTLFormula implements DisTLFormula {
 
     @Override
     public <T> DisTLFunction<T> eval(DisTLFormulaVisitor<T> evaluator) {
-        return evaluator.evalUntil(this);
+        return DisTLFunctionEvent.traced(this, evaluator.evalUntil(this));
     }
 
     public UDisTLFormula getLeftFormula() {
@@ -0,0 +1,90 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Block function modelling a deterministic affine dynamics: the new value of variable <code>v</code>
+ * is <code>constants[v] + coefficients[v][0]*x0 + ... + coefficients[v][n-1]*x(n-1)</code>, clamped
+ * in the range of <code>v</code>. Each column is computed with loops over the columns of the block
+ * that the JIT compiler can vectorise.
+ */
+public class AffineDataStateBlockFunction implements DataStateBlockFunction {
+
+    private final double[][] coefficients;
+    private final double[] constants;
+
+    /**
+     * Creates the affine function with the given coefficients and constants.
+     *
+     * @param coefficients a square matrix of coefficients, one row for each variable.
+     * @param constants the constant term of each variable.
+     * @throws IllegalArgumentException if <code>coefficients</code> is not a square matrix of size <code>constants.length</code>.
+     */
+    public AffineDataStateBlockFunction(double[][] coefficients, double[] constants) {
+        if ((coefficients.length != constants.length)||Arrays.stream(coefficients).anyMatch(row -> row.length != constants.length)) {
+            throw new IllegalArgumentException("Incompatible size of coefficients!");
+        }
+        this.coefficients = Arrays.stream(coefficients).map(double[]::clone).toArray(double[][]::new);
+        this.constants = constants.clone();
+    }
+
+    /**
+     * Random generators are ignored, the result is a new block.
+     *
+     * @throws IllegalArgumentException if the number of variables in <code>block</code> differs from the size of this function.
+     */
+    @Override
+    public DataStateBlock apply(IntFunction<RandomGenerator> rg, DataStateBlock block) {
+        if (block.variables() != constants.length) {
+            throw new IllegalArgumentException("Incompatible size of data state block!");
+        }
+        DataStateBlock result = block.copy();
+        IntStream.range(0, constants.length).parallel().forEach(v -> evalColumn(block, result.column(v), v));
+        return result;
+    }
+
+    private void evalColumn(DataStateBlock block, double[] target, int v) {
+        Arrays.fill(target, constants[v]);
+        for (int j = 0; j < constants.length; j++) {
+            double a = coefficients[v][j];
+            if (a != 0.0) {
+                double[] source = block.column(j);
+                for (int r = 0; r < target.length; r++) {
+                    target[r] += a * source[r];
+                }
+            }
+        }
+        double min = block.getDataRange(v).minValue();
+        double max = block.getDataRange(v).maxValue();
+        for (int r = 0; r < target.length; r++) {
+            target[r] = Math.max(min, Math.min(max, target[r]));
+        }
+    }
+
+}
@@ -59,7 +59,11 @@ public record DataRange(double minValue, double maxValue) {
      * @return the array with the values to be stored in each cell once they comply with the range.
      */
     public static double[] apply(DataRange[] dataRanges, double[] data) {
-        return IntStream.range(0, dataRanges.length).mapToDouble(i -> dataRanges[i].apply(data[i])).toArray();
+        double[] result = new double[dataRanges.length];
+        for (int i = 0; i < dataRanges.length; i++) {
+            result[i] = dataRanges[i].apply(data[i]);
+        }
+        return result;
     }
 
     /**
@@ -193,6 +193,21 @@ public class DataState {
         this.dataRanges = dataRanges;
     }
 
+    /**
+     * Creates a new data state with the given values, which already comply with the ranges,
+     * and with the same ranges and time variables of <code>source</code>.
+     * The array <code>data</code> is not copied.
+     */
+    private DataState(DataState source, double[] data) {
+        this.data = data;
+        this.dataRanges = source.dataRanges;
+        this.granularity = source.granularity;
+        this.timeStep = source.timeStep;
+        this.timeReal = source.timeReal;
+        this.timeDelta = source.timeDelta;
+        this.step = source.step;
+    }
+
     /**
      * Creates a new data state with the <code>dataRanges.length</code> cells. Values in the data state are initialised by
      * assigning to the cell in position <code>i</code> the value <code>initFunction.applyAsDouble(i)</code>.
@@ -438,23 +453,84 @@ public class DataState {
      * @return the data state obtained from this data state by applying the given updates.
      */
     public DataState apply(List<DataStateUpdate> updates) {
-        DataState newDataState = new DataState(this.dataRanges, data);
-        updates.forEach(newDataState::apply);
-        newDataState.setGranularity(this.getGranularity());
-        newDataState.setTimeStep(this.getTimeStep());
-        newDataState.setTimeReal(this.getTimeReal());
-        newDataState.setTimeDelta(this.getTimeDelta());
-        newDataState.setStep(this.getStep());
-        return newDataState;
+        double[] newData = data.clone();
+        for (DataStateUpdate update : updates) {
+            int i = update.getIndex();
+            newData[i] = dataRanges[i].apply(update.getValue());
+        }
+        return new DataState(this, newData);
+    }
+
+    /**
+     * Returns a new data state with the same data as this data state plus the updates in the given buffer applied.
+     * Only the updated cells are checked against their ranges, since the other values already comply with them.
+     *
+     * @param updates buffer of updates to apply.
+     * @return the data state obtained from this data state by applying the updates in <code>updates</code>.
+     */
+    public DataState apply(DataStateUpdateBuffer updates) {
+        double[] newData = data.clone();
+        for (int k = 0; k < updates.size(); k++) {
+            int i = updates.getIndex(k);
+            newData[i] = dataRanges[i].apply(updates.getValue(k));
+        }
+        return new DataState(this, newData);
+    }
+
+    /**
+     * Returns the data state obtained from <code>state</code> by applying the given updates.
+     * When there are no updates, <code>state</code> itself is returned instead of a copy. This is used
+     * when the result is immediately passed to a data state function, that never modifies its argument:
+     * callers must copy the outcome of the function if it is <code>state</code> and has to be modified.
+     *
+     * @param state a data state.
+     * @param updates list of updates to apply.
+     * @return the data state obtained from <code>state</code> by applying <code>updates</code>.
+     */
+    public static DataState applyOrShare(DataState state, List<DataStateUpdate> updates) {
+        return (updates.isEmpty() ? state : state.apply(updates));
+    }
+
+    /**
+     * Returns the data state obtained from <code>state</code> by applying the updates in the given buffer,
+     * or <code>state</code> itself if the buffer is empty.
+     *
+     * @param state a data state.
+     * @param updates buffer of updates to apply.
+     * @return the data state obtained from <code>state</code> by applying <code>updates</code>.
+     * @see #applyOrShare(DataState, List)
+     */
+    public static DataState applyOrShare(DataState state, DataStateUpdateBuffer updates) {
+        return (updates.isEmpty() ? state : state.apply(updates));
     }
 
     /**
-     * Applies a given update to this data state.
+     * Returns a copy of this data state.
      *
-     * @param dataStateUpdate update to be applied.
+     * @return a copy of this data state.
      */
-    private void apply(DataStateUpdate dataStateUpdate) {
-        this.set(dataStateUpdate.getIndex(), dataStateUpdate.getValue());
+    public DataState copy() {
+        return new DataState(this, data.clone());
+    }
+
+    /**
+     * Overwrites the values and the time variables of this data state with the ones stored
+     * in the given row of a data state block. Values in the block already comply with the ranges,
+     * hence they are copied without being clamped again.
+     * This method is used to reuse the same data state as a cursor over a block.
+     *
+     * @param block a data state block.
+     * @param row index of the row to copy.
+     */
+    void load(DataStateBlock block, int row) {
+        for (int i = 0; i < data.length; i++) {
+            this.data[i] = block.get(row, i);
+        }
+        this.granularity = block.getGranularity(row);
+        this.timeStep = block.getTimeStep(row);
+        this.timeReal = block.getTimeReal(row);
+        this.timeDelta = block.getTimeDelta(row);
+        this.step = block.getStep(row);
     }
 
     /**
@@ -0,0 +1,360 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * A data state block stores the data states of a set of samples in columnar form:
+ * the values of each variable are stored in a contiguous array, indexed by sample,
+ * and the data ranges are shared by all the samples in the block.
+ */
+public class DataStateBlock {
+
+    /**
+     * Number of rows evaluated by each task when a block is traversed in parallel.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    private final DataRange[] dataRanges;
+    private final double[][] values;
+    private final int[] step;
+    private final double[] timeStep;
+    private final double[] granularity;
+    private final double[] timeReal;
+    private final double[] timeDelta;
+
+    /**
+     * Creates a block of <code>size</code> data states whose cells can assume values in the given ranges.
+     * All the values are set to 0.0, and default values are used for time variables.
+     *
+     * @param dataRanges data ranges shared by all the data states in the block.
+     * @param size number of data states in the block.
+     */
+    public DataStateBlock(DataRange[] dataRanges, int size) {
+        this.dataRanges = dataRanges;
+        this.values = new double[dataRanges.length][size];
+        this.step = new int[size];
+        this.timeStep = new double[size];
+        this.granularity = new double[size];
+        this.timeReal = new double[size];
+        this.timeDelta = new double[size];
+        Arrays.fill(this.granularity, 1.0);
+    }
+
+    /**
+     * Returns the block containing the given data states.
+     * The data ranges of the first data state are shared by all the rows of the block.
+     *
+     * @param states a non-empty list of data states.
+     * @return the block containing the given data states.
+     * @throws IllegalArgumentException if the data states have different sizes or ranges.
+     */
+    public static DataStateBlock of(List<DataState> states) {
+        if (states.isEmpty()) {
+            throw new IllegalArgumentException("A data state block cannot be empty!");
+        }
+        DataState first = states.get(0);
+        DataRange[] dataRanges = IntStream.range(0, first.size()).mapToObj(first::getDataRange).toArray(DataRange[]::new);
+        DataStateBlock block = new DataStateBlock(dataRanges, states.size());
+        IntStream.range(0, states.size()).parallel().forEach(i -> block.set(i, states.get(i)));
+        return block;
+    }
+
+    /**
+     * Returns the number of data states in this block.
+     *
+     * @return the number of data states in this block.
+     */
+    public int size() {
+        return step.length;
+    }
+
+    /**
+     * Returns the number of variables of the data states in this block.
+     *
+     * @return the number of variables of the data states in this block.
+     */
+    public int variables() {
+        return dataRanges.length;
+    }
+
+    /**
+     * Returns the value of a given variable in a given row.
+     *
+     * @param row index of the data state.
+     * @param var index of the variable.
+     * @return the value of variable <code>var</code> in the data state in position <code>row</code>.
+     */
+    public double get(int row, int var) {
+        return values[var][row];
+    }
+
+    /**
+     * Returns the array containing the values of a given variable in all the rows of this block.
+     * The returned array is not a copy: changes are reflected in the block.
+     *
+     * @param var index of the variable.
+     * @return the array containing the values of <code>var</code> in all the rows of this block.
+     */
+    public double[] column(int var) {
+        return values[var];
+    }
+
+    /**
+     * Returns the data range associated with a given variable.
+     *
+     * @param var index of the variable.
+     * @return the data range associated with <code>var</code>.
+     */
+    public DataRange getDataRange(int var) {
+        return dataRanges[var];
+    }
+
+    /**
+     * Get the values of the current step and of time variables stored in a given row.
+     */
+    public int getStep(int row) {
+        return step[row];
+    }
+
+    public double getTimeStep(int row) {
+        return timeStep[row];
+    }
+
+    public double getGranularity(int row) {
+        return granularity[row];
+    }
+
+    public double getTimeReal(int row) {
+        return timeReal[row];
+    }
+
+    public double getTimeDelta(int row) {
+        return timeDelta[row];
+    }
+
+    /**
+     * Sets the current step of the data state stored in a given row.
+     *
+     * @param row index of the row.
+     * @param step the new step.
+     */
+    public void setStep(int row, int step) {
+        this.step[row] = step;
+    }
+
+    /**
+     * Stores the given data state in a given row of this block.
+     *
+     * @param row index of the row.
+     * @param state a data state.
+     * @throws IllegalArgumentException if the size, or the ranges, of <code>state</code> differ from the ones of this block.
+     */
+    public void set(int row, DataState state) {
+        if (state.size() != dataRanges.length) {
+            throw new IllegalArgumentException("Incompatible size of data state!");
+        }
+        for (int i = 0; i < dataRanges.length; i++) {
+            if ((state.getDataRange(i) != dataRanges[i])&&(!dataRanges[i].equals(state.getDataRange(i)))) {
+                throw new IllegalArgumentException("Incompatible data range at index "+i+"!");
+            }
+            values[i][row] = state.get(i);
+        }
+        step[row] = state.getStep();
+        timeStep[row] = state.getTimeStep();
+        granularity[row] = state.getGranularity();
+        timeReal[row] = state.getTimeReal();
+        timeDelta[row] = state.getTimeDelta();
+    }
+
+    /**
+     * Returns a new data state containing the values stored in the given row.
+     *
+     * @param row index of the row.
+     * @return a new data state containing the values stored in <code>row</code>.
+     */
+    public DataState getDataState(int row) {
+        DataState state = new DataState(dataRanges, new double[dataRanges.length]);
+        state.load(this, row);
+        return state;
+    }
+
+    /**
+     * Returns a copy of this block. Data ranges are shared with this block.
+     *
+     * @return a copy of this block.
+     */
+    public DataStateBlock copy() {
+        DataStateBlock result = new DataStateBlock(dataRanges, size());
+        for (int v = 0; v < values.length; v++) {
+            System.arraycopy(values[v], 0, result.values[v], 0, size());
+        }
+        System.arraycopy(step, 0, result.step, 0, size());
+        System.arraycopy(timeStep, 0, result.timeStep, 0, size());
+        System.arraycopy(granularity, 0, result.granularity, 0, size());
+        System.arraycopy(timeReal, 0, result.timeReal, 0, size());
+        System.arraycopy(timeDelta, 0, result.timeDelta, 0, size());
+        return result;
+    }
+
+    /**
+     * Returns the block obtained from this one by replicating each row the given number of times.
+     * Copies of the same row are stored contiguously.
+     *
+     * @param k number of copies.
+     * @return the block obtained from this one by replicating each row <code>k</code> times.
+     */
+    public DataStateBlock replica(int k) {
+        int size = size();
+        DataStateBlock result = new DataStateBlock(dataRanges, size * k);
+        IntStream.range(0, dataRanges.length).parallel().forEach(v -> replicate(values[v], result.values[v], k));
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(result.step, i * k, (i + 1) * k, step[i]);
+        }
+        replicate(timeStep, result.timeStep, k);
+        replicate(granularity, result.granularity, k);
+        replicate(timeReal, result.timeReal, k);
+        replicate(timeDelta, result.timeDelta, k);
+        return result;
+    }
+
+    private static void replicate(double[] source, double[] target, int k) {
+        for (int i = 0; i < source.length; i++) {
+            Arrays.fill(target, i * k, (i + 1) * k, source[i]);
+        }
+    }
+
+    /**
+     * Returns the number of bytes needed to store a block with the given number of variables and rows.
+     *
+     * @param variables number of variables.
+     * @param size number of rows.
+     * @return the number of bytes needed to store a block with <code>variables</code> variables and <code>size</code> rows.
+     */
+    public static long byteSize(int variables, int size) {
+        return (long) size * (Double.BYTES * (variables + 4L) + Integer.BYTES);
+    }
+
+    /**
+     * Writes the content of this block, without data ranges, in the given buffer.
+     * Values are written column by column, followed by steps and time variables.
+     *
+     * @param buffer a buffer with at least <code>byteSize(variables(), size())</code> remaining bytes.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        for (double[] column : values) {
+            write(buffer, column);
+        }
+        buffer.asIntBuffer().put(step);
+        buffer.position(buffer.position() + step.length * Integer.BYTES);
+        write(buffer, timeStep);
+        write(buffer, granularity);
+        write(buffer, timeReal);
+        write(buffer, timeDelta);
+    }
+
+    private static void write(ByteBuffer buffer, double[] data) {
+        buffer.asDoubleBuffer().put(data);
+        buffer.position(buffer.position() + data.length * Double.BYTES);
+    }
+
+    /**
+     * Reads a block, written with {@link #writeTo(ByteBuffer)}, from the given buffer.
+     *
+     * @param dataRanges data ranges of the block.
+     * @param size number of rows in the block.
+     * @param buffer buffer containing the block.
+     * @return the block read from <code>buffer</code>.
+     */
+    public static DataStateBlock readFrom(DataRange[] dataRanges, int size, ByteBuffer buffer) {
+        DataStateBlock block = new DataStateBlock(dataRanges, size);
+        for (double[] column : block.values) {
+            read(buffer, column);
+        }
+        buffer.asIntBuffer().get(block.step);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        read(buffer, block.timeStep);
+        read(buffer, block.granularity);
+        read(buffer, block.timeReal);
+        read(buffer, block.timeDelta);
+        return block;
+    }
+
+    private static void read(ByteBuffer buffer, double[] data) {
+        buffer.asDoubleBuffer().get(data);
+        buffer.position(buffer.position() + data.length * Double.BYTES);
+    }
+
+    /**
+     * Returns the evaluation of the given expression on each row of this block.
+     * Rows are evaluated in parallel, each task uses a single data state as a cursor over its rows.
+     *
+     * @param f an expression over data states.
+     * @return the array containing, in position <code>i</code>, the evaluation of <code>f</code> on row <code>i</code>.
+     */
+    public double[] eval(DataStateExpression f) {
+        int size = size();
+        double[] result = new double[size];
+        IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(c -> {
+            DataState cursor = new DataState(dataRanges, new double[dataRanges.length]);
+            for (int i = c * CHUNK_SIZE; i < Math.min(size, (c + 1) * CHUNK_SIZE); i++) {
+                cursor.load(this, i);
+                result[i] = f.eval(cursor);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the block obtained by applying the given random function to each row of this block.
+     * Rows are read through a single data state per task, used as a cursor, and the results are written
+     * directly in the new block, which shares the data ranges of this one.
+     *
+     * @param rg function associating each row with the random generator used to sample it.
+     * @param function random function applied to each row.
+     * @param parallel <code>true</code> if rows are processed in parallel.
+     * @return the block containing, in row <code>i</code>, the result of <code>function</code> on row <code>i</code>.
+     * @throws IllegalArgumentException if the results are not compatible with the data ranges of this block.
+     */
+    public DataStateBlock apply(IntFunction<RandomGenerator> rg, DataStateFunction function, boolean parallel) {
+        int size = size();
+        DataStateBlock result = new DataStateBlock(dataRanges, size);
+        IntStream chunks = IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        (parallel ? chunks.parallel() : chunks).forEach(c -> {
+            DataState cursor = new DataState(dataRanges, new double[dataRanges.length]);
+            for (int i = c * CHUNK_SIZE; i < Math.min(size, (c + 1) * CHUNK_SIZE); i++) {
+                cursor.load(this, i);
+                result.set(i, function.apply(rg.apply(i), cursor));
+            }
+        });
+        return result;
+    }
+
+}
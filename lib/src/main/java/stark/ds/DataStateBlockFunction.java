@@ -0,0 +1,68 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Instances of this interface are used to represent a random function that advances, in a single call,
+ * all the data states stored in a {@link DataStateBlock}. Implementations working directly on the columns
+ * of the block can process all the samples of a step with simple loops over primitive arrays.
+ */
+@FunctionalInterface
+public interface DataStateBlockFunction {
+
+    /**
+     * Returns the block obtained by applying this function to all the data states in the given block.
+     * The given block can be modified and returned as the result. The random generator used for the
+     * data state in row <code>i</code> is the one returned by <code>rg.apply(i)</code>.
+     *
+     * @param rg function associating each row with the random generator used to evaluate random expressions.
+     * @param block a block of data states.
+     * @return the block of the data states reached in one step from the ones in <code>block</code>.
+     */
+    DataStateBlock apply(IntFunction<RandomGenerator> rg, DataStateBlock block);
+
+    /**
+     * Returns the function on single data states that is equivalent to this one.
+     *
+     * @return the function on single data states that is equivalent to this one.
+     */
+    default DataStateFunction asDataStateFunction() {
+        return (rg, ds) -> apply(i -> rg, DataStateBlock.of(List.of(ds))).getDataState(0);
+    }
+
+    /**
+     * Returns the block function that applies the given function to each row of a block.
+     *
+     * @param function a function on data states.
+     * @return the block function that applies <code>function</code> to each row of a block.
+     */
+    static DataStateBlockFunction of(DataStateFunction function) {
+        return new RowDataStateBlockFunction(function);
+    }
+
+}
@@ -126,5 +126,27 @@ public interface DataStateRandomExpression {
         return (rg, ds) -> v;
     }
 
+    /**
+     * Returns a random expression that is sampled from <code>proposal</code>, weighted by the given likelihood
+     * ratio, when it is evaluated with a {@link LikelihoodRatioGenerator}, and that is sampled from
+     * <code>nominal</code> otherwise. Biasing the draws of rare events towards their occurrence lets weighted
+     * sample sets estimate their effects with far fewer samples.
+     *
+     * @param nominal the nominal random expression.
+     * @param proposal the biased random expression.
+     * @param ratio the ratio between the densities of <code>nominal</code> and <code>proposal</code>.
+     * @return the importance sampling of <code>nominal</code> through <code>proposal</code>.
+     */
+    static DataStateRandomExpression biased(DataStateRandomExpression nominal, DataStateRandomExpression proposal, LikelihoodRatio ratio) {
+        return (rg, ds) -> {
+            if (rg instanceof LikelihoodRatioGenerator weighted) {
+                double value = proposal.eval(rg, ds);
+                weighted.weigh(ratio.eval(ds, value));
+                return value;
+            }
+            return nominal.eval(rg, ds);
+        };
+    }
+
 
 }
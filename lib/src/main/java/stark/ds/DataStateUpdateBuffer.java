@@ -0,0 +1,229 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A buffer of updates of a data state, stored as pairs of primitive index and value.
+ * Updates are applied, in the order they are added, by {@link DataState#apply(DataStateUpdateBuffer)}.
+ * Each thread has a scratch buffer, returned by {@link #scratch()}, that can be reused
+ * to collect the updates of a step without allocating new objects.
+ */
+public final class DataStateUpdateBuffer {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private static final ThreadLocal<DataStateUpdateBuffer> SCRATCH = ThreadLocal.withInitial(DataStateUpdateBuffer::new);
+
+    private int[] indexes;
+    private double[] values;
+    private int size;
+
+    /**
+     * Creates an empty buffer.
+     */
+    public DataStateUpdateBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty buffer with the given initial capacity.
+     *
+     * @param capacity initial capacity of the buffer.
+     */
+    public DataStateUpdateBuffer(int capacity) {
+        this.indexes = new int[Math.max(1, capacity)];
+        this.values = new double[Math.max(1, capacity)];
+    }
+
+    /**
+     * Returns the empty scratch buffer of the current thread. The buffer is cleared at each invocation,
+     * hence it must not be retained after the updates it contains have been applied.
+     *
+     * @return the empty scratch buffer of the current thread.
+     */
+    public static DataStateUpdateBuffer scratch() {
+        DataStateUpdateBuffer buffer = SCRATCH.get();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Adds the update assigning the given value to the cell with the given index.
+     *
+     * @param index index of the cell.
+     * @param value value to assign.
+     * @return this buffer.
+     */
+    public DataStateUpdateBuffer add(int index, double value) {
+        ensureCapacity(size + 1);
+        indexes[size] = index;
+        values[size] = value;
+        size++;
+        return this;
+    }
+
+    /**
+     * Adds all the given updates to this buffer.
+     *
+     * @param updates a list of updates.
+     * @return this buffer.
+     */
+    public DataStateUpdateBuffer addAll(List<DataStateUpdate> updates) {
+        for (DataStateUpdate update : updates) {
+            add(update.getIndex(), update.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Inserts the given updates at the given position of this buffer, so that they are applied
+     * before the updates that follow that position.
+     *
+     * @param position position where updates are inserted.
+     * @param updates a list of updates.
+     * @return this buffer.
+     */
+    public DataStateUpdateBuffer insertAll(int position, List<DataStateUpdate> updates) {
+        int end = size;
+        addAll(updates);
+        moveTail(position, end);
+        return this;
+    }
+
+    /**
+     * Adds all the updates of the given buffer to this buffer.
+     *
+     * @param other another buffer.
+     * @return this buffer.
+     */
+    public DataStateUpdateBuffer addAll(DataStateUpdateBuffer other) {
+        int count = other.size;
+        ensureCapacity(size + count);
+        System.arraycopy(other.indexes, 0, indexes, size, count);
+        System.arraycopy(other.values, 0, values, size, count);
+        size += count;
+        return this;
+    }
+
+    /**
+     * Inserts the updates of the given buffer at the given position of this buffer, so that they are applied
+     * before the updates that follow that position.
+     *
+     * @param position position where updates are inserted.
+     * @param other another buffer.
+     * @return this buffer.
+     */
+    public DataStateUpdateBuffer insertAll(int position, DataStateUpdateBuffer other) {
+        int end = size;
+        addAll(other);
+        moveTail(position, end);
+        return this;
+    }
+
+    /**
+     * Moves the updates in <code>[end, size)</code>, that have just been appended, at <code>position</code>.
+     */
+    private void moveTail(int position, int end) {
+        int count = size - end;
+        int tail = end - position;
+        if ((count == 0)||(tail == 0)) {
+            return;
+        }
+        int[] insertedIndexes = Arrays.copyOfRange(indexes, end, size);
+        double[] insertedValues = Arrays.copyOfRange(values, end, size);
+        System.arraycopy(indexes, position, indexes, position + count, tail);
+        System.arraycopy(values, position, values, position + count, tail);
+        System.arraycopy(insertedIndexes, 0, indexes, position, count);
+        System.arraycopy(insertedValues, 0, values, position, count);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > indexes.length) {
+            int newCapacity = Math.max(capacity, indexes.length * 2);
+            indexes = Arrays.copyOf(indexes, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    /**
+     * Returns the list of the updates in this buffer.
+     *
+     * @return the list of the updates in this buffer.
+     */
+    public List<DataStateUpdate> toList() {
+        DataStateUpdate[] result = new DataStateUpdate[size];
+        for (int k = 0; k < size; k++) {
+            result[k] = new DataStateUpdate(indexes[k], values[k]);
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Returns the number of updates in this buffer.
+     *
+     * @return the number of updates in this buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this buffer contains no update.
+     *
+     * @return true if this buffer contains no update.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the index of the cell modified by the <code>k</code>-th update.
+     *
+     * @param k position of the update.
+     * @return the index of the cell modified by the <code>k</code>-th update.
+     */
+    public int getIndex(int k) {
+        return indexes[k];
+    }
+
+    /**
+     * Returns the value assigned by the <code>k</code>-th update.
+     *
+     * @param k position of the update.
+     * @return the value assigned by the <code>k</code>-th update.
+     */
+    public double getValue(int k) {
+        return values[k];
+    }
+
+    /**
+     * Removes all the updates from this buffer.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+}
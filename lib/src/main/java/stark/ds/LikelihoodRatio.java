@@ -0,0 +1,43 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+
+/**
+ * This functional interface is used to model the likelihood ratio between the nominal distribution of a random
+ * value and the biased one it is actually sampled from (see {@link DataStateRandomExpression#biased}).
+ */
+@FunctionalInterface
+public interface LikelihoodRatio {
+
+    /**
+     * Returns the ratio between the nominal density and the biased density of the given value,
+     * sampled in the given data state.
+     *
+     * @param state the data state where the value is sampled.
+     * @param value a sampled value.
+     * @return the likelihood ratio of <code>value</code> in <code>state</code>.
+     */
+    double eval(DataState state, double value);
+
+}
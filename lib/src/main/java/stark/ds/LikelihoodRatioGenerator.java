@@ -0,0 +1,150 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * A random generator that accumulates the likelihood ratio of the biased draws performed with it.
+ * All the random values are obtained from the wrapped generator, hence a model sampled with this generator
+ * behaves as when it is sampled with the wrapped one, unless it performs biased draws. These draws,
+ * performed by {@link DataStateRandomExpression#biased} or by means of {@link #weigh(RandomGenerator, double)},
+ * sample from a biased distribution and multiply the ratio of this generator by the likelihood ratio of
+ * the sampled value. The ratio is used as the weight of the sample in a weighted sample set.
+ */
+public final class LikelihoodRatioGenerator implements RandomGenerator {
+
+    private final RandomGenerator rg;
+    private double ratio = 1.0;
+
+    /**
+     * Creates a generator with likelihood ratio <code>1</code> that draws its values from the given one.
+     *
+     * @param rg the wrapped random generator.
+     */
+    public LikelihoodRatioGenerator(RandomGenerator rg) {
+        this.rg = rg;
+    }
+
+    /**
+     * Returns true if the given generator accumulates likelihood ratios, namely if biased draws must be
+     * performed with it.
+     *
+     * @param rg a random generator.
+     * @return true if <code>rg</code> is a likelihood ratio generator.
+     */
+    public static boolean isWeighted(RandomGenerator rg) {
+        return rg instanceof LikelihoodRatioGenerator;
+    }
+
+    /**
+     * Multiplies the ratio of the given generator by the given likelihood ratio, if the generator
+     * accumulates likelihood ratios.
+     *
+     * @param rg a random generator.
+     * @param ratio the likelihood ratio of a biased draw.
+     */
+    public static void weigh(RandomGenerator rg, double ratio) {
+        if (rg instanceof LikelihoodRatioGenerator weighted) {
+            weighted.weigh(ratio);
+        }
+    }
+
+    /**
+     * Multiplies the ratio of this generator by the given likelihood ratio.
+     *
+     * @param ratio the likelihood ratio of a biased draw.
+     * @throws IllegalArgumentException if <code>ratio</code> is negative.
+     */
+    public void weigh(double ratio) {
+        if (!(ratio >= 0)) {
+            throw new IllegalArgumentException("Likelihood ratios must be non negative!");
+        }
+        this.ratio *= ratio;
+    }
+
+    /**
+     * Returns the product of the likelihood ratios of the biased draws performed with this generator.
+     *
+     * @return the likelihood ratio accumulated by this generator.
+     */
+    public double getLikelihoodRatio() {
+        return ratio;
+    }
+
+    @Override
+    public void setSeed(int seed) {
+        rg.setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(int[] seed) {
+        rg.setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        rg.setSeed(seed);
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        rg.nextBytes(bytes);
+    }
+
+    @Override
+    public int nextInt() {
+        return rg.nextInt();
+    }
+
+    @Override
+    public int nextInt(int n) {
+        return rg.nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return rg.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return rg.nextBoolean();
+    }
+
+    @Override
+    public float nextFloat() {
+        return rg.nextFloat();
+    }
+
+    @Override
+    public double nextDouble() {
+        return rg.nextDouble();
+    }
+
+    @Override
+    public double nextGaussian() {
+        return rg.nextGaussian();
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Block function that applies a function on data states to each row of a block.
+ * Rows are processed in parallel, each task loads its rows from the block and stores the results back.
+ */
+record RowDataStateBlockFunction(DataStateFunction function) implements DataStateBlockFunction {
+
+    @Override
+    public DataStateBlock apply(IntFunction<RandomGenerator> rg, DataStateBlock block) {
+        IntStream.range(0, block.size()).parallel().forEach(i -> block.set(i, function.apply(rg.apply(i), block.getDataState(i))));
+        return block;
+    }
+
+    @Override
+    public DataStateFunction asDataStateFunction() {
+        return function;
+    }
+
+}
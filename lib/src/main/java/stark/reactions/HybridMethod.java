@@ -0,0 +1,113 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+
+/**
+ * A hybrid method where fast reactions, namely the ones modifying only species with at least <code>1/epsilon</code>
+ * molecules, are approximated by their deterministic rate equations, integrated with the Euler method, while the
+ * other reactions are simulated exactly. A slow reaction fires when the integral of the total propensity of slow
+ * reactions reaches an exponentially distributed threshold. Each integration step is short enough for the values of
+ * fast species to change by a fraction <code>epsilon</code> at most, and reactions are classified again after each step.
+ * Species modified by fast reactions take real values.
+ */
+final class HybridMethod implements SimulationAlgorithm {
+
+    private final double epsilon;
+
+    HybridMethod(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public void advance(ReactionNetwork network, RandomGenerator rg, DataState state, double from, double to) {
+        ReactionIndex index = new ReactionIndex(network);
+        int n = network.size();
+        double threshold = 1 / epsilon;
+        double[] propensities = new double[n];
+        boolean[] fast = new boolean[n];
+        double[] x = new double[index.size()];
+        double[] rates = new double[index.size()];
+        double t = from;
+        double integral = 0.0;
+        double target = SimulationAlgorithm.waitingTime(rg, 1.0);
+        while (t < to) {
+            index.propensities(state, propensities);
+            index.values(state, x);
+            Arrays.fill(rates, 0.0);
+            double slowTotal = 0.0;
+            for (int j = 0; j < n; j++) {
+                fast[j] = isFast(index, j, x, threshold);
+                if (fast[j]) {
+                    index.add(j, propensities[j], rates);
+                    propensities[j] = 0.0;
+                } else {
+                    slowTotal += propensities[j];
+                }
+            }
+            double h = to - t;
+            for (int p = 0; p < x.length; p++) {
+                if (rates[p] != 0) {
+                    h = Math.min(h, epsilon * Math.max(x[p], 1.0) / Math.abs(rates[p]));
+                }
+            }
+            boolean fire = false;
+            if ((slowTotal > 0)&&(integral + slowTotal * h >= target)) {
+                h = (target - integral) / slowTotal;
+                fire = true;
+            }
+            for (int p = 0; p < x.length; p++) {
+                rates[p] *= h;
+            }
+            index.apply(state, x, rates);
+            integral += slowTotal * h;
+            t = (h == to - t ? to : t + h);
+            if (fire) {
+                network.get(index.select(propensities, rg.nextDouble() * slowTotal)).fire(state);
+                integral = 0.0;
+                target = SimulationAlgorithm.waitingTime(rg, 1.0);
+            }
+        }
+    }
+
+    /**
+     * Returns true if reaction <code>j</code> only modifies species with at least <code>threshold</code> molecules.
+     */
+    private static boolean isFast(ReactionIndex index, int j, double[] x, double threshold) {
+        int[] positions = index.positions(j);
+        if (positions.length == 0) {
+            return false;
+        }
+        for (int p : positions) {
+            if (x[p] < threshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
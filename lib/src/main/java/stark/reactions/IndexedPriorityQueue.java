@@ -0,0 +1,118 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the putative times of the reactions of a network, indexed by reaction, so that
+ * the time of any reaction can be updated in logarithmic time. This is the indexed priority queue
+ * of the next reaction method of Gibson and Bruck.
+ */
+final class IndexedPriorityQueue {
+
+    private final double[] keys;
+    private final int[] heap;
+    private final int[] positions;
+
+    /**
+     * Creates a queue containing the reactions <code>0,...,size-1</code>, all with time <code>+infinity</code>.
+     */
+    IndexedPriorityQueue(int size) {
+        this.keys = new double[size];
+        this.heap = new int[size];
+        this.positions = new int[size];
+        Arrays.fill(keys, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < size; j++) {
+            heap[j] = j;
+            positions[j] = j;
+        }
+    }
+
+    /**
+     * Returns the reaction with the smallest time.
+     */
+    int min() {
+        return heap[0];
+    }
+
+    /**
+     * Returns the time of the given reaction.
+     */
+    double get(int j) {
+        return keys[j];
+    }
+
+    /**
+     * Sets the time of the given reaction.
+     */
+    void set(int j, double key) {
+        double old = keys[j];
+        keys[j] = key;
+        if (key < old) {
+            up(positions[j]);
+        } else if (key > old) {
+            down(positions[j]);
+        }
+    }
+
+    private void up(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (keys[heap[parent]] <= keys[heap[position]]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void down(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if ((left < heap.length)&&(keys[heap[left]] < keys[heap[smallest]])) {
+                smallest = left;
+            }
+            if ((right < heap.length)&&(keys[heap[right]] < keys[heap[smallest]])) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int p1, int p2) {
+        int j1 = heap[p1];
+        int j2 = heap[p2];
+        heap[p1] = j2;
+        heap[p2] = j1;
+        positions[j2] = p1;
+        positions[j1] = p2;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * The next reaction method of Gibson and Bruck.
+ */
+final class NextReactionMethod implements SimulationAlgorithm {
+
+    @Override
+    public void advance(ReactionNetwork network, RandomGenerator rg, DataState state, double from, double to) {
+        int n = network.size();
+        double[] propensities = new double[n];
+        IndexedPriorityQueue queue = new IndexedPriorityQueue(n);
+        for (int j = 0; j < n; j++) {
+            propensities[j] = network.get(j).propensity(state);
+            queue.set(j, from + SimulationAlgorithm.waitingTime(rg, propensities[j]));
+        }
+        while (true) {
+            int mu = queue.min();
+            double t = queue.get(mu);
+            if (t >= to) {
+                return;
+            }
+            network.get(mu).fire(state);
+            boolean updated = false;
+            for (int alpha : network.dependents(mu)) {
+                double old = propensities[alpha];
+                double current = network.get(alpha).propensity(state);
+                propensities[alpha] = current;
+                if (alpha == mu) {
+                    updated = true;
+                    queue.set(mu, t + SimulationAlgorithm.waitingTime(rg, current));
+                } else if ((old > 0)&&(current > 0)) {
+                    queue.set(alpha, t + (old / current) * (queue.get(alpha) - t));
+                } else if (current > 0) {
+                    queue.set(alpha, t + SimulationAlgorithm.waitingTime(rg, current));
+                } else {
+                    queue.set(alpha, Double.POSITIVE_INFINITY);
+                }
+            }
+            if (!updated) {
+                queue.set(mu, t + SimulationAlgorithm.waitingTime(rg, propensities[mu]));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * The direct method of Gillespie where propensities, and their sum, are updated through the dependency graph,
+ * and the search order of reactions is adapted while simulating: each time a reaction fires it is swapped with
+ * the one preceding it, so that the reactions that fire most often are found first.
+ */
+final class OptimizedDirectMethod implements SimulationAlgorithm {
+
+    /**
+     * Number of firings after which the sum of propensities is recomputed, to avoid accumulating rounding errors.
+     */
+    private static final int RESUM_INTERVAL = 4096;
+
+    @Override
+    public void advance(ReactionNetwork network, RandomGenerator rg, DataState state, double from, double to) {
+        int n = network.size();
+        double[] propensities = new double[n];
+        int[] order = new int[n];
+        for (int j = 0; j < n; j++) {
+            propensities[j] = network.get(j).propensity(state);
+            order[j] = j;
+        }
+        double total = sum(propensities);
+        double t = from;
+        int firings = 0;
+        while (total > 0) {
+            t += SimulationAlgorithm.waitingTime(rg, total);
+            if (t >= to) {
+                return;
+            }
+            int position = select(propensities, order, rg.nextDouble() * total);
+            if (position < 0) {
+                total = sum(propensities);
+                continue;
+            }
+            int mu = order[position];
+            network.get(mu).fire(state);
+            for (int alpha : network.dependents(mu)) {
+                double current = network.get(alpha).propensity(state);
+                total += current - propensities[alpha];
+                propensities[alpha] = current;
+            }
+            if (position > 0) {
+                int previous = order[position - 1];
+                order[position - 1] = mu;
+                order[position] = previous;
+            }
+            if (++firings % RESUM_INTERVAL == 0) {
+                total = sum(propensities);
+            }
+        }
+    }
+
+    /**
+     * Returns the position, in <code>order</code>, of the first reaction at which the cumulative sum of propensities
+     * exceeds <code>r</code>. When rounding errors make <code>r</code> exceed the sum of all the propensities, the last
+     * reaction with a positive propensity is selected, or <code>-1</code> is returned if all the propensities are <code>0</code>.
+     */
+    private static int select(double[] propensities, int[] order, double r) {
+        double sum = 0.0;
+        int last = -1;
+        for (int k = 0; k < order.length; k++) {
+            double a = propensities[order[k]];
+            if (a > 0) {
+                sum += a;
+                last = k;
+                if (r < sum) {
+                    return k;
+                }
+            }
+        }
+        return last;
+    }
+
+    private static double sum(double[] propensities) {
+        double result = 0.0;
+        for (double a : propensities) {
+            result += a;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Samples Poisson distributed values without allocating objects. Small means are sampled by multiplying
+ * uniform values, large ones with the transformed rejection method of H&ouml;rmann (PTRS).
+ */
+final class PoissonSampler {
+
+    private static final double SMALL_MEAN = 10.0;
+
+    private static final double[] LOG_FACTORIALS = new double[32];
+
+    static {
+        for (int k = 1; k < LOG_FACTORIALS.length; k++) {
+            LOG_FACTORIALS[k] = LOG_FACTORIALS[k - 1] + Math.log(k);
+        }
+    }
+
+    private PoissonSampler() {
+    }
+
+    /**
+     * Returns a value sampled from the Poisson distribution with the given mean.
+     *
+     * @param rg random generator.
+     * @param mean mean of the distribution.
+     * @return a value sampled from the Poisson distribution with mean <code>mean</code>.
+     */
+    static long sample(RandomGenerator rg, double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean < SMALL_MEAN) {
+            double limit = Math.exp(-mean);
+            double product = rg.nextDouble();
+            long k = 0;
+            while (product > limit) {
+                product *= rg.nextDouble();
+                k++;
+            }
+            return k;
+        }
+        double slam = Math.sqrt(mean);
+        double loglam = Math.log(mean);
+        double b = 0.931 + 2.53 * slam;
+        double a = -0.059 + 0.02483 * b;
+        double invalpha = 1.1239 + 1.1328 / (b - 3.4);
+        double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            double u = rg.nextDouble() - 0.5;
+            double v = rg.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+            if ((us >= 0.07)&&(v <= vr)) {
+                return k;
+            }
+            if ((k < 0)||((us < 0.013)&&(v > us))) {
+                continue;
+            }
+            if (Math.log(v) + Math.log(invalpha) - Math.log(a / (us * us) + b) <= -mean + k * loglam - logFactorial(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Returns <code>log(k!)</code>, computed with Stirling's series for large values of <code>k</code>.
+     */
+    static double logFactorial(long k) {
+        if (k < LOG_FACTORIALS.length) {
+            return LOG_FACTORIALS[(int) k];
+        }
+        double n = k + 1.0;
+        return (n - 0.5) * Math.log(n) - n + 0.5 * Math.log(2 * Math.PI) + 1.0 / (12 * n) - 1.0 / (360 * n * n * n);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+
+import java.util.Arrays;
+
+/**
+ * The propensity function of a reaction, namely the rate at which the reaction fires in a given data state.
+ * Propensities are evaluated on the data state that is modified in place during the simulation,
+ * hence they must only read it.
+ */
+@FunctionalInterface
+public interface Propensity {
+
+    /**
+     * Returns the propensity of the reaction in the given data state.
+     *
+     * @param state a data state.
+     * @return the propensity of the reaction in <code>state</code>.
+     */
+    double eval(DataState state);
+
+    /**
+     * Returns the mass-action propensity with the given rate constant and reactants. A species occurring
+     * <code>k</code> times among the reactants contributes with the number of <code>k</code>-combinations
+     * of its molecules.
+     *
+     * @param rate rate constant.
+     * @param reactants indexes of the reactants, with repetitions.
+     * @return the mass-action propensity with rate constant <code>rate</code>.
+     */
+    static Propensity massAction(double rate, int... reactants) {
+        int[] sorted = sorted(reactants);
+        return state -> rate * combinations(state, sorted);
+    }
+
+    /**
+     * Returns the mass-action propensity whose rate constant is stored in the given cell of the data state,
+     * so that it can be modified by controllers and perturbations.
+     *
+     * @param rateVariable index of the cell containing the rate constant.
+     * @param reactants indexes of the reactants, with repetitions.
+     * @return the mass-action propensity with rate constant stored in cell <code>rateVariable</code>.
+     */
+    static Propensity massActionAt(int rateVariable, int... reactants) {
+        int[] sorted = sorted(reactants);
+        return state -> state.get(rateVariable) * combinations(state, sorted);
+    }
+
+    private static int[] sorted(int[] reactants) {
+        int[] result = reactants.clone();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct combinations of the given reactants in the given state,
+     * where <code>reactants</code> is sorted.
+     */
+    private static double combinations(DataState state, int[] reactants) {
+        double result = 1.0;
+        int multiplicity = 0;
+        for (int k = 0; k < reactants.length; k++) {
+            multiplicity = ((k > 0)&&(reactants[k] == reactants[k-1]) ? multiplicity + 1 : 0);
+            result *= Math.max(0, state.get(reactants[k]) - multiplicity) / (multiplicity + 1);
+        }
+        return result;
+    }
+
+}
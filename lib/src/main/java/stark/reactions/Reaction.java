@@ -0,0 +1,187 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * A reaction of a reaction network. A reaction is described by its stoichiometry, namely the species it consumes
+ * and produces, and by its propensity. The indexes of the cells read by the propensity must be declared, since they are
+ * used to compute the dependency graph of the network.
+ */
+public final class Reaction {
+
+    private final String name;
+    private final int[] reactants;
+    private final int[] species;
+    private final double[] changes;
+    private final Propensity propensity;
+    private final int[] dependencies;
+
+    /**
+     * Creates a reaction consuming the given reactants and producing the given products.
+     *
+     * @param name name of the reaction.
+     * @param reactants indexes of the consumed species, with repetitions.
+     * @param products indexes of the produced species, with repetitions.
+     * @param propensity propensity of the reaction.
+     * @param dependencies indexes of the cells read by <code>propensity</code>.
+     */
+    public Reaction(String name, int[] reactants, int[] products, Propensity propensity, int... dependencies) {
+        TreeMap<Integer, Double> stoichiometry = new TreeMap<>();
+        for (int i : reactants) {
+            stoichiometry.merge(i, -1.0, Double::sum);
+        }
+        for (int i : products) {
+            stoichiometry.merge(i, 1.0, Double::sum);
+        }
+        stoichiometry.values().removeIf(v -> v == 0.0);
+        this.name = name;
+        this.reactants = IntStream.of(reactants).sorted().toArray();
+        this.species = stoichiometry.keySet().stream().mapToInt(Integer::intValue).toArray();
+        this.changes = stoichiometry.values().stream().mapToDouble(Double::doubleValue).toArray();
+        this.propensity = propensity;
+        this.dependencies = IntStream.of(dependencies).distinct().sorted().toArray();
+    }
+
+    /**
+     * Returns the reaction with mass-action propensity and the given rate constant.
+     *
+     * @param name name of the reaction.
+     * @param rate rate constant.
+     * @param reactants indexes of the consumed species, with repetitions.
+     * @param products indexes of the produced species, with repetitions.
+     * @return the reaction with mass-action propensity and rate constant <code>rate</code>.
+     */
+    public static Reaction massAction(String name, double rate, int[] reactants, int[] products) {
+        return new Reaction(name, reactants, products, Propensity.massAction(rate, reactants), reactants);
+    }
+
+    /**
+     * Returns the reaction with mass-action propensity, whose rate constant is stored in the given cell.
+     *
+     * @param name name of the reaction.
+     * @param rateVariable index of the cell containing the rate constant.
+     * @param reactants indexes of the consumed species, with repetitions.
+     * @param products indexes of the produced species, with repetitions.
+     * @return the reaction with mass-action propensity and rate constant stored in cell <code>rateVariable</code>.
+     */
+    public static Reaction massActionAt(String name, int rateVariable, int[] reactants, int[] products) {
+        int[] dependencies = Arrays.copyOf(reactants, reactants.length + 1);
+        dependencies[reactants.length] = rateVariable;
+        return new Reaction(name, reactants, products, Propensity.massActionAt(rateVariable, reactants), dependencies);
+    }
+
+    /**
+     * Returns the name of this reaction.
+     *
+     * @return the name of this reaction.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the indexes of the species consumed by this reaction, with repetitions and in increasing order.
+     *
+     * @return the indexes of the species consumed by this reaction.
+     */
+    public int[] getReactants() {
+        return reactants.clone();
+    }
+
+    /**
+     * Returns the indexes of the cells modified by this reaction, in increasing order.
+     *
+     * @return the indexes of the cells modified by this reaction.
+     */
+    public int[] getSpecies() {
+        return species.clone();
+    }
+
+    /**
+     * Returns the indexes of the cells read by the propensity of this reaction, in increasing order.
+     *
+     * @return the indexes of the cells read by the propensity of this reaction.
+     */
+    public int[] getDependencies() {
+        return dependencies.clone();
+    }
+
+    /**
+     * Returns the propensity of this reaction in the given data state. Negative values are considered as <code>0</code>.
+     *
+     * @param state a data state.
+     * @return the propensity of this reaction in <code>state</code>.
+     */
+    public double propensity(DataState state) {
+        return Math.max(0.0, propensity.eval(state));
+    }
+
+    /**
+     * Fires this reaction once, by modifying the given data state in place.
+     *
+     * @param state a data state.
+     */
+    public void fire(DataState state) {
+        fire(state, 1);
+    }
+
+    /**
+     * Fires this reaction the given number of times, by modifying the given data state in place.
+     *
+     * @param state a data state.
+     * @param times number of firings.
+     */
+    public void fire(DataState state, double times) {
+        for (int k = 0; k < species.length; k++) {
+            state.set(species[k], state.get(species[k]) + times * changes[k]);
+        }
+    }
+
+    int[] reactants() {
+        return reactants;
+    }
+
+    int[] species() {
+        return species;
+    }
+
+    double[] changes() {
+        return changes;
+    }
+
+    int[] dependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indexes the species of a reaction network with consecutive positions, and stores the stoichiometry of each
+ * reaction and the orders of the reactions consuming each species with respect to these positions.
+ * This is used by approximate methods, that handle the values of all the species at once.
+ */
+final class ReactionIndex {
+
+    private final ReactionNetwork network;
+    private final int[] species;
+    private final int[][] positions;
+    private final double[][] changes;
+    private final int[][] orders;
+    private final int[][] multiplicities;
+
+    ReactionIndex(ReactionNetwork network) {
+        this.network = network;
+        this.species = network.species();
+        int cells = (species.length == 0 ? 0 : species[species.length - 1] + 1);
+        int[] position = new int[cells];
+        for (int p = 0; p < species.length; p++) {
+            position[species[p]] = p;
+        }
+        int n = network.size();
+        this.positions = new int[n][];
+        this.changes = new double[n][];
+        List<List<int[]>> consumers = new ArrayList<>(species.length);
+        for (int p = 0; p < species.length; p++) {
+            consumers.add(new ArrayList<>());
+        }
+        for (int j = 0; j < n; j++) {
+            Reaction reaction = network.get(j);
+            int[] modified = reaction.species();
+            this.positions[j] = new int[modified.length];
+            for (int k = 0; k < modified.length; k++) {
+                this.positions[j][k] = position[modified[k]];
+            }
+            this.changes[j] = reaction.changes();
+            int[] reactants = reaction.reactants();
+            for (int k = 0; k < reactants.length; k++) {
+                if (((k == 0)||(reactants[k] != reactants[k-1]))&&(reactants[k] < cells)&&(species[position[reactants[k]]] == reactants[k])) {
+                    int multiplicity = 1;
+                    while ((k + multiplicity < reactants.length)&&(reactants[k + multiplicity] == reactants[k])) {
+                        multiplicity++;
+                    }
+                    consumers.get(position[reactants[k]]).add(new int[]{ reactants.length, multiplicity });
+                }
+            }
+        }
+        this.orders = new int[species.length][];
+        this.multiplicities = new int[species.length][];
+        for (int p = 0; p < species.length; p++) {
+            List<int[]> list = consumers.get(p);
+            this.orders[p] = list.stream().mapToInt(e -> e[0]).toArray();
+            this.multiplicities[p] = list.stream().mapToInt(e -> e[1]).toArray();
+        }
+    }
+
+    /**
+     * Returns the number of species.
+     */
+    int size() {
+        return species.length;
+    }
+
+    /**
+     * Returns the positions of the species modified by reaction <code>j</code>.
+     */
+    int[] positions(int j) {
+        return positions[j];
+    }
+
+    /**
+     * Returns the changes of the species modified by reaction <code>j</code>.
+     */
+    double[] changes(int j) {
+        return changes[j];
+    }
+
+    /**
+     * Stores the propensities of the reactions in the given state in <code>propensities</code>, and returns their sum.
+     */
+    double propensities(DataState state, double[] propensities) {
+        double total = 0.0;
+        for (int j = 0; j < propensities.length; j++) {
+            propensities[j] = network.get(j).propensity(state);
+            total += propensities[j];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the first reaction at which the cumulative sum of propensities exceeds <code>r</code>,
+     * or the last one with a positive propensity when rounding errors make <code>r</code> exceed their sum.
+     */
+    int select(double[] propensities, double r) {
+        double sum = 0.0;
+        int last = -1;
+        for (int j = 0; j < propensities.length; j++) {
+            if (propensities[j] > 0) {
+                sum += propensities[j];
+                last = j;
+                if (r < sum) {
+                    return j;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Stores the values of the species in the given state in <code>x</code>.
+     */
+    void values(DataState state, double[] x) {
+        for (int p = 0; p < species.length; p++) {
+            x[p] = state.get(species[p]);
+        }
+    }
+
+    /**
+     * Returns the number of times reaction <code>j</code> can fire before exhausting one of the species it consumes.
+     */
+    double maxFirings(int j, double[] x) {
+        double result = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < positions[j].length; k++) {
+            if (changes[j][k] < 0) {
+                result = Math.min(result, Math.floor(x[positions[j][k]] / -changes[j][k]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the species in position <code>p</code> is consumed by some reaction.
+     */
+    boolean isReactant(int p) {
+        return orders[p].length > 0;
+    }
+
+    /**
+     * Returns the factor <code>g</code> of Cao, Gillespie and Petzold for the species in position <code>p</code>,
+     * namely the highest order of the reactions consuming it, corrected for reactions consuming more than one molecule.
+     */
+    double highestOrder(int p, double x) {
+        double result = 1.0;
+        for (int k = 0; k < orders[p].length; k++) {
+            result = Math.max(result, order(orders[p][k], multiplicities[p][k], x));
+        }
+        return result;
+    }
+
+    private static double order(int order, int multiplicity, double x) {
+        if ((multiplicity == 1)||(x < multiplicity)) {
+            return order;
+        }
+        if ((order == 2)&&(multiplicity == 2)) {
+            return 2 + 1 / (x - 1);
+        }
+        if ((order == 3)&&(multiplicity == 2)) {
+            return 1.5 * (2 + 1 / (x - 1));
+        }
+        if ((order == 3)&&(multiplicity == 3)) {
+            return 3 + 1 / (x - 1) + 2 / (x - 2);
+        }
+        return order;
+    }
+
+    /**
+     * Adds to <code>delta</code> the changes due to <code>times</code> firings of reaction <code>j</code>.
+     */
+    void add(int j, double times, double[] delta) {
+        for (int k = 0; k < positions[j].length; k++) {
+            delta[positions[j][k]] += times * changes[j][k];
+        }
+    }
+
+    /**
+     * Returns true if no species becomes negative when <code>delta</code> is added to <code>x</code>.
+     */
+    boolean isNonNegative(double[] x, double[] delta) {
+        for (int p = 0; p < x.length; p++) {
+            if (x[p] + delta[p] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores in the given state the values obtained by adding <code>delta</code> to <code>x</code>.
+     */
+    void apply(DataState state, double[] x, double[] delta) {
+        for (int p = 0; p < x.length; p++) {
+            if (delta[p] != 0) {
+                state.set(species[p], x[p] + delta[p]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A network of reactions together with its dependency graph. The graph associates each reaction with the reactions
+ * whose propensity reads a cell modified by it, namely the ones whose propensity must be recomputed after it fires.
+ */
+public final class ReactionNetwork {
+
+    private final Reaction[] reactions;
+    private final int[][] dependents;
+    private final int[] species;
+
+    /**
+     * Creates the network of the given reactions.
+     *
+     * @param reactions reactions of the network.
+     * @throws IllegalArgumentException if the network has no reaction.
+     */
+    public ReactionNetwork(List<Reaction> reactions) {
+        if (reactions.isEmpty()) {
+            throw new IllegalArgumentException("A reaction network must contain at least one reaction");
+        }
+        this.reactions = reactions.toArray(new Reaction[0]);
+        this.dependents = new int[this.reactions.length][];
+        int cells = 0;
+        for (Reaction reaction : this.reactions) {
+            for (int i : reaction.species()) {
+                cells = Math.max(cells, i + 1);
+            }
+            for (int i : reaction.dependencies()) {
+                cells = Math.max(cells, i + 1);
+            }
+        }
+        List<List<Integer>> readers = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            readers.add(new ArrayList<>());
+        }
+        for (int j = 0; j < this.reactions.length; j++) {
+            for (int i : this.reactions[j].dependencies()) {
+                readers.get(i).add(j);
+            }
+        }
+        TreeSet<Integer> modified = new TreeSet<>();
+        for (int j = 0; j < this.reactions.length; j++) {
+            for (int i : this.reactions[j].species()) {
+                modified.add(i);
+            }
+            TreeSet<Integer> affected = new TreeSet<>();
+            for (int i : this.reactions[j].species()) {
+                affected.addAll(readers.get(i));
+            }
+            this.dependents[j] = affected.stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.species = modified.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Creates the network of the given reactions.
+     *
+     * @param reactions reactions of the network.
+     */
+    public ReactionNetwork(Reaction... reactions) {
+        this(List.of(reactions));
+    }
+
+    /**
+     * Returns the number of reactions in this network.
+     *
+     * @return the number of reactions in this network.
+     */
+    public int size() {
+        return reactions.length;
+    }
+
+    /**
+     * Returns the reaction with the given index.
+     *
+     * @param j index of a reaction.
+     * @return the reaction with index <code>j</code>.
+     */
+    public Reaction get(int j) {
+        return reactions[j];
+    }
+
+    /**
+     * Returns the indexes, in increasing order, of the reactions whose propensity depends on a cell
+     * modified by the reaction with the given index.
+     *
+     * @param j index of a reaction.
+     * @return the indexes of the reactions whose propensity must be updated after reaction <code>j</code> fires.
+     */
+    public int[] getDependents(int j) {
+        return dependents[j].clone();
+    }
+
+    int[] dependents(int j) {
+        return dependents[j];
+    }
+
+    /**
+     * Returns the indexes, in increasing order, of the cells modified by the reactions of this network.
+     */
+    int[] species() {
+        return species;
+    }
+
+}
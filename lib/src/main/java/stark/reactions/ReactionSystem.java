@@ -0,0 +1,136 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.SystemState;
+import stark.controller.Controller;
+import stark.controller.NilController;
+import stark.ds.DataState;
+import stark.ds.DataStateBooleanExpression;
+import stark.ds.DataStateUpdateBuffer;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * A system whose environment is a reaction network. At each step the controller acts on the data state, then
+ * the reactions of the network are simulated for <code>granularity</code> time units with a given algorithm.
+ * During the simulation the reactions modify a single copy of the data state in place, hence a step only allocates
+ * the data state and the system it returns, whatever the number of reactions firing in it.
+ */
+public class ReactionSystem implements SystemState {
+
+    private final Controller controller;
+    private final ReactionNetwork network;
+    private final SimulationAlgorithm algorithm;
+    private final DataState state;
+
+    /**
+     * Creates a system where the given network is simulated with the given algorithm, without any controller.
+     *
+     * @param network reaction network.
+     * @param algorithm simulation algorithm.
+     * @param state current data state.
+     */
+    public ReactionSystem(ReactionNetwork network, SimulationAlgorithm algorithm, DataState state) {
+        this(new NilController(), network, algorithm, state);
+    }
+
+    /**
+     * Creates a system with the given controller, where the given network is simulated with the given algorithm.
+     *
+     * @param controller process modelling the agent.
+     * @param network reaction network.
+     * @param algorithm simulation algorithm.
+     * @param state current data state.
+     */
+    public ReactionSystem(Controller controller, ReactionNetwork network, SimulationAlgorithm algorithm, DataState state) {
+        this.controller = controller;
+        this.network = network;
+        this.algorithm = algorithm;
+        this.state = state;
+    }
+
+    @Override
+    public DataState getDataState() {
+        return state;
+    }
+
+    /**
+     * Returns the reaction network of this system.
+     *
+     * @return the reaction network of this system.
+     */
+    public ReactionNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the algorithm used to simulate the reaction network of this system.
+     *
+     * @return the algorithm used to simulate the reaction network of this system.
+     */
+    public SimulationAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public SystemState sampleNext(RandomGenerator rg) {
+        DataStateUpdateBuffer updates = DataStateUpdateBuffer.scratch();
+        Controller next = controller.next(rg, state, updates);
+        DataState newState = (updates.isEmpty() ? state.copy() : state.apply(updates));
+        double from = state.getTimeStep();
+        double to = from + state.getGranularity();
+        algorithm.advance(network, rg, newState, from, to);
+        newState.setTimeStep(to);
+        newState.setTimeReal(to);
+        newState.setTimeDelta(state.getGranularity());
+        newState.setStep(state.getStep() + 1);
+        return new ReactionSystem(next, network, algorithm, newState);
+    }
+
+    @Override
+    public SystemState sampleNextCond(RandomGenerator rg, DataStateBooleanExpression condition) {
+        SystemState result = this;
+        DataState ds = this.state;
+        while(!condition.eval(ds)) {
+            result = result.sampleNext(rg);
+            ds = result.getDataState();
+        }
+        return result;
+    }
+
+    @Override
+    public SystemState setDataState(DataState dataState) {
+        return new ReactionSystem(controller, network, algorithm, dataState);
+    }
+
+    /**
+     * Returns the system that simulates the network of this system with the given algorithm.
+     *
+     * @param algorithm a simulation algorithm.
+     * @return the system that simulates the network of this system with <code>algorithm</code>.
+     */
+    public ReactionSystem withAlgorithm(SimulationAlgorithm algorithm) {
+        return new ReactionSystem(controller, network, algorithm, state);
+    }
+
+}
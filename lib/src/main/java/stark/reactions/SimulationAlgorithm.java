@@ -0,0 +1,116 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+import org.apache.commons.math3.random.RandomGenerator;
+
+
+/**
+ * An algorithm simulating the reactions of a network over a time interval. Algorithms modify the given data state
+ * in place, so that no object is allocated for each reaction firing.
+ */
+public interface SimulationAlgorithm {
+
+    /**
+     * Simulates the reactions of the given network from time <code>from</code> to time <code>to</code>,
+     * by modifying the given data state in place.
+     *
+     * @param network a reaction network.
+     * @param rg random generator.
+     * @param state data state at time <code>from</code>, modified in place.
+     * @param from initial time.
+     * @param to final time.
+     */
+    void advance(ReactionNetwork network, RandomGenerator rg, DataState state, double from, double to);
+
+    /**
+     * Returns the next reaction method of Gibson and Bruck, that keeps the absolute putative time of each reaction
+     * in an indexed priority queue and reuses the random numbers of the reactions whose propensity changes.
+     * This method is well suited to large networks with sparse dependency graphs.
+     *
+     * @return the next reaction method.
+     */
+    static SimulationAlgorithm nextReaction() {
+        return new NextReactionMethod();
+    }
+
+    /**
+     * Returns the optimized direct method, where propensities are updated through the dependency graph and
+     * reactions are kept sorted by how often they fire, so that the linear search of the next reaction is short.
+     * This method is well suited to networks where few reactions fire most of the times.
+     *
+     * @return the optimized direct method.
+     */
+    static SimulationAlgorithm optimizedDirect() {
+        return new OptimizedDirectMethod();
+    }
+
+    /**
+     * Returns the tau-leaping method of Cao, Gillespie and Petzold, where the number of firings of each reaction
+     * in a leap is sampled from a Poisson distribution. Leaps are chosen so that the expected relative change of
+     * each propensity is bounded by <code>epsilon</code>, and exact steps are simulated when leaps are too short.
+     * This method is well suited to species with high copy numbers.
+     *
+     * @param epsilon accuracy target, namely the bound on the relative change of propensities in a leap.
+     * @return the tau-leaping method with accuracy target <code>epsilon</code>.
+     * @throws IllegalArgumentException if <code>epsilon</code> is not in <code>(0,1)</code>.
+     */
+    static SimulationAlgorithm tauLeaping(double epsilon) {
+        if ((epsilon <= 0)||(epsilon >= 1)) {
+            throw new IllegalArgumentException("Accuracy target must be in (0,1)");
+        }
+        return new TauLeapingMethod(epsilon);
+    }
+
+    /**
+     * Returns the hybrid method where reactions modifying only species with at least <code>1/epsilon</code>
+     * molecules are integrated as ordinary differential equations, while the other ones are simulated exactly.
+     * Integration steps change the values of species by a fraction <code>epsilon</code> at most.
+     *
+     * @param epsilon accuracy target.
+     * @return the hybrid method with accuracy target <code>epsilon</code>.
+     * @throws IllegalArgumentException if <code>epsilon</code> is not in <code>(0,1)</code>.
+     */
+    static SimulationAlgorithm hybrid(double epsilon) {
+        if ((epsilon <= 0)||(epsilon >= 1)) {
+            throw new IllegalArgumentException("Accuracy target must be in (0,1)");
+        }
+        return new HybridMethod(epsilon);
+    }
+
+    /**
+     * Returns an exponentially distributed waiting time with the given rate, or <code>+infinity</code> if the rate is <code>0</code>.
+     *
+     * @param rg random generator.
+     * @param rate rate of the distribution.
+     * @return a waiting time sampled with rate <code>rate</code>.
+     */
+    static double waitingTime(RandomGenerator rg, double rate) {
+        if (rate <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -Math.log(1.0 - rg.nextDouble()) / rate;
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.ds.DataState;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+
+/**
+ * The tau-leaping method with the step-size selection of Cao, Gillespie and Petzold. Reactions that could exhaust
+ * one of their reactants within a few firings are critical, and fire at most once per leap, while the number of
+ * firings of the other reactions is sampled from a Poisson distribution. The leap is chosen so that the expected
+ * relative change of each propensity is bounded by <code>epsilon</code>. When the leap is too short to be
+ * convenient, a few exact steps are simulated instead.
+ */
+final class TauLeapingMethod implements SimulationAlgorithm {
+
+    /**
+     * Reactions that can fire less than this number of times before exhausting a reactant are critical.
+     */
+    private static final int CRITICAL_FIRINGS = 10;
+
+    /**
+     * Exact steps are simulated when the leap is shorter than this number of expected reaction times.
+     */
+    private static final double EXACT_THRESHOLD = 10.0;
+
+    /**
+     * Number of exact steps simulated when leaping is not convenient.
+     */
+    private static final int EXACT_STEPS = 100;
+
+    private final double epsilon;
+
+    TauLeapingMethod(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public void advance(ReactionNetwork network, RandomGenerator rg, DataState state, double from, double to) {
+        ReactionIndex index = new ReactionIndex(network);
+        int n = network.size();
+        double[] propensities = new double[n];
+        boolean[] critical = new boolean[n];
+        double[] x = new double[index.size()];
+        double[] delta = new double[index.size()];
+        double t = from;
+        int exactSteps = 0;
+        while (t < to) {
+            double total = index.propensities(state, propensities);
+            if (total <= 0) {
+                return;
+            }
+            if (exactSteps > 0) {
+                t += SimulationAlgorithm.waitingTime(rg, total);
+                if (t >= to) {
+                    return;
+                }
+                network.get(index.select(propensities, rg.nextDouble() * total)).fire(state);
+                exactSteps--;
+                continue;
+            }
+            index.values(state, x);
+            double criticalTotal = 0.0;
+            for (int j = 0; j < n; j++) {
+                critical[j] = (propensities[j] > 0)&&(index.maxFirings(j, x) < CRITICAL_FIRINGS);
+                if (critical[j]) {
+                    criticalTotal += propensities[j];
+                }
+            }
+            double leap = leap(index, propensities, critical, x);
+            if (leap < EXACT_THRESHOLD / total) {
+                exactSteps = EXACT_STEPS;
+                continue;
+            }
+            while (true) {
+                double criticalTime = SimulationAlgorithm.waitingTime(rg, criticalTotal);
+                boolean fireCritical = criticalTime <= leap;
+                double tau = Math.min(leap, criticalTime);
+                if (tau >= to - t) {
+                    tau = to - t;
+                    fireCritical = false;
+                }
+                Arrays.fill(delta, 0.0);
+                for (int j = 0; j < n; j++) {
+                    if (!critical[j]&&(propensities[j] > 0)) {
+                        index.add(j, PoissonSampler.sample(rg, propensities[j] * tau), delta);
+                    }
+                }
+                if (fireCritical) {
+                    index.add(selectCritical(propensities, critical, rg.nextDouble() * criticalTotal), 1, delta);
+                }
+                if (index.isNonNegative(x, delta)) {
+                    index.apply(state, x, delta);
+                    t += tau;
+                    break;
+                }
+                leap = leap / 2;
+            }
+        }
+    }
+
+    /**
+     * Returns the largest leap such that the mean and the variance of the change of each reactant, due to
+     * non-critical reactions, are bounded by <code>epsilon</code> times its value (and at least <code>1</code>).
+     */
+    private double leap(ReactionIndex index, double[] propensities, boolean[] critical, double[] x) {
+        double[] mean = new double[x.length];
+        double[] variance = new double[x.length];
+        for (int j = 0; j < propensities.length; j++) {
+            if (!critical[j]&&(propensities[j] > 0)) {
+                int[] positions = index.positions(j);
+                double[] changes = index.changes(j);
+                for (int k = 0; k < positions.length; k++) {
+                    mean[positions[k]] += changes[k] * propensities[j];
+                    variance[positions[k]] += changes[k] * changes[k] * propensities[j];
+                }
+            }
+        }
+        double result = Double.POSITIVE_INFINITY;
+        for (int p = 0; p < x.length; p++) {
+            if (!index.isReactant(p)) {
+                continue;
+            }
+            double bound = Math.max(epsilon * x[p] / index.highestOrder(p, x[p]), 1.0);
+            if (mean[p] != 0) {
+                result = Math.min(result, bound / Math.abs(mean[p]));
+            }
+            if (variance[p] > 0) {
+                result = Math.min(result, bound * bound / variance[p]);
+            }
+        }
+        return result;
+    }
+
+    private static int selectCritical(double[] propensities, boolean[] critical, double r) {
+        double sum = 0.0;
+        int last = -1;
+        for (int j = 0; j < propensities.length; j++) {
+            if (critical[j]) {
+                sum += propensities[j];
+                last = j;
+                if (r < sum) {
+                    return j;
+                }
+            }
+        }
+        return last;
+    }
+
+}
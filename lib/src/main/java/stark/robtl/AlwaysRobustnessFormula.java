@@ -47,7 +47,7 @@ public final class AlwaysRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalAlways(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalAlways(this));
     }
 
     /**
@@ -58,7 +58,7 @@ public final class AtomicRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalAtomic(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalAtomic(this));
     }
 
     /**
@@ -54,11 +54,15 @@ public class BooleanSemanticsVisitor implements RobustnessFormulaVisitor<Boolean
         int from = alwaysRobustnessFormula.getFrom();
         int to = alwaysRobustnessFormula.getTo();
         if (parallel) {
-            return (sampleSize, step, sequence) ->
-                    IntStream.of(from, to).parallel().allMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            return (sampleSize, step, sequence) -> {
+                sequence.prefetch(step+to);
+                return IntStream.of(from, to).parallel().allMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            };
         } else {
-            return (sampleSize, step, sequence) ->
-                    IntStream.of(from, to).sequential().allMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            return (sampleSize, step, sequence) -> {
+                sequence.prefetch(step+to);
+                return IntStream.of(from, to).sequential().allMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            };
         }
     }
 
@@ -95,11 +99,15 @@ public class BooleanSemanticsVisitor implements RobustnessFormulaVisitor<Boolean
         int from = eventuallyRobustnessFormula.getFrom();
         int to = eventuallyRobustnessFormula.getTo();
         if (parallel) {
-            return (sampleSize, step, sequence) ->
-                    IntStream.of(from, to).parallel().anyMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            return (sampleSize, step, sequence) -> {
+                sequence.prefetch(step+to);
+                return IntStream.of(from, to).parallel().anyMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            };
         } else {
-            return (sampleSize, step, sequence) ->
-                    IntStream.of(from, to).sequential().anyMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            return (sampleSize, step, sequence) -> {
+                sequence.prefetch(step+to);
+                return IntStream.of(from, to).sequential().anyMatch(i -> argumentFunction.eval(sampleSize, step+i, sequence));
+            };
         }
     }
 
@@ -134,15 +142,21 @@ public class BooleanSemanticsVisitor implements RobustnessFormulaVisitor<Boolean
         int from = untilRobustnessFormula.getFrom();
         int to = untilRobustnessFormula.getTo();
         if (parallel) {
-            return (sampleSize, step, sequence) -> IntStream.range(from+step, to+step).parallel().anyMatch(
-                    i -> rightFunction.eval(sampleSize, i, sequence) &&
-                            IntStream.range(from+step, i).allMatch(j -> leftFunction.eval(sampleSize, j, sequence))
-            );
+            return (sampleSize, step, sequence) -> {
+                sequence.prefetch(step+to);
+                return IntStream.range(from+step, to+step).parallel().anyMatch(
+                        i -> rightFunction.eval(sampleSize, i, sequence) &&
+                                IntStream.range(from+step, i).allMatch(j -> leftFunction.eval(sampleSize, j, sequence))
+                );
+            };
         } else {
-            return (sampleSize, step, sequence) -> IntStream.range(from+step, to+step).sequential().anyMatch(
-                    i -> rightFunction.eval(sampleSize, i, sequence) &&
-                            IntStream.range(from+step, i).allMatch(j -> leftFunction.eval(sampleSize, j, sequence))
-            );
+            return (sampleSize, step, sequence) -> {
+                sequence.prefetch(step+to);
+                return IntStream.range(from+step, to+step).sequential().anyMatch(
+                        i -> rightFunction.eval(sampleSize, i, sequence) &&
+                                IntStream.range(from+step, i).allMatch(j -> leftFunction.eval(sampleSize, j, sequence))
+                );
+            };
         }
     }
 
@@ -43,7 +43,7 @@ public final class ConjunctionRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalConjunction(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalConjunction(this));
     }
 
     /**
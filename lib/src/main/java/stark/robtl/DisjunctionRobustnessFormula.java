@@ -44,7 +44,7 @@ public final class DisjunctionRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalDisjunction(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalDisjunction(this));
     }
 
     /**
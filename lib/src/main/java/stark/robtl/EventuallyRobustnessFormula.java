@@ -46,7 +46,7 @@ public final class EventuallyRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalEventually(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalEventually(this));
     }
 
     /**
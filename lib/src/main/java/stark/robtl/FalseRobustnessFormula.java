@@ -29,7 +29,7 @@ public final class FalseRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalFalse();
+        return RobustnessFunctionEvent.traced(this, evaluator.evalFalse());
     }
 
 
@@ -43,7 +43,7 @@ public final class ImplicationRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalImplication(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalImplication(this));
     }
 
     /**
@@ -40,7 +40,7 @@ public final class NegationRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalNegation(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalNegation(this));
     }
 
     /**
@@ -22,6 +22,7 @@
 
 package stark.robtl;
 
+import stark.distance.ConfidenceStrategy;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -85,4 +86,18 @@ public sealed interface RobustnessFormula permits
         return formula.eval(new ThreeValuedSemanticsVisitor(rg, m, z));
     }
 
+    /**
+     * Returns the evaluation of a given formula according to three-valued semantics,
+     * where confidence intervals are evaluated according to the given strategy.
+     *
+     * @param m number of repetitions for the boostrap method
+     * @param z the quantile of the standard normal distribution corresponding to the desired coverage probability
+     * @param strategy strategy used to evaluate confidence intervals
+     * @param formula a RobTL formula
+     * @return the three-valued evaluation of <code>formula</code>.
+     */
+    static RobustnessFunction<TruthValues> getThreeValuedEvaluationFunction(RandomGenerator rg, int m, double z, ConfidenceStrategy strategy, RobustnessFormula formula) {
+        return formula.eval(new ThreeValuedSemanticsVisitor(rg, m, z, strategy));
+    }
+
 }
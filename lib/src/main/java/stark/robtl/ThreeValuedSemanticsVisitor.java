@@ -23,11 +23,14 @@
 package stark.robtl;
 
 import stark.DefaultRandomGenerator;
+import stark.distance.ConfidenceStrategy;
 import stark.distance.DistanceExpression;
 import stark.ds.RelationOperator;
 import stark.perturbation.Perturbation;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.util.Objects;
+
 /**
  * This class implements the three-valued interpretation of RobTL formulae.
  */
@@ -36,6 +39,7 @@ public class ThreeValuedSemanticsVisitor implements RobustnessFormulaVisitor<Tru
     private final RandomGenerator rg;
     private final int m;
     private final double z;
+    private final ConfidenceStrategy strategy;
 
     /**
      * As the evaluation of confidence intervals is necessary to determine the three-valued semantics,
@@ -46,9 +50,24 @@ public class ThreeValuedSemanticsVisitor implements RobustnessFormulaVisitor<Tru
      * @param z the quantile of the normal distribution encoding the desired coverage probability.
      */
     public ThreeValuedSemanticsVisitor(RandomGenerator rg, int m, double z) {
+        this(rg, m, z, ConfidenceStrategy.BOOTSTRAP);
+    }
+
+    /**
+     * Creates the visitor where confidence intervals are evaluated according to the given strategy.
+     * With {@link ConfidenceStrategy#ANALYTIC_THEN_BOOTSTRAP}, atomic formulae are decided from analytic
+     * intervals, and bootstrapping is used only for those whose threshold falls within the analytic interval.
+     *
+     * @param rg random generator
+     * @param m number of repetitions for the bootstrap method
+     * @param z the quantile of the normal distribution encoding the desired coverage probability
+     * @param strategy strategy used to evaluate confidence intervals.
+     */
+    public ThreeValuedSemanticsVisitor(RandomGenerator rg, int m, double z, ConfidenceStrategy strategy) {
         this.rg = rg;
         this.m = m;
         this.z = z;
+        this.strategy = Objects.requireNonNull(strategy);
     }
 
     /**
@@ -70,6 +89,7 @@ public class ThreeValuedSemanticsVisitor implements RobustnessFormulaVisitor<Tru
         int from = alwaysRobustnessFormula.getFrom();
         int to = alwaysRobustnessFormula.getTo();
         return ((sampleSize, step, sequence) -> {
+            sequence.prefetch(to+step);
             TruthValues value = TruthValues.TRUE;
             for(int i = from+step; i<to+step; i++){
                 value = TruthValues.and(value, argumentFunction.eval(sampleSize, i, sequence));
@@ -88,7 +108,7 @@ public class ThreeValuedSemanticsVisitor implements RobustnessFormulaVisitor<Tru
         RelationOperator relop = atomicRobustnessFormula.getRelationOperator();
         double value = atomicRobustnessFormula.getThreshold();
         return (sampleSize, step, sequence) -> {
-            double[] res = expr.evalCI(rg, step, sequence, sequence.apply(perturbation, step, sampleSize), m, z);
+            double[] res = expr.evalCI(rg, step, sequence, sequence.apply(perturbation, step, sampleSize), m, z, strategy, value);
             if(res[1] < value && value < res[2]){return TruthValues.UNKNOWN;}
             if(relop.eval(res[0],value)){return TruthValues.TRUE;}
             return TruthValues.FALSE;
@@ -117,6 +137,7 @@ public class ThreeValuedSemanticsVisitor implements RobustnessFormulaVisitor<Tru
         int from = eventuallyRobustnessFormula.getFrom();
         int to = eventuallyRobustnessFormula.getTo();
         return ((sampleSize, step, sequence) -> {
+            sequence.prefetch(to+step);
             TruthValues value = TruthValues.FALSE;
             for(int i = from+step; i<to+step; i++){
                 value = TruthValues.or(value, argumentFunction.eval(sampleSize, i, sequence));
@@ -158,6 +179,7 @@ public class ThreeValuedSemanticsVisitor implements RobustnessFormulaVisitor<Tru
         int from = untilRobustnessFormula.getFrom();
         int to = untilRobustnessFormula.getTo();
         return ((sampleSize, step, sequence) -> {
+            sequence.prefetch(to+step);
             TruthValues value = TruthValues.FALSE;
             TruthValues leftValue = TruthValues.TRUE;
             for(int i=from+step; (i<to+step)&&(value!=TruthValues.TRUE)&&(leftValue!=TruthValues.FALSE); i++){
@@ -29,7 +29,7 @@ public final class TrueRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalTrue();
+        return RobustnessFunctionEvent.traced(this, evaluator.evalTrue());
     }
 
 }
@@ -55,7 +55,7 @@ public final class UntilRobustnessFormula implements RobustnessFormula {
 
     @Override
     public <T> RobustnessFunction<T> eval(RobustnessFormulaVisitor<T> evaluator) {
-        return evaluator.evalUntil(this);
+        return RobustnessFunctionEvent.traced(this, evaluator.evalUntil(this));
     }
 
     /**
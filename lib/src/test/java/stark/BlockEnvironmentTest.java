@@ -0,0 +1,121 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.AffineDataStateBlockFunction;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateBlockFunction;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlockEnvironmentTest {
+
+    final int x = 0;
+    final int y = 1;
+    final int ES_SAMPLE_SIZE = 100;
+    final DataRange[] ranges = new DataRange[]{ new DataRange(-5.0, 5.0), new DataRange(-5.0, 5.0) };
+
+    // The agent randomly pushes x, the environment is a damped rotation of (x, y)
+    Controller getController() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble() - 0.5)), registry.reference("Ctrl"))
+        );
+        return registry.reference("Ctrl");
+    }
+
+    DataStateFunction getEnvironment() {
+        return (rg, ds) -> ds.apply(List.of(
+                new DataStateUpdate(x, 0.9 * ds.get(x) - 0.3 * ds.get(y) + 0.1),
+                new DataStateUpdate(y, 0.3 * ds.get(x) + 0.9 * ds.get(y) + rg.nextDouble() * 0.01)));
+    }
+
+    Function<RandomGenerator, SystemState> getGenerator(boolean block) {
+        Controller controller = getController();
+        DataStateFunction environment = getEnvironment();
+        DataState state = new DataState(ranges, new double[]{1.0, 0.0});
+        if (block) {
+            DataStateBlockFunction blockEnvironment = DataStateBlockFunction.of(environment);
+            return rg -> ControlledSystem.withBlockEnvironment(controller, blockEnvironment, state);
+        }
+        return rg -> new ControlledSystem(controller, environment, state);
+    }
+
+    @Test
+    void blockEnvironmentsBehaveLikeSampleEnvironments() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(5), getGenerator(false), ES_SAMPLE_SIZE);
+        EvolutionSequence block = new EvolutionSequence(null, new RandomStreams(5),
+                ColumnarSampleSet.generate(new RandomStreams(5), getGenerator(true), ES_SAMPLE_SIZE));
+        for (int i = 0; i < 20; i++) {
+            List<SystemState> expected = sequence.get(i).stream().toList();
+            List<SystemState> actual = block.get(i).stream().toList();
+            for (int j = 0; j < ES_SAMPLE_SIZE; j++) {
+                assertEquals(expected.get(j).getDataState().getStep(), actual.get(j).getDataState().getStep());
+                assertEquals(expected.get(j).getDataState().get(x), actual.get(j).getDataState().get(x));
+                assertEquals(expected.get(j).getDataState().get(y), actual.get(j).getDataState().get(y));
+            }
+        }
+    }
+
+    @Test
+    void affineBlockEnvironmentsBehaveLikeSampleEnvironments() {
+        DataStateBlockFunction affine = new AffineDataStateBlockFunction(new double[][]{{0.9, -0.3}, {0.3, 0.9}}, new double[]{0.1, 0.0});
+        DataStateFunction environment = (rg, ds) -> ds.apply(List.of(
+                new DataStateUpdate(x, 0.9 * ds.get(x) - 0.3 * ds.get(y) + 0.1),
+                new DataStateUpdate(y, 0.3 * ds.get(x) + 0.9 * ds.get(y))));
+        Controller controller = getController();
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(7),
+                rg -> new ControlledSystem(controller, environment, new DataState(ranges, new double[]{4.0, 4.0})), ES_SAMPLE_SIZE);
+        EvolutionSequence block = new EvolutionSequence(null, new RandomStreams(7),
+                ColumnarSampleSet.generate(new RandomStreams(7), rg -> ControlledSystem.withBlockEnvironment(controller, affine, new DataState(ranges, new double[]{4.0, 4.0})), ES_SAMPLE_SIZE));
+        for (int i = 0; i < 20; i++) {
+            List<SystemState> expected = sequence.get(i).stream().toList();
+            List<SystemState> actual = block.get(i).stream().toList();
+            for (int j = 0; j < ES_SAMPLE_SIZE; j++) {
+                assertEquals(expected.get(j).getDataState().get(x), actual.get(j).getDataState().get(x), 1.0E-12);
+                assertEquals(expected.get(j).getDataState().get(y), actual.get(j).getDataState().get(y), 1.0E-12);
+            }
+        }
+    }
+
+    @Test
+    void systemsAreBuiltFromInlineEnvironments() {
+        Controller controller = getController();
+        DataState state = new DataState(ranges, new double[]{1.0, 0.0});
+        ControlledSystem system = new ControlledSystem(controller, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(y, ds.get(x)))), state);
+        assertEquals(null, system.getBlockEnvironment());
+        DataState next = system.sampleNext(new DefaultRandomGenerator(1)).getDataState();
+        assertEquals(next.get(x), next.get(y));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateExpression;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BootstrapTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 200;
+    final DataStateExpression X = ds -> ds.get(x);
+
+    @Test
+    void resamplingDrawsSortedValuesFromTheData() {
+        double[] sorted = { 0.5, 1.0, 1.0, 2.0, 3.5, 7.0 };
+        double[] sample = new double[sorted.length];
+        int[] counts = new int[sorted.length];
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        for (int i = 0; i < 20; i++) {
+            Bootstrap.resample(rg, sorted, counts, sample);
+            assertEquals(sorted.length, Arrays.stream(counts).sum());
+            for (int j = 0; j < sample.length; j++) {
+                assertTrue(Arrays.binarySearch(sorted, sample[j]) >= 0);
+                assertTrue((j == 0) || (sample[j - 1] <= sample[j]));
+            }
+        }
+    }
+
+    @Test
+    void confidenceIntervalsOnlyDependOnTheSeed() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(2), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        SampleSet<SystemState> step = sequence.get(3);
+        SampleSet<SystemState> other = sequence.get(4);
+        double[] ci = step.bootstrapDistance(new DefaultRandomGenerator(3), X, other, 100, 1.96);
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(ci, step.bootstrapDistance(new DefaultRandomGenerator(3), X, other, 100, 1.96));
+        }
+        double distance = step.distance(X, other);
+        assertTrue(ci[0] <= distance);
+        assertTrue(distance <= ci[1]);
+    }
+
+    @Test
+    void eachRoundChecksTheMonitor() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(4), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        SampleSet<SystemState> step = sequence.get(1);
+        SampleSet<SystemState> other = sequence.get(2);
+        AtomicInteger counter = new AtomicInteger();
+        step.bootstrapDistanceLeq(new DefaultRandomGenerator(5), X, other, 40, 1.96, RandomWalk.counting(counter));
+        assertEquals(40, counter.get());
+        counter.set(0);
+        assertThrows(SimulationCancelledException.class,
+                () -> step.bootstrapDistanceGeq(new DefaultRandomGenerator(5), X, other, 40, 1.96, RandomWalk.cancelledAfter(counter, 10)));
+    }
+
+}
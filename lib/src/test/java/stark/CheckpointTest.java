@@ -0,0 +1,153 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointTest {
+
+    static final int X = 0;
+    static final int ES_SAMPLE_SIZE = 50;
+
+    final ControllerRegistry registry = new ControllerRegistry();
+    final DataStateFunction environment = (rg, ds) -> ds.apply(List.of(new DataStateUpdate(X, ds.get(X) + rg.nextDouble())));
+    final Controller controller;
+
+    CheckpointTest() {
+        registry.set("Ctrl",
+                Controller.doTick(2, Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(X, 0.0)), registry.reference("Ctrl")))
+        );
+        controller = Controller.compile(registry.reference("Ctrl"));
+    }
+
+    // One variable that, at each step, is incremented by a random value in [0,1); the controller resets x every 3 steps
+    Function<RandomGenerator, SystemState> getGenerator() {
+        return rg -> restore(new DataState(new DataRange[]{ new DataRange() }, new double[]{ 0.0 }));
+    }
+
+    // The controller is rebuilt in its initial state, the saved one is restored when the sequence is resumed
+    SystemState restore(DataState state) {
+        return new ControlledSystem(controller, environment, state);
+    }
+
+    double[] values(EvolutionSequence sequence, int step) {
+        return sequence.get(step).stream().mapToDouble(s -> s.getDataState().get(X)).toArray();
+    }
+
+    @Test
+    void resumedSequenceEqualsOriginalSequence() throws IOException {
+        Path file = Files.createTempFile("stark", ".ckpt");
+        file.toFile().deleteOnExit();
+        int[] saved = new int[1];
+        SimulationMonitor monitor = new SimulationMonitor() {
+            @Override
+            public void startSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public void endSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public boolean hasBeenCancelled() {
+                return false;
+            }
+
+            @Override
+            public void checkpointSaved(int step) {
+                saved[0] = step;
+            }
+        };
+        EvolutionSequence sequence = new EvolutionSequence(monitor, new RandomStreams(7), getGenerator(), ES_SAMPLE_SIZE);
+        sequence.setCheckpoint(file, 3);
+        sequence.generateUpTo(11);
+        assertEquals(9, saved[0]);
+        EvolutionSequence resumed = EvolutionSequence.resume(null, file, this::restore);
+        assertEquals(10, resumed.length());
+        assertThrows(IllegalStateException.class, () -> resumed.get(8));
+        for (int i = 9; i < 18; i++) {
+            assertArrayEquals(values(sequence, i), values(resumed, i));
+        }
+    }
+
+    @Test
+    void columnarSequencesAreResumedInColumnarForm() throws IOException {
+        Path file = Files.createTempFile("stark", ".ckpt");
+        file.toFile().deleteOnExit();
+        RandomStreams streams = new RandomStreams(11);
+        EvolutionSequence sequence = new EvolutionSequence(null, streams, ColumnarSampleSet.generate(streams, getGenerator(), ES_SAMPLE_SIZE));
+        sequence.setCheckpoint(file, 3);
+        sequence.generateUpTo(4);
+        EvolutionSequence resumed = EvolutionSequence.resume(null, file, this::restore);
+        assertTrue(resumed.get(3) instanceof ColumnarSampleSet);
+        for (int i = 3; i < 9; i++) {
+            assertArrayEquals(values(sequence, i), values(resumed, i));
+        }
+    }
+
+    @Test
+    void controllersAreResumedInTheirSavedState() throws IOException {
+        Path file = Files.createTempFile("stark", ".ckpt");
+        file.toFile().deleteOnExit();
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(13), getGenerator(), ES_SAMPLE_SIZE);
+        sequence.setCheckpoint(file, 2);
+        sequence.generateUpTo(5);
+        EvolutionSequence resumed = EvolutionSequence.resume(null, file, this::restore);
+        assertEquals(5, resumed.length());
+        for (int i = 4; i < 12; i++) {
+            assertArrayEquals(values(sequence, i), values(resumed, i));
+        }
+    }
+
+    @Test
+    void checkpointsRequireCompiledControllers() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(17),
+                rg -> new ControlledSystem(registry.reference("Ctrl"), environment, new DataState(new DataRange[]{ new DataRange() }, new double[]{ 0.0 })), ES_SAMPLE_SIZE);
+        assertThrows(IllegalStateException.class, () -> sequence.setCheckpoint(Path.of("checkpoint"), 2));
+    }
+
+    @Test
+    void checkpointsRequireRandomStreams() {
+        EvolutionSequence sequence = new EvolutionSequence(new DefaultRandomGenerator(), getGenerator(), ES_SAMPLE_SIZE);
+        assertThrows(IllegalStateException.class, () -> sequence.setCheckpoint(Path.of("checkpoint"), 1));
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarSampleSetTest {
+
+    final int t = 0;
+    final int x = 1;
+    final int ES_SAMPLE_SIZE = 50;
+    final DataRange[] ranges = new DataRange[]{ new DataRange(), new DataRange(0.0, 10.0) };
+
+    // Two variables. The i-th sample starts from (1, i/ES_SAMPLE_SIZE), then t is incremented and x grows by x/(t+1) within [0,10]
+    Function<RandomGenerator, SystemState> getGenerator() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.doTick(registry.get("Ctrl"))
+        );
+        Controller controller = registry.reference("Ctrl");
+        DataStateFunction environment = (rg, ds) -> ds.apply(List.of(
+                new DataStateUpdate(t, ds.get(t) + 1),
+                new DataStateUpdate(x, ds.get(x) + ds.get(x) / (ds.get(t) + 1))));
+        int[] counter = new int[1];
+        return rg -> new ControlledSystem(controller, environment, new DataState(ranges, new double[]{1, (counter[0]++) / (double) ES_SAMPLE_SIZE}));
+    }
+
+    @Test
+    void columnarSequenceEqualsListSequence() {
+        EvolutionSequence sequence = new EvolutionSequence(new DefaultRandomGenerator(), getGenerator(), ES_SAMPLE_SIZE);
+        EvolutionSequence columnar = new EvolutionSequence(null, new DefaultRandomGenerator(),
+                ColumnarSampleSet.generate(new DefaultRandomGenerator(), getGenerator(), ES_SAMPLE_SIZE));
+        for (int i = 0; i < 20; i++) {
+            assertTrue(columnar.get(i) instanceof ColumnarSampleSet);
+            assertArrayEquals(sequence.evalPenaltyFunction(ds -> ds.get(x), i), columnar.evalPenaltyFunction(ds -> ds.get(x), i));
+            assertEquals(sequence.get(i).distance(ds -> ds.get(x), columnar.get(i)), 0.0);
+        }
+    }
+
+    @Test
+    void columnarPerturbationEqualsListPerturbation() {
+        Perturbation p = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) * 2))));
+        EvolutionSequence sequence = new EvolutionSequence(new DefaultRandomGenerator(), getGenerator(), ES_SAMPLE_SIZE);
+        EvolutionSequence columnar = new EvolutionSequence(null, new DefaultRandomGenerator(),
+                ColumnarSampleSet.generate(new DefaultRandomGenerator(), getGenerator(), ES_SAMPLE_SIZE));
+        EvolutionSequence perturbed = sequence.apply(p, 3, 5);
+        EvolutionSequence columnarPerturbed = columnar.apply(p, 3, 5);
+        for (int i = 3; i < 10; i++) {
+            assertEquals(ES_SAMPLE_SIZE * 5, columnarPerturbed.get(i).size());
+            assertEquals(sequence.get(i).distance(ds -> ds.get(x), perturbed.get(i)),
+                    columnar.get(i).distance(ds -> ds.get(x), columnarPerturbed.get(i)));
+        }
+    }
+
+    @Test
+    void distributionsAreAppliedToTheRowsOfTheBlock() {
+        DataStateFunction noise = (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 20 * rg.nextDouble())));
+        RandomStreams streams = new RandomStreams(5);
+        SampleSet<SystemState> list = SampleSet.generate(streams, getGenerator(), ES_SAMPLE_SIZE);
+        ColumnarSampleSet<SystemState> columnar = ColumnarSampleSet.of(list);
+        SampleSet<SystemState> expected = list.applyDistribution(streams, 2, noise);
+        ColumnarSampleSet<SystemState> result = columnar.applyDistribution(streams, 2, noise);
+        assertArrayEquals(expected.evalPenaltyFunction(ds -> ds.get(x)), result.evalPenaltyFunction(ds -> ds.get(x)));
+        assertArrayEquals(expected.evalPenaltyFunction(ds -> ds.get(t)), result.evalPenaltyFunction(ds -> ds.get(t)));
+        assertTrue(result.stream().allMatch(s -> (s instanceof ControlledSystem)&&(s.getDataState().get(x) <= 10.0)));
+    }
+
+    @Test
+    void rangesAreSharedAndApplied() {
+        ColumnarSampleSet<SystemState> samples = ColumnarSampleSet.generate(new DefaultRandomGenerator(), getGenerator(), ES_SAMPLE_SIZE);
+        ColumnarSampleSet<SystemState> next = samples.apply(s -> s.sampleNext(new DefaultRandomGenerator())).replica(3);
+        assertEquals(ES_SAMPLE_SIZE * 3, next.size());
+        assertEquals(ranges[x], next.getDataStateBlock().getDataRange(x));
+        assertTrue(next.stream().allMatch(s -> s.getDataState().get(x) <= 10.0));
+    }
+
+    @Test
+    void clearingASpecificationResetsTheGenerationSettings() {
+        SystemSpecification specification = new SystemSpecification(RandomWalk.system(0.0), Map.of(), Map.of(), Map.of(), Map.of());
+        specification.setColumnar(true);
+        specification.setRandomStreams(3);
+        specification.setRetentionPolicy(RetentionPolicy.window(2));
+        specification.setLookAhead(2);
+        specification.clear();
+        EvolutionSequence sequence = specification.getSequence();
+        assertFalse(sequence.get(0) instanceof ColumnarSampleSet);
+        assertEquals(RetentionPolicy.keepAll(), sequence.getRetentionPolicy());
+        assertEquals(0, sequence.getLookAhead());
+        assertThrows(IllegalStateException.class, () -> sequence.setCommonRandomNumbers(true));
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommonRandomNumbersTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 40;
+    final int SCALE = 3;
+    final Perturbation SHIFT = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 0.5))));
+    final Perturbation NOISE = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble()))));
+
+    double meanShift(EvolutionSequence sequence, EvolutionSequence perturbed, int step) {
+        return Arrays.stream(RandomWalk.values(perturbed.get(step))).average().orElseThrow() - Arrays.stream(RandomWalk.values(sequence.get(step))).average().orElseThrow();
+    }
+
+    @Test
+    void replicasReplayTheStreamsOfTheirNominalSamples() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(3), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        sequence.setCommonRandomNumbers(true);
+        EvolutionSequence perturbed = sequence.apply(SHIFT, 2, SCALE);
+        assertTrue(perturbed.isCommonRandomNumbers());
+        for (int t = 2; t < 10; t++) {
+            double[] nominal = RandomWalk.values(sequence.get(t));
+            double[] shifted = RandomWalk.values(perturbed.get(t));
+            assertEquals(ES_SAMPLE_SIZE * SCALE, shifted.length);
+            for (int j = 0; j < shifted.length; j += SCALE) {
+                assertEquals(nominal[j / SCALE] + 0.5, shifted[j], 1.0E-9);
+            }
+        }
+    }
+
+    @Test
+    void replicasOfTheSameSampleAreNotIdentical() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(3), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        sequence.setCommonRandomNumbers(true);
+        double[] shifted = RandomWalk.values(sequence.apply(SHIFT, 2, SCALE).get(5));
+        for (int i = 0; i < ES_SAMPLE_SIZE; i++) {
+            for (int r = 1; r < SCALE; r++) {
+                assertTrue(shifted[i * SCALE] != shifted[i * SCALE + r]);
+                assertTrue(shifted[i * SCALE + r - 1] != shifted[i * SCALE + r]);
+            }
+        }
+    }
+
+    @Test
+    void perturbationsOfCoupledSequencesAreCoupled() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(5), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        sequence.setCommonRandomNumbers(true);
+        EvolutionSequence perturbed = sequence.apply(SHIFT, 2, SCALE).apply(SHIFT, 4, 2);
+        double[] nominal = RandomWalk.values(sequence.get(6));
+        double[] shifted = RandomWalk.values(perturbed.get(6));
+        for (int j = 0; j < shifted.length; j += 2 * SCALE) {
+            assertEquals(nominal[j / (2 * SCALE)] + 1.0, shifted[j], 1.0E-9);
+        }
+    }
+
+    @Test
+    void theEffectsOfPerturbationsAreNotCoupled() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(7), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        sequence.setCommonRandomNumbers(true);
+        double[] perturbed = RandomWalk.values(sequence.apply(NOISE, 2, SCALE).get(2));
+        assertTrue(perturbed[0] != perturbed[1]);
+    }
+
+    @Test
+    void couplingReducesTheVarianceOfTheEstimatedShift() {
+        double coupledError = 0;
+        double independentError = 0;
+        for (int seed = 0; seed < 10; seed++) {
+            EvolutionSequence coupled = new EvolutionSequence(null, new RandomStreams(seed), RandomWalk.generator(), ES_SAMPLE_SIZE);
+            coupled.setCommonRandomNumbers(true);
+            EvolutionSequence independent = new EvolutionSequence(null, new RandomStreams(seed), RandomWalk.generator(), ES_SAMPLE_SIZE);
+            coupledError += Math.abs(meanShift(coupled, coupled.apply(SHIFT, 2, 1), 8) - 0.5);
+            independentError += Math.abs(meanShift(independent, independent.apply(SHIFT, 2, 1), 8) - 0.5);
+        }
+        assertEquals(0.0, coupledError, 1.0E-9);
+        assertTrue(independentError > 0.1);
+    }
+
+    @Test
+    void couplingRequiresRandomStreams() {
+        EvolutionSequence sequence = new EvolutionSequence(new DefaultRandomGenerator(), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        assertThrows(IllegalStateException.class, () -> sequence.setCommonRandomNumbers(true));
+        assertThrows(IllegalArgumentException.class, () -> new RandomStreams(1).replicate(0));
+    }
+
+}
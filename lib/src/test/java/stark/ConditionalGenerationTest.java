@@ -0,0 +1,120 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateBooleanExpression;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGenerationTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 50;
+
+    DataStateBooleanExpression above(double threshold) {
+        return ds -> ds.get(x) >= threshold;
+    }
+
+    @Test
+    void unboundedGenerationIsTheSameOfTheUnconditionedOne() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(5), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence bounded = new EvolutionSequence(null, new RandomStreams(5), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        sequence.generateUpToCond(new ArrayList<>(List.of(above(5), above(10))));
+        List<ConditionReport> reports = bounded.generateUpToCond(List.of(above(5), above(10)), ConditionBounds.unbounded());
+        assertEquals(2, reports.size());
+        assertTrue(reports.get(0).allReached());
+        assertTrue(reports.get(1).allReached());
+        assertEquals(2, reports.get(1).step());
+        assertArrayEquals(RandomWalk.values(sequence.get(1)), RandomWalk.values(bounded.get(1)));
+        assertArrayEquals(RandomWalk.values(sequence.get(2)), RandomWalk.values(bounded.get(2)));
+    }
+
+    @Test
+    void samplesStopAfterTheMaximumNumberOfMicroSteps() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(7), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        ConditionReport report = sequence.generateUpToCond(List.of(above(1000)), ConditionBounds.steps(10)).get(0);
+        assertEquals(ES_SAMPLE_SIZE, report.samples());
+        assertEquals(ES_SAMPLE_SIZE, report.exhausted().length);
+        assertEquals(0, report.timedOut().length);
+        assertFalse(report.allReached());
+        assertEquals(ES_SAMPLE_SIZE, sequence.get(1).size());
+        for (double v : RandomWalk.values(sequence.get(1))) {
+            assertTrue(v < 11);
+        }
+    }
+
+    @Test
+    void onlyTheSamplesThatDoNotReachTheConditionAreReported() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(11), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        ConditionReport report = sequence.generateUpToCond(List.of(above(3)), ConditionBounds.steps(4)).get(0);
+        double[] values = RandomWalk.values(sequence.get(1));
+        for (int i = 0; i < values.length; i++) {
+            boolean reported = false;
+            for (int j : report.exhausted()) {
+                reported |= (i == j);
+            }
+            assertEquals(values[i] < 3, reported);
+        }
+    }
+
+    @Test
+    void samplesAreTimedOutAndNotifiedToTheMonitor() {
+        List<ConditionReport> notified = new ArrayList<>();
+        SimulationMonitor monitor = new SimulationMonitor() {
+            @Override
+            public void startSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public void endSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public boolean hasBeenCancelled() {
+                return false;
+            }
+
+            @Override
+            public void conditionNotReached(ConditionReport report) {
+                notified.add(report);
+            }
+        };
+        EvolutionSequence sequence = new EvolutionSequence(monitor, new RandomStreams(13), RandomWalk.generator(), 8);
+        ConditionReport report = sequence.generateUpToCond(List.of(ds -> false), ConditionBounds.unbounded().withTimeout(Duration.ofMillis(20))).get(0);
+        assertEquals(8, report.timedOut().length);
+        assertEquals(1, notified.size());
+        assertSame(report, notified.get(0));
+    }
+
+    @Test
+    void boundsAreValidated() {
+        assertThrows(IllegalArgumentException.class, () -> ConditionBounds.steps(-1));
+        assertThrows(IllegalArgumentException.class, () -> ConditionBounds.steps(1).withTimeout(Duration.ZERO));
+    }
+
+}
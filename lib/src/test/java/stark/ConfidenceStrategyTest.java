@@ -0,0 +1,130 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.distance.*;
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateUpdate;
+import stark.ds.RelationOperator;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import stark.robtl.AtomicRobustnessFormula;
+import stark.robtl.TruthValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfidenceStrategyTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 100;
+    final int M = 40;
+
+    EvolutionSequence[] sequences(AtomicInteger counter, int seed) {
+        EvolutionSequence seq1 = new EvolutionSequence(RandomWalk.counting(counter), new RandomStreams(seed), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence seq2 = seq1.apply(new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble())))), 0, 1);
+        seq1.get(5);
+        seq2.get(5);
+        return new EvolutionSequence[] { seq1, seq2 };
+    }
+
+    @Test
+    void analyticIntervalsAreComparableWithBootstrapOnes() {
+        EvolutionSequence[] seq = sequences(new AtomicInteger(), 1);
+        DistanceExpression[] expressions = {
+                new AtomicDistanceExpression(ds -> Math.min(1.0, ds.get(x) / 10), (v1, v2) -> Math.abs(v2 - v1)),
+                new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 10))
+        };
+        for (DistanceExpression expr : expressions) {
+            double[] analytic = expr.evalCI(new DefaultRandomGenerator(2), 4, seq[0], seq[1], M, 1.96, ConfidenceStrategy.ANALYTIC);
+            double[] bootstrap = expr.evalCI(new DefaultRandomGenerator(2), 4, seq[0], seq[1], M, 1.96, ConfidenceStrategy.BOOTSTRAP);
+            assertEquals(bootstrap[0], analytic[0]);
+            assertTrue(analytic[1] <= analytic[0]);
+            assertTrue(analytic[0] <= analytic[2]);
+            double analyticWidth = analytic[2] - analytic[1];
+            double bootstrapWidth = bootstrap[2] - bootstrap[1];
+            assertTrue(analyticWidth > bootstrapWidth / 2);
+            assertTrue(analyticWidth < bootstrapWidth * 2);
+        }
+        // the perturbation only increases the values, hence the other hemidistance is null
+        DistanceExpression geq = new AtomicDistanceExpressionGeq(ds -> Math.min(1.0, ds.get(x) / 10));
+        assertArrayEquals(new double[] { 0.0, 0.0, 0.0 }, geq.evalCI(new DefaultRandomGenerator(2), 4, seq[0], seq[1], M, 1.96, ConfidenceStrategy.ANALYTIC));
+    }
+
+    @Test
+    void analyticIntervalsDoNotResample() {
+        AtomicInteger counter = new AtomicInteger();
+        EvolutionSequence[] seq = sequences(counter, 3);
+        DistanceExpression expr = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 10));
+        counter.set(0);
+        expr.evalCI(new DefaultRandomGenerator(4), 3, seq[0], seq[1], M, 1.96, ConfidenceStrategy.ANALYTIC);
+        assertEquals(0, counter.get());
+        expr.evalCI(new DefaultRandomGenerator(4), 3, seq[0], seq[1], M, 1.96, ConfidenceStrategy.BOOTSTRAP);
+        assertEquals(M, counter.get());
+    }
+
+    @Test
+    void bootstrapIsUsedOnlyWhenTheThresholdIsUndecided() {
+        AtomicInteger counter = new AtomicInteger();
+        EvolutionSequence[] seq = sequences(counter, 5);
+        DistanceExpression expr = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 10));
+        double[] analytic = expr.evalCI(new DefaultRandomGenerator(6), 4, seq[0], seq[1], M, 1.96, ConfidenceStrategy.ANALYTIC);
+        counter.set(0);
+        double[] decided = expr.evalCI(new DefaultRandomGenerator(6), 4, seq[0], seq[1], M, 1.96, ConfidenceStrategy.ANALYTIC_THEN_BOOTSTRAP, analytic[2] + 0.01);
+        assertArrayEquals(analytic, decided);
+        assertEquals(0, counter.get());
+        double[] undecided = expr.evalCI(new DefaultRandomGenerator(6), 4, seq[0], seq[1], M, 1.96, ConfidenceStrategy.ANALYTIC_THEN_BOOTSTRAP, analytic[0]);
+        assertEquals(M, counter.get());
+        assertArrayEquals(expr.evalCI(new DefaultRandomGenerator(6), 4, seq[0], seq[1], M, 1.96), undecided);
+    }
+
+    // The random generator of the specification is only used by bootstrapping: when no atom is bootstrapped,
+    // the next interval is the one of a fresh specification
+    double[] intervalAfterEvaluation(ConfidenceStrategy strategy) {
+        DataStateExpression penalty = ds -> ds.get(x) / 10;
+        Perturbation shift = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 0.5))));
+        DistanceExpression distance = new AtomicDistanceExpressionLeq(penalty);
+        AtomicRobustnessFormula formula = new AtomicRobustnessFormula(shift, distance, RelationOperator.LESS_THAN, 0.2);
+        SystemSpecification specification = new SystemSpecification(RandomWalk.system(0.0), Map.of("x", penalty), Map.of("phi", formula), Map.of("p", shift), Map.of("d", distance));
+        specification.setRandomStreams(7);
+        specification.setRand(7);
+        specification.setSize(50);
+        specification.setConfidenceStrategy(strategy);
+        assertEquals(TruthValues.TRUE, specification.evalThreeValuedSemantic("phi", 1, 3));
+        specification.setConfidenceStrategy(ConfidenceStrategy.BOOTSTRAP);
+        return specification.evalDistanceExpressionCI("d", "p", 3, 1);
+    }
+
+    @Test
+    void specificationsDoNotBootstrapDecidedAtoms() {
+        double[] fresh = intervalAfterEvaluation(ConfidenceStrategy.ANALYTIC_THEN_BOOTSTRAP);
+        assertArrayEquals(fresh, intervalAfterEvaluation(ConfidenceStrategy.ANALYTIC));
+        assertFalse(fresh[1] == intervalAfterEvaluation(ConfidenceStrategy.BOOTSTRAP)[1]);
+        assertThrows(NullPointerException.class, () -> new SystemSpecification(RandomWalk.system(0.0), Map.of(), Map.of(), Map.of(), Map.of()).setConfidenceStrategy(null));
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EvolutionSequenceStoreTest {
+
+    final int x = 0;
+    final int y = 1;
+    final int ES_SAMPLE_SIZE = 50;
+    final Perturbation P = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble()))));
+
+    // Two variables: x is incremented by a random value in [0,1) at each step, y is its copy bounded in [0,5]
+    Function<RandomGenerator, SystemState> getGenerator() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.doTick(registry.get("Ctrl"))
+        );
+        Controller controller = registry.reference("Ctrl");
+        DataStateFunction environment = (rg, ds) -> {
+            double v = ds.get(x) + rg.nextDouble();
+            return ds.apply(List.of(new DataStateUpdate(x, v), new DataStateUpdate(y, v)));
+        };
+        return rg -> new ControlledSystem(controller, environment, new DataState(new DataRange[]{ new DataRange(), new DataRange(0, 5) }, new double[]{ 0.0, 0.0 }));
+    }
+
+    @Test
+    void storedSequenceEqualsGeneratedSequence() throws IOException {
+        Path file = Files.createTempFile("stark", ".seq");
+        file.toFile().deleteOnExit();
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(3), getGenerator(), ES_SAMPLE_SIZE);
+        EvolutionSequenceStore.write(file, sequence, 10);
+        EvolutionSequence stored = EvolutionSequenceStore.open(file);
+        assertEquals(10, stored.length());
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(sequence.evalPenaltyFunction(ds -> ds.get(x), i), stored.evalPenaltyFunction(ds -> ds.get(x), i));
+            assertArrayEquals(sequence.evalPenaltyFunction(ds -> ds.get(y), i), stored.evalPenaltyFunction(ds -> ds.get(y), i));
+            assertEquals(i, stored.get(i).stream().findFirst().orElseThrow().getDataState().getStep());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> stored.get(10));
+        assertThrows(UnsupportedOperationException.class, () -> stored.apply(P, 2, 2));
+    }
+
+    @Test
+    void restoredStepsArePerturbedWithoutSamplingTheSource() throws IOException {
+        Path file = Files.createTempFile("stark", ".seq");
+        file.toFile().deleteOnExit();
+        Function<RandomGenerator, SystemState> generator = getGenerator();
+        SystemState model = generator.apply(null);
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(3), generator, ES_SAMPLE_SIZE);
+        EvolutionSequenceStore.write(file, sequence, 5);
+        EvolutionSequence[] source = new EvolutionSequence[1];
+        EvolutionSequence stored = EvolutionSequenceStore.open(file, () -> source[0] = new EvolutionSequence(null, new RandomStreams(3), generator, ES_SAMPLE_SIZE), model::setDataState);
+        EvolutionSequence perturbed = sequence.apply(P, 3, 2);
+        EvolutionSequence storedPerturbed = stored.apply(P, 3, 2);
+        assertEquals(1, source[0].length());
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(perturbed.evalPenaltyFunction(ds -> ds.get(x), i), storedPerturbed.evalPenaltyFunction(ds -> ds.get(x), i));
+        }
+        assertEquals(1, source[0].length());
+    }
+
+    @Test
+    void attachedSequenceUsesSourceWhenNeeded() throws IOException {
+        Path file = Files.createTempFile("stark", ".seq");
+        file.toFile().deleteOnExit();
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(3), getGenerator(), ES_SAMPLE_SIZE);
+        EvolutionSequenceStore.write(file, sequence, 5);
+        EvolutionSequence stored = EvolutionSequenceStore.open(file, () -> new EvolutionSequence(null, new RandomStreams(3), getGenerator(), ES_SAMPLE_SIZE));
+        EvolutionSequence perturbed = sequence.apply(P, 3, 2);
+        EvolutionSequence storedPerturbed = stored.apply(P, 3, 2);
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(sequence.evalPenaltyFunction(ds -> ds.get(x), i), stored.evalPenaltyFunction(ds -> ds.get(x), i));
+            assertEquals(sequence.get(i).distance(ds -> ds.get(x), perturbed.get(i)), stored.get(i).distance(ds -> ds.get(x), storedPerturbed.get(i)));
+        }
+    }
+
+}
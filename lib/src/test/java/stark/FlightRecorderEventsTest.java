@@ -0,0 +1,81 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.distance.AtomicDistanceExpressionLeq;
+import stark.ds.DataStateUpdate;
+import stark.ds.RelationOperator;
+import stark.perturbation.AtomicPerturbation;
+import stark.robtl.AtomicRobustnessFormula;
+import stark.robtl.RobustnessFormula;
+import stark.robtl.ThreeValuedSemanticsVisitor;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderEventsTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 50;
+
+    @Test
+    void eventsAreRecorded() throws IOException {
+        Path file = Files.createTempFile("stark", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("stark.StepGeneration", "stark.Perturbation", "stark.PenaltyEvaluation", "stark.Distance", "stark.Bootstrap", "stark.RobustnessFunctionEvaluation")) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(1), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+            RobustnessFormula formula = new AtomicRobustnessFormula(
+                    new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 1)))),
+                    new AtomicDistanceExpressionLeq(ds -> ds.get(x) / 10),
+                    RelationOperator.LESS_OR_EQUAL_THAN,
+                    0.5);
+            formula.eval(new ThreeValuedSemanticsVisitor()).eval(2, 3, sequence);
+            recording.stop();
+            recording.dump(file);
+            Set<String> recorded = RecordingFile.readAllEvents(file).stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet());
+            assertTrue(recorded.contains("stark.StepGeneration"));
+            assertTrue(recorded.contains("stark.Perturbation"));
+            assertTrue(recorded.contains("stark.PenaltyEvaluation"));
+            assertTrue(recorded.contains("stark.Distance"));
+            assertTrue(recorded.contains("stark.Bootstrap"));
+            List<RecordedEvent> formulae = RecordingFile.readAllEvents(file).stream().filter(e -> e.getEventType().getName().equals("stark.RobustnessFunctionEvaluation")).toList();
+            assertTrue(formulae.stream().anyMatch(e -> e.getInt("step") == 3 && e.getString("operator").equals("AtomicRobustnessFormula")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
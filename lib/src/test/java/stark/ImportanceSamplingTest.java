@@ -0,0 +1,121 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateRandomExpression;
+import stark.ds.DataStateUpdate;
+import stark.ds.LikelihoodRatioGenerator;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportanceSamplingTest {
+
+    final int x = 0;
+    final double SHIFT = 4.0;
+    final DataStateExpression X = ds -> ds.get(x);
+    final Perturbation P = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 0.5))));
+
+    // A standard normal value, sampled from a normal distribution with mean SHIFT when importance sampling is used
+    final DataStateRandomExpression GAUSSIAN = DataStateRandomExpression.biased(
+            (rg, ds) -> rg.nextGaussian(),
+            (rg, ds) -> SHIFT + rg.nextGaussian(),
+            (ds, v) -> Math.exp(-SHIFT * v + SHIFT * SHIFT / 2)
+    );
+
+    // One variable that, at each step, is set to a standard normal value
+    Function<RandomGenerator, SystemState> getGenerator() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.doTick(registry.reference("Ctrl"))
+        );
+        Controller controller = registry.reference("Ctrl");
+        DataStateFunction environment = (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, GAUSSIAN.eval(rg, ds))));
+        return rg -> new ControlledSystem(controller, environment, new DataState(new DataRange[]{ new DataRange() }, new double[]{ 0.0 }));
+    }
+
+    @Test
+    void rareEventsAreEstimatedWithFewSamples() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(3), WeightedSampleSet.generate(new RandomStreams(3), getGenerator(), 2000));
+        WeightedValues values = sequence.get(1).evalWeightedPenaltyFunction(X);
+        // P(X > 4) for a standard normal variable
+        double expected = 3.167e-5;
+        assertEquals(expected, values.probability(v -> v > 4), 0.15 * expected);
+        assertTrue(values.effectiveSampleSize() < 2000);
+        EvolutionSequence plain = new EvolutionSequence(null, new RandomStreams(3), getGenerator(), 2000);
+        // plain Monte Carlo estimates are multiples of 1/2000, hence they are far from the expected value
+        assertTrue(Math.abs(plain.get(1).evalWeightedPenaltyFunction(X).probability(v -> v > 4) - expected) > 0.9 * expected);
+    }
+
+    @Test
+    void weightsArePropagatedToPerturbations() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(5), WeightedSampleSet.generate(new RandomStreams(5), getGenerator(), 200));
+        EvolutionSequence perturbed = sequence.apply(P, 1, 3);
+        assertTrue(perturbed.get(1) instanceof WeightedSampleSet);
+        assertTrue(perturbed.get(2) instanceof WeightedSampleSet);
+        assertEquals(0.5, sequence.get(1).distance(X, perturbed.get(1)), 1.0E-9);
+        assertEquals(0.5, sequence.get(1).distanceLeq(X, perturbed.get(1)), 1.0E-9);
+        assertEquals(0.0, sequence.get(1).distanceGeq(X, perturbed.get(1)), 1.0E-9);
+        double[] ci = sequence.get(1).bootstrapDistance(new DefaultRandomGenerator(11), X, perturbed.get(1), 50, 1.96);
+        assertTrue(ci[0] <= ci[1]);
+        assertTrue(ci[1] > 0.0);
+    }
+
+    @Test
+    void uniformWeightsGiveTheUnweightedDistance() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(7), getGenerator(), 100);
+        SampleSet<SystemState> first = sequence.get(1);
+        SampleSet<SystemState> second = sequence.get(2).replica(2);
+        double[] ones = new double[100];
+        Arrays.fill(ones, 1.0);
+        WeightedSampleSet<SystemState> weighted = new WeightedSampleSet<>(first.stream().toList(), ones);
+        assertEquals(first.distance(X, second), weighted.distance(X, second), 1.0E-9);
+        assertEquals(first.distanceLeq(X, second), weighted.distanceLeq(X, second), 1.0E-9);
+    }
+
+    @Test
+    void biasedExpressionsAreNominalWithoutLikelihoodRatios() {
+        DataState ds = new DataState(new DataRange[]{ new DataRange() }, new double[]{ 0.0 });
+        double nominal = GAUSSIAN.eval(new DefaultRandomGenerator(13), ds);
+        assertEquals(new DefaultRandomGenerator(13).nextGaussian(), nominal);
+        LikelihoodRatioGenerator rg = new LikelihoodRatioGenerator(new DefaultRandomGenerator(13));
+        double biased = GAUSSIAN.eval(rg, ds);
+        assertEquals(nominal + SHIFT, biased, 1.0E-12);
+        assertEquals(Math.exp(-SHIFT * biased + SHIFT * SHIFT / 2), rg.getLikelihoodRatio(), 1.0E-12);
+        assertThrows(IllegalArgumentException.class, () -> rg.weigh(-1.0));
+    }
+
+}
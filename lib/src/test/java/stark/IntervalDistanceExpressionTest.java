@@ -0,0 +1,99 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.distance.*;
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalDistanceExpressionTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 20;
+
+    EvolutionSequence[] sequences(AtomicInteger counter, int seed) {
+        EvolutionSequence seq1 = new EvolutionSequence(RandomWalk.counting(counter), new RandomStreams(seed), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence seq2 = seq1.apply(new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble() - 0.4)))), 0, 1);
+        seq1.get(40);
+        seq2.get(40);
+        return new EvolutionSequence[] { seq1, seq2 };
+    }
+
+    double[] perStep(DistanceExpression expression, int[] steps, EvolutionSequence seq1, EvolutionSequence seq2) {
+        return IntStream.of(steps).mapToDouble(i -> expression.compute(i, seq1, seq2)).toArray();
+    }
+
+    @Test
+    void windowsAreAnsweredLikeTheStepwiseEvaluation() {
+        EvolutionSequence[] seq = sequences(new AtomicInteger(), 1);
+        DistanceExpression atomic = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 20));
+        int[] steps = { 7, 0, 3, 3, 15, 1, 20 };
+        DistanceExpression max = new MaxIntervalDistanceExpression(atomic, 2, 9);
+        DistanceExpression min = new MinIntervalDistanceExpression(atomic, 1, 6);
+        DistanceExpression nested = new MinIntervalDistanceExpression(max, 0, 4);
+        assertArrayEquals(perStep(max, steps, seq[0], seq[1]), max.compute(steps, seq[0], seq[1]));
+        assertArrayEquals(perStep(min, steps, seq[0], seq[1]), min.compute(steps, seq[0], seq[1]));
+        assertArrayEquals(perStep(nested, steps, seq[0], seq[1]), nested.compute(steps, seq[0], seq[1]));
+        assertEquals(0, max.compute(new int[0], seq[0], seq[1]).length);
+        assertThrows(IllegalArgumentException.class, () -> max.compute(new int[] { 1, -1 }, seq[0], seq[1]));
+    }
+
+    @Test
+    void eachCoveredStepIsEvaluatedOnce() {
+        AtomicInteger counter = new AtomicInteger();
+        EvolutionSequence[] seq = sequences(counter, 2);
+        DistanceExpression atomic = new AtomicDistanceExpressionGeq(ds -> Math.min(1.0, ds.get(x) / 20));
+        int[] steps = IntStream.range(0, 10).toArray();
+        counter.set(0);
+        atomic.compute(new int[] { 5 }, seq[0], seq[1]);
+        int perEvaluation = counter.get();
+        counter.set(0);
+        new MaxIntervalDistanceExpression(atomic, 2, 12).compute(steps, seq[0], seq[1]);
+        // the windows starting at 0..9 cover the steps in [2,21)
+        assertEquals(19 * perEvaluation, counter.get());
+        counter.set(0);
+        new MinIntervalDistanceExpression(atomic, 0, 3).compute(new int[] { 0, 10 }, seq[0], seq[1]);
+        assertEquals(6 * perEvaluation, counter.get());
+    }
+
+    @Test
+    void utilEvaluatesEachExpressionOverTheWholeInterval() {
+        EvolutionSequence[] seq = sequences(new AtomicInteger(), 3);
+        DistanceExpression atomic = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 20));
+        DistanceExpression max = new MaxIntervalDistanceExpression(atomic, 0, 5);
+        double[][] values = Util.evalDistanceExpression(seq[0], seq[1], 2, 8, atomic, max);
+        assertEquals(6, values.length);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(atomic.compute(i + 2, seq[0], seq[1]), values[i][0]);
+            assertEquals(max.compute(i + 2, seq[0], seq[1]), values[i][1]);
+        }
+    }
+
+}
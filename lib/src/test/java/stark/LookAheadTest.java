@@ -0,0 +1,151 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookAheadTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 100;
+    final Perturbation P = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble()))));
+
+    @Test
+    void stepsGeneratedAheadAreTheSameGeneratedOnDemand() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(17), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence pipelined = new EvolutionSequence(null, new RandomStreams(17), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        pipelined.setLookAhead(3);
+        EvolutionSequence perturbed = sequence.apply(P, 2, 2);
+        EvolutionSequence pipelinedPerturbed = pipelined.apply(P, 2, 2);
+        assertEquals(3, pipelinedPerturbed.getLookAhead());
+        for (int i = 0; i < 15; i++) {
+            assertArrayEquals(RandomWalk.values(sequence.get(i)), RandomWalk.values(pipelined.get(i)));
+            assertArrayEquals(RandomWalk.values(perturbed.get(i + 2)), RandomWalk.values(pipelinedPerturbed.get(i + 2)));
+        }
+        assertTrue(pipelined.length() >= 15);
+    }
+
+    @Test
+    void futuresAreCompletedWhenStepsAreGenerated() throws ExecutionException, InterruptedException {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(23), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence pipelined = new EvolutionSequence(null, new RandomStreams(23), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        pipelined.setLookAhead(2);
+        CompletableFuture<SampleSet<SystemState>> future = pipelined.getAsync(10);
+        assertArrayEquals(RandomWalk.values(sequence.get(10)), RandomWalk.values(future.get()));
+        assertArrayEquals(RandomWalk.values(sequence.get(4)), RandomWalk.values(pipelined.getAsync(4).get()));
+        assertArrayEquals(RandomWalk.values(sequence.get(5)), RandomWalk.values(sequence.getAsync(5).get()));
+    }
+
+    @Test
+    void disablingTheLookAheadWaitsForTheProducer() throws InterruptedException {
+        CountDownLatch producing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch produced = new CountDownLatch(1);
+        SimulationMonitor monitor = new SimulationMonitor() {
+            @Override
+            public void startSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public void endSamplingsOfStep(int step) {
+                if (Thread.currentThread().getName().equals("stark-sequence-producer")) {
+                    produced.countDown();
+                }
+            }
+
+            @Override
+            public boolean hasBeenCancelled() {
+                if (Thread.currentThread().getName().equals("stark-sequence-producer") && (producing.getCount() > 0)) {
+                    producing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return false;
+            }
+        };
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(29), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence pipelined = new EvolutionSequence(monitor, new RandomStreams(29), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        pipelined.setLookAhead(2);
+        pipelined.prefetch(0);
+        producing.await();
+        pipelined.setLookAhead(0);
+        Thread consumer = new Thread(() -> pipelined.generateUpTo(3));
+        consumer.start();
+        while ((consumer.getState() != Thread.State.WAITING)&&(consumer.getState() != Thread.State.TERMINATED)) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        consumer.join();
+        produced.await();
+        assertEquals(4, pipelined.length());
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(RandomWalk.values(sequence.get(i)), RandomWalk.values(pipelined.get(i)));
+        }
+    }
+
+    @Test
+    void errorsOfTheProducerFailTheFuturesAndTheProducerIsRestarted() {
+        CountDownLatch failure = new CountDownLatch(1);
+        SimulationMonitor monitor = new SimulationMonitor() {
+            @Override
+            public void startSamplingsOfStep(int step) {
+                if ((step == 2)&&(failure.getCount() > 0)) {
+                    failure.countDown();
+                    throw new Error("Producer failure");
+                }
+            }
+
+            @Override
+            public void endSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public boolean hasBeenCancelled() {
+                return false;
+            }
+        };
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(31), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence pipelined = new EvolutionSequence(monitor, new RandomStreams(31), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        pipelined.setLookAhead(2);
+        CompletableFuture<SampleSet<SystemState>> future = pipelined.getAsync(5);
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 6; i++) {
+            assertArrayEquals(RandomWalk.values(sequence.get(i)), RandomWalk.values(pipelined.get(i)));
+        }
+    }
+
+}
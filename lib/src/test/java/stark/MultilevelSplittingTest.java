@@ -0,0 +1,121 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultilevelSplittingTest {
+
+    final int x = 0;
+    final int HORIZON = 40;
+    final int TARGET = 24;
+    final DataStateExpression X = ds -> ds.get(x);
+
+    // A symmetric random walk starting from 0
+    Function<RandomGenerator, SystemState> getGenerator() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.doTick(registry.reference("Ctrl"))
+        );
+        Controller controller = registry.reference("Ctrl");
+        DataStateFunction environment = (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + (rg.nextBoolean() ? 1 : -1))));
+        return rg -> new ControlledSystem(controller, environment, new DataState(new DataRange[]{ new DataRange() }, new double[]{ 0.0 }));
+    }
+
+    // Probability that the walk reaches TARGET within HORIZON steps
+    double exactProbability() {
+        int offset = HORIZON;
+        double[] p = new double[2 * HORIZON + 1];
+        p[offset] = 1.0;
+        double reached = 0.0;
+        for (int t = 0; t < HORIZON; t++) {
+            double[] next = new double[p.length];
+            for (int v = 0; v < p.length; v++) {
+                if (p[v] > 0) {
+                    next[v + 1] += p[v] / 2;
+                    next[v - 1] += p[v] / 2;
+                }
+            }
+            reached += next[offset + TARGET];
+            next[offset + TARGET] = 0.0;
+            p = next;
+        }
+        return reached;
+    }
+
+    @Test
+    void splittingEstimatesRareProbabilities() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(1), getGenerator(), 100);
+        MultilevelSplitting splitting = new MultilevelSplitting(X, new double[]{ 6, 11, 15, 18, 21, TARGET }, HORIZON, 2000);
+        SplittingEstimate estimate = splitting.estimate(sequence);
+        double expected = exactProbability();
+        assertEquals(expected, estimate.probability(), 0.2 * expected);
+        assertEquals(6, estimate.conditionalProbabilities().length);
+        assertEquals(12000, estimate.trajectories());
+        assertTrue(estimate.relativeError() < 0.2);
+        // plain Monte Carlo would need many more trajectories for the same variance
+        assertTrue(estimate.effectiveSampleSize() > 10 * estimate.trajectories());
+    }
+
+    @Test
+    void estimatesDoNotDependOnThreads() {
+        MultilevelSplitting splitting = new MultilevelSplitting(X, new double[]{ 5, 10, TARGET }, HORIZON, 500);
+        SampleSet<SystemState> initial = SampleSet.generate(new RandomStreams(2), getGenerator(), 10);
+        SplittingEstimate first = splitting.estimate(new RandomStreams(2), initial, null);
+        SplittingEstimate second = splitting.estimate(new RandomStreams(2), initial, null);
+        assertEquals(first.probability(), second.probability());
+        assertArrayEquals(first.conditionalProbabilities(), second.conditionalProbabilities());
+    }
+
+    @Test
+    void unreachableLevelsGiveZero() {
+        MultilevelSplitting splitting = new MultilevelSplitting(X, new double[]{ 5, HORIZON + 1 }, HORIZON, 100);
+        SplittingEstimate estimate = splitting.estimate(new RandomStreams(3), SampleSet.generate(new RandomStreams(3), getGenerator(), 10), null);
+        assertEquals(0.0, estimate.probability());
+        assertEquals(0.0, estimate.conditionalProbabilities()[1]);
+    }
+
+    @Test
+    void levelsMustBeIncreasing() {
+        assertThrows(IllegalArgumentException.class, () -> new MultilevelSplitting(X, new double[]{ 5, 5 }, HORIZON, 100));
+        assertThrows(IllegalArgumentException.class, () -> new MultilevelSplitting(X, new double[0], HORIZON, 100));
+        assertThrows(IllegalArgumentException.class, () -> new MultilevelSplitting(X, new double[]{ 1 }, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new MultilevelSplitting(X, new double[]{ 1 }, HORIZON, 0));
+        EvolutionSequence sequence = new EvolutionSequence(new DefaultRandomGenerator(), getGenerator(), 10);
+        assertThrows(IllegalArgumentException.class, () -> new MultilevelSplitting(X, new double[]{ 1 }, HORIZON, 10).estimate(sequence));
+    }
+
+}
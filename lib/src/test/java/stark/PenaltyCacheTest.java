@@ -0,0 +1,124 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PenaltyCacheTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 50;
+
+    DataStateExpression counting(AtomicInteger counter) {
+        return ds -> {
+            counter.incrementAndGet();
+            return ds.get(x);
+        };
+    }
+
+    @Test
+    void penaltiesAreEvaluatedOncePerSampleSet() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(1), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        AtomicInteger counter = new AtomicInteger();
+        DataStateExpression f = counting(counter);
+        SampleSet<SystemState> step = sequence.get(2);
+        SampleSet<SystemState> other = sequence.get(3);
+        double[] values = step.evalPenaltyFunction(f);
+        double distance = step.distance(f, other);
+        step.bootstrapDistance(new DefaultRandomGenerator(1), f, other, 10, 1.96);
+        assertArrayEquals(values, step.evalPenaltyFunction(f));
+        assertEquals(distance, step.distance(f, other));
+        assertEquals(2 * ES_SAMPLE_SIZE, counter.get());
+    }
+
+    @Test
+    void cachedValuesAreNotExposed() {
+        SampleSet<SystemState> step = new EvolutionSequence(null, new RandomStreams(2), RandomWalk.generator(), ES_SAMPLE_SIZE).get(1);
+        DataStateExpression f = ds -> ds.get(x);
+        double[] values = step.evalPenaltyFunction(f);
+        double first = values[0];
+        values[0] = Double.NaN;
+        assertEquals(first, step.evalPenaltyFunction(f)[0]);
+    }
+
+    @Test
+    void functionsAreIdentifiedByIdentity() {
+        SampleSet<SystemState> step = new EvolutionSequence(null, new RandomStreams(3), RandomWalk.generator(), ES_SAMPLE_SIZE).get(1);
+        AtomicInteger counter = new AtomicInteger();
+        step.evalPenaltyFunction(counting(counter));
+        step.evalPenaltyFunction(counting(counter));
+        assertEquals(2 * ES_SAMPLE_SIZE, counter.get());
+    }
+
+    @Test
+    void addingSamplesInvalidatesTheCache() {
+        SampleSet<SystemState> sampleSet = new SampleSet<>();
+        RandomWalk.generator().andThen(s -> { sampleSet.add(s); return s; }).apply(new DefaultRandomGenerator(4));
+        DataStateExpression f = ds -> ds.get(x);
+        assertEquals(1, sampleSet.evalPenaltyFunction(f).length);
+        sampleSet.add(RandomWalk.generator().apply(new DefaultRandomGenerator(5)));
+        assertEquals(2, sampleSet.evalPenaltyFunction(f).length);
+    }
+
+    @Test
+    void theNumberOfCachedEvaluationsIsBounded() {
+        PenaltyCache cache = new PenaltyCache();
+        for (int i = 0; i < 2 * PenaltyCache.MAX_ENTRIES; i++) {
+            double value = i;
+            DataStateExpression f = ds -> value;
+            cache.put(f, new double[1]);
+        }
+        assertEquals(PenaltyCache.MAX_ENTRIES, cache.size());
+    }
+
+    @Test
+    void evictedStepsReleaseTheirCache() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(6), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        sequence.setRetentionPolicy(RetentionPolicy.window(2));
+        AtomicInteger counter = new AtomicInteger();
+        DataStateExpression f = counting(counter);
+        SampleSet<SystemState> first = sequence.get(0);
+        first.evalPenaltyFunction(f);
+        first.evalPenaltyFunction(f);
+        assertEquals(ES_SAMPLE_SIZE, counter.get());
+        sequence.get(5);
+        first.evalPenaltyFunction(f);
+        assertEquals(2 * ES_SAMPLE_SIZE, counter.get());
+    }
+
+    @Test
+    void cacheIsSafeUnderParallelEvaluations() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(7), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        DataStateExpression f = ds -> ds.get(x);
+        double expected = sequence.get(1).distance(f, sequence.get(4));
+        SampleSet<SystemState> other = sequence.get(4);
+        assertTrue(IntStream.range(0, 200).parallel().allMatch(i -> sequence.get(1).distance(f, other) == expected));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class RandomStreamsTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 100;
+    final long SEED = 42;
+    final Perturbation P = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble()))));
+
+    double[][] simulate(boolean columnar) {
+        RandomStreams streams = new RandomStreams(SEED);
+        SampleSet<SystemState> initial = (columnar ? ColumnarSampleSet.generate(streams, RandomWalk.generator(), ES_SAMPLE_SIZE) : SampleSet.generate(streams, RandomWalk.generator(), ES_SAMPLE_SIZE));
+        EvolutionSequence sequence = new EvolutionSequence(null, streams, initial);
+        EvolutionSequence perturbed = sequence.apply(P, 2, 3);
+        double[][] result = new double[10][];
+        for (int i = 0; i < 5; i++) {
+            result[i] = sequence.get(i).stream().mapToDouble(s -> s.getDataState().get(x)).toArray();
+            result[5 + i] = perturbed.get(i + 2).stream().mapToDouble(s -> s.getDataState().get(x)).toArray();
+        }
+        return result;
+    }
+
+    @Test
+    void sequencesDoNotDependOnParallelism() throws ExecutionException, InterruptedException {
+        double[][] parallel = simulate(false);
+        double[][] sequential = new ForkJoinPool(1).submit(() -> simulate(false)).get();
+        for (int i = 0; i < parallel.length; i++) {
+            assertArrayEquals(parallel[i], sequential[i]);
+        }
+    }
+
+    @Test
+    void columnarSequencesUseTheSameStreams() {
+        double[][] list = simulate(false);
+        double[][] columnar = simulate(true);
+        for (int i = 0; i < list.length; i++) {
+            assertArrayEquals(list[i], columnar[i]);
+        }
+    }
+
+    @Test
+    void streamsOfDifferentSamplesAreDifferent() {
+        RandomStreams streams = new RandomStreams(SEED);
+        assertFalse(streams.get(1, 0).nextDouble() == streams.get(1, 1).nextDouble());
+        assertFalse(streams.get(1, 0).nextDouble() == streams.get(2, 0).nextDouble());
+        assertFalse(streams.get(1, 0).nextDouble() == streams.fork(1).get(1, 0).nextDouble());
+    }
+
+}
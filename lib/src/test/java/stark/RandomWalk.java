@@ -0,0 +1,123 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.controller.Controller;
+import stark.controller.ControllerRegistry;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The model shared by the tests: one variable that, at each step, is incremented by a random value in [0,1).
+ */
+final class RandomWalk {
+
+    static final int X = 0;
+
+    private RandomWalk() {
+    }
+
+    private static Controller controller() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("Ctrl",
+                Controller.doTick(registry.reference("Ctrl"))
+        );
+        return registry.reference("Ctrl");
+    }
+
+    private static DataStateFunction environment() {
+        return (rg, ds) -> ds.apply(List.of(new DataStateUpdate(X, ds.get(X) + rg.nextDouble())));
+    }
+
+    private static DataState state(double initial) {
+        return new DataState(new DataRange[]{ new DataRange() }, new double[]{ initial });
+    }
+
+    /**
+     * Returns the system where the variable starts at the given value.
+     */
+    static ControlledSystem system(double initial) {
+        return new ControlledSystem(controller(), environment(), state(initial));
+    }
+
+    /**
+     * Returns the generator of the systems where the variable starts at a random value in [0,1).
+     */
+    static Function<RandomGenerator, SystemState> generator() {
+        Controller controller = controller();
+        DataStateFunction environment = environment();
+        return rg -> new ControlledSystem(controller, environment, state(rg.nextDouble()));
+    }
+
+    /**
+     * Returns the generator of the systems where the variable starts at the given value.
+     */
+    static Function<RandomGenerator, SystemState> generator(double initial) {
+        Controller controller = controller();
+        DataStateFunction environment = environment();
+        return rg -> new ControlledSystem(controller, environment, state(initial));
+    }
+
+    /**
+     * Returns the values of the variable in the given sample set.
+     */
+    static double[] values(SampleSet<SystemState> sampleSet) {
+        return sampleSet.stream().mapToDouble(s -> s.getDataState().get(X)).toArray();
+    }
+
+    /**
+     * Returns a monitor counting, in <code>counter</code>, how many times cancellation is checked.
+     * The monitor is cancelled once it has been checked more than <code>checks</code> times.
+     */
+    static SimulationMonitor cancelledAfter(AtomicInteger counter, int checks) {
+        return new SimulationMonitor() {
+            @Override
+            public void startSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public void endSamplingsOfStep(int step) {
+            }
+
+            @Override
+            public boolean hasBeenCancelled() {
+                return counter.incrementAndGet() > checks;
+            }
+        };
+    }
+
+    /**
+     * Returns a monitor counting, in <code>counter</code>, how many times cancellation is checked.
+     */
+    static SimulationMonitor counting(AtomicInteger counter) {
+        return cancelledAfter(counter, Integer.MAX_VALUE);
+    }
+
+}
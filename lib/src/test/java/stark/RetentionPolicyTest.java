@@ -0,0 +1,86 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.ds.DataRange;
+import stark.ds.DataStateBlock;
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetentionPolicyTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 50;
+    final Perturbation P = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble()))));
+
+    @Test
+    void droppedStepsCannotBeAccessed() {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(1), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        sequence.setRetentionPolicy(RetentionPolicy.window(5));
+        sequence.generateUpTo(20);
+        assertEquals(21, sequence.length());
+        assertThrows(IllegalStateException.class, () -> sequence.get(15));
+        assertEquals(ES_SAMPLE_SIZE, sequence.get(16).size());
+        assertEquals(ES_SAMPLE_SIZE, sequence.get(25).size());
+    }
+
+    @Test
+    void spilledStepsAreReadBack() throws IOException {
+        Path directory = Files.createTempDirectory("stark");
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(1), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        EvolutionSequence spilled = new EvolutionSequence(null, new RandomStreams(1), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        spilled.setRetentionPolicy(RetentionPolicy.spill(3, directory));
+        EvolutionSequence perturbed = sequence.apply(P, 12, 2);
+        EvolutionSequence spilledPerturbed = spilled.apply(P, 12, 2);
+        for (int i = 0; i < 20; i++) {
+            assertArrayEquals(sequence.evalPenaltyFunction(ds -> ds.get(x), i), spilled.evalPenaltyFunction(ds -> ds.get(x), i));
+            assertEquals(sequence.get(i).distance(ds -> ds.get(x), perturbed.get(i)), spilled.get(i).distance(ds -> ds.get(x), spilledPerturbed.get(i)));
+        }
+        assertThrows(IllegalStateException.class, () -> spilled.apply(P, 2, 2));
+    }
+
+    @Test
+    void spillFilesCannotBeUsedOnceClosed() throws IOException {
+        SpillFile file = new SpillFile(Files.createTempDirectory("stark"));
+        DataStateBlock block = new DataStateBlock(new DataRange[]{ new DataRange() }, 4);
+        long position = file.write(block);
+        assertEquals(4, file.read(position, new DataRange[]{ new DataRange() }, 4).size());
+        file.close();
+        file.close();
+        assertThrows(UncheckedIOException.class, () -> file.write(block));
+        assertThrows(UncheckedIOException.class, () -> file.read(position, new DataRange[]{ new DataRange() }, 4));
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.distance.AtomicDistanceExpressionLeq;
+import stark.distance.DistanceExpression;
+import stark.ds.DataStateExpression;
+import stark.ds.DataStateUpdate;
+import stark.ds.RelationOperator;
+import stark.perturbation.AtomicPerturbation;
+import stark.perturbation.Perturbation;
+import stark.robtl.AtomicRobustnessFormula;
+import stark.robtl.RobustnessFormula;
+import stark.robtl.TruthValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequentialSamplingTest {
+
+    final int x = RandomWalk.X;
+    final Perturbation P = new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 0.5))));
+
+    SystemSpecification getSpecification(double threshold) {
+        DataStateExpression penalty = ds -> ds.get(x) / 10;
+        DistanceExpression distance = new AtomicDistanceExpressionLeq(penalty);
+        RobustnessFormula formula = new AtomicRobustnessFormula(P, distance, RelationOperator.LESS_THAN, threshold);
+        SystemSpecification specification = new SystemSpecification(RandomWalk.system(0.0), Map.of("x", penalty), Map.of("phi", formula), Map.of("p", P), Map.of("d", distance));
+        specification.setRandomStreams(11);
+        specification.setRand(11);
+        specification.setSize(20);
+        return specification;
+    }
+
+    @Test
+    void batchesReuseTheSamplesAlreadyGenerated() {
+        SystemSpecification plain = getSpecification(0.1);
+        SystemSpecification sequential = getSpecification(0.1);
+        sequential.setSequentialSampling(0.01, 100);
+        BatchedEvolutionSequence sequence = (BatchedEvolutionSequence) sequential.getSequence();
+        double[] before = RandomWalk.values(sequence.get(5));
+        assertArrayEquals(RandomWalk.values(plain.getSequence().get(5)), before);
+        EvolutionSequence perturbed = sequence.apply(P, 2, 3);
+        assertSame(perturbed, sequence.apply(P, 2, 3));
+        assertEquals(60, perturbed.get(4).size());
+        sequence.addBatch();
+        assertEquals(2, sequence.getBatches());
+        assertEquals(40, sequence.getSampleSize());
+        double[] after = RandomWalk.values(sequence.get(5));
+        assertEquals(40, after.length);
+        for (int i = 0; i < before.length; i++) {
+            assertEquals(before[i], after[i]);
+        }
+        assertEquals(40, sequence.get(8).size());
+        assertEquals(120, perturbed.get(4).size());
+        assertEquals(120, perturbed.get(8).size());
+        assertThrows(UnsupportedOperationException.class, ((BatchedEvolutionSequence) perturbed)::addBatch);
+    }
+
+    @Test
+    void batchesDoNotReplayTheStreamsOfPerturbations() {
+        SystemSpecification plain = getSpecification(0.1);
+        SystemSpecification sequential = getSpecification(0.1);
+        sequential.setSequentialSampling(0.01, 100);
+        BatchedEvolutionSequence sequence = (BatchedEvolutionSequence) sequential.getSequence();
+        sequence.addBatch();
+        EvolutionSequence perturbed = plain.getSequence().apply(P, 1, 1);
+        double[] batch = RandomWalk.values(sequence.get(3));
+        double[] batchBefore = RandomWalk.values(sequence.get(2));
+        double[] perturbation = RandomWalk.values(perturbed.get(3));
+        double[] perturbationBefore = RandomWalk.values(perturbed.get(2));
+        for (int i = 0; i < perturbation.length; i++) {
+            assertTrue(batch[20 + i] - batchBefore[20 + i] != perturbation[i] - perturbationBefore[i]);
+        }
+    }
+
+    @Test
+    void confidenceIntervalsAreRefinedUntilTheyAreNarrowerThanEpsilon() {
+        SystemSpecification specification = getSpecification(0.1);
+        double[] fixed = specification.evalDistanceExpressionCI("d", "p", 3, 1);
+        assertTrue(specification.getSequentialSampleSize(3).isEmpty());
+        specification.setSequentialSampling((fixed[2] - fixed[1]) / 2, 1000);
+        double[] refined = specification.evalDistanceExpressionCI("d", "p", 3, 1);
+        assertTrue(refined[2] - refined[1] <= (fixed[2] - fixed[1]) / 2);
+        int size = specification.getSequentialSampleSize(3).getAsInt();
+        assertTrue(size > 20);
+        assertTrue(size <= 1000);
+        assertEquals(size, specification.getSamplesAt(3).size());
+    }
+
+    @Test
+    void threeValuedEvaluationGrowsUntilTheVerdictIsDecidedOrTheMaximumIsReached() {
+        SystemSpecification specification = getSpecification(0.06);
+        assertEquals(TruthValues.UNKNOWN, specification.evalThreeValuedSemantic("phi", 1, 3));
+        specification.setSequentialSampling(0.001, 2000);
+        assertEquals(TruthValues.TRUE, specification.evalThreeValuedSemantic("phi", 1, 3));
+        int size = specification.getSequentialSampleSize(3).getAsInt();
+        assertTrue(size > 20);
+        assertTrue(size <= 2000);
+        SystemSpecification bounded = getSpecification(0.06);
+        bounded.setSequentialSampling(0.001, 20);
+        assertEquals(TruthValues.UNKNOWN, bounded.evalThreeValuedSemantic("phi", 1, 3));
+        assertEquals(20, bounded.getSequentialSampleSize(3).getAsInt());
+        assertThrows(IllegalArgumentException.class, () -> bounded.setSequentialSampling(0.1, 10));
+    }
+
+    @Test
+    void sequentialSamplingRejectsRetentionPoliciesAndLookAhead() {
+        SystemSpecification retained = getSpecification(0.1);
+        retained.setRetentionPolicy(RetentionPolicy.window(2));
+        retained.setSequentialSampling(0.01, 100);
+        assertThrows(IllegalStateException.class, retained::generateSequence);
+        SystemSpecification pipelined = getSpecification(0.1);
+        pipelined.setLookAhead(2);
+        pipelined.setSequentialSampling(0.01, 100);
+        assertThrows(IllegalStateException.class, pipelined::generateSequence);
+        pipelined.setLookAhead(0);
+        pipelined.generateSequence();
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.distance.AtomicDistanceExpressionLeq;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationMonitorTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 100;
+
+    @Test
+    void cancellationStopsTheSamplingOfAStep() {
+        EvolutionSequence sequence = new EvolutionSequence(RandomWalk.cancelledAfter(new AtomicInteger(), ES_SAMPLE_SIZE * 3 + 50), new RandomStreams(3), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        assertThrows(SimulationCancelledException.class, () -> sequence.generateUpTo(10));
+        assertEquals(4, sequence.length());
+        EvolutionSequence pipelined = new EvolutionSequence(RandomWalk.cancelledAfter(new AtomicInteger(), 0), new RandomStreams(3), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        pipelined.setLookAhead(2);
+        assertThrows(SimulationCancelledException.class, () -> pipelined.get(5));
+    }
+
+    @Test
+    void cancellationStopsDistanceEvaluations() {
+        ConsoleMonitor monitor = new ConsoleMonitor("test", new PrintStream(new ByteArrayOutputStream()));
+        EvolutionSequence sequence = new EvolutionSequence(monitor, new RandomStreams(3), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        AtomicDistanceExpressionLeq expression = new AtomicDistanceExpressionLeq(ds -> ds.get(x));
+        sequence.generateUpTo(3);
+        assertEquals(0.0, expression.compute(0, 3, sequence, sequence)[3]);
+        monitor.cancel();
+        assertThrows(SimulationCancelledException.class, () -> expression.compute(0, 3, sequence, sequence));
+        assertThrows(SimulationCancelledException.class, () -> expression.evalCI(new DefaultRandomGenerator(), 2, sequence, sequence, 10, 1.96));
+        assertThrows(SimulationCancelledException.class, () -> sequence.get(4));
+    }
+
+    @Test
+    void samplingStatisticsAreReported() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        EvolutionSequence sequence = new EvolutionSequence(new ConsoleMonitor("test", new PrintStream(buffer)), new RandomStreams(3), RandomWalk.generator(0.0), ES_SAMPLE_SIZE);
+        sequence.generateUpTo(2);
+        String output = buffer.toString();
+        assertTrue(output.contains("test: Step 0, 100 samples"));
+        assertTrue(output.contains("test: Step 1, 100 samples"));
+        assertTrue(output.contains("samples/s"));
+    }
+
+}
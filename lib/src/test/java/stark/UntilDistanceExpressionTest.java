@@ -0,0 +1,134 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark;
+
+import stark.distance.*;
+import stark.ds.DataStateUpdate;
+import stark.perturbation.AtomicPerturbation;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UntilDistanceExpressionTest {
+
+    final int x = RandomWalk.X;
+    final int ES_SAMPLE_SIZE = 20;
+    final int M = 5;
+
+    // The quadratic evaluation of the until operator
+    static double expected(DistanceExpression left, DistanceExpression right, int from, int to, EvolutionSequence seq1, EvolutionSequence seq2) {
+        double res = 1.0;
+        for (int i = from; i < to; i++) {
+            double resL = 0.0;
+            for (int j = from; j < i; j++) {
+                resL = Math.max(resL, left.compute(j, seq1, seq2));
+            }
+            res = Math.min(res, Math.max(right.compute(i, seq1, seq2), resL));
+        }
+        return res;
+    }
+
+    @Test
+    void untilIsComputedWithALinearNumberOfEvaluations() {
+        AtomicInteger counter = new AtomicInteger();
+        EvolutionSequence seq1 = new EvolutionSequence(RandomWalk.counting(counter), new RandomStreams(1), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence seq2 = seq1.apply(new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + rg.nextDouble() - 0.4)))), 0, 1);
+        seq1.get(25);
+        seq2.get(25);
+        DistanceExpression left = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 20));
+        DistanceExpression right = new AtomicDistanceExpressionGeq(ds -> Math.min(1.0, ds.get(x) / 20));
+        UntilDistanceExpression until = new UntilDistanceExpression(left, 2, 12, right);
+        for (int step = 0; step < 3; step++) {
+            double value = expected(left, right, 2 + step, 12 + step, seq1, seq2);
+            counter.set(0);
+            assertEquals(value, until.compute(step, seq1, seq2));
+            assertEquals(2 * 10 - 1, counter.get());
+        }
+    }
+
+    @Test
+    void confidenceIntervalsAreUnchangedByTheLinearEvaluation() {
+        EvolutionSequence seq1 = new EvolutionSequence(null, new RandomStreams(2), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence seq2 = seq1.apply(new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 0.5)))), 0, 1);
+        DistanceExpression left = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 20));
+        DistanceExpression right = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 10));
+        UntilDistanceExpression until = new UntilDistanceExpression(left, 1, 9, right);
+        double[] ci = until.evalCI(new DefaultRandomGenerator(3), 1, seq1, seq2, M, 1.96);
+        // the bootstraps are drawn in the order of the quadratic evaluation
+        RandomGenerator rg = new DefaultRandomGenerator(3);
+        double[] expected = {1.0, 1.0, 1.0};
+        for (int i = 2; i < 10; i++) {
+            double[] resR = right.evalCI(rg, i, seq1, seq2, M, 1.96);
+            double[] resL = left.evalCI(rg, i, seq1, seq2, M, 1.96);
+            for (int j = 2; j < i; j++) {
+                double[] partialL = left.evalCI(rg, j, seq1, seq2, M, 1.96);
+                for (int k = 0; k < 3; k++) {
+                    resL[k] = Math.max(resL[k], partialL[k]);
+                }
+            }
+            for (int k = 0; k < 3; k++) {
+                expected[k] = Math.min(expected[k], Math.max(resR[k], resL[k]));
+            }
+        }
+        assertArrayEquals(expected, ci);
+        assertEquals(until.compute(1, seq1, seq2), ci[0], 1.0E-12);
+    }
+
+    @Test
+    void analyticConfidenceIntervalsAreEvaluatedWithALinearNumberOfEvaluations() {
+        EvolutionSequence seq1 = new EvolutionSequence(null, new RandomStreams(4), RandomWalk.generator(), ES_SAMPLE_SIZE);
+        EvolutionSequence seq2 = seq1.apply(new AtomicPerturbation(0, (rg, ds) -> ds.apply(List.of(new DataStateUpdate(x, ds.get(x) + 0.5)))), 0, 1);
+        AtomicInteger counter = new AtomicInteger();
+        // penalties are cached by sample sets, the evaluations are counted on the distance between them
+        DistanceExpression left = new AtomicDistanceExpression(ds -> Math.min(1.0, ds.get(x) / 20), (v1, v2) -> {
+            counter.incrementAndGet();
+            return Math.max(0.0, v2 - v1);
+        });
+        left.evalCI(null, 2, seq1, seq2, M, 1.96, ConfidenceStrategy.ANALYTIC);
+        int evaluation = counter.getAndSet(0);
+        DistanceExpression right = new AtomicDistanceExpressionLeq(ds -> Math.min(1.0, ds.get(x) / 10));
+        UntilDistanceExpression until = new UntilDistanceExpression(left, 1, 9, right);
+        double[] ci = until.evalCI(new DefaultRandomGenerator(5), 1, seq1, seq2, M, 1.96, ConfidenceStrategy.ANALYTIC);
+        assertEquals(8 * evaluation, counter.get());
+        double[] expected = {1.0, 1.0, 1.0};
+        for (int i = 2; i < 10; i++) {
+            double[] resR = right.evalCI(null, i, seq1, seq2, M, 1.96, ConfidenceStrategy.ANALYTIC);
+            double[] resL = left.evalCI(null, i, seq1, seq2, M, 1.96, ConfidenceStrategy.ANALYTIC);
+            for (int j = 2; j < i; j++) {
+                double[] partialL = left.evalCI(null, j, seq1, seq2, M, 1.96, ConfidenceStrategy.ANALYTIC);
+                for (int k = 0; k < 3; k++) {
+                    resL[k] = Math.max(resL[k], partialL[k]);
+                }
+            }
+            for (int k = 0; k < 3; k++) {
+                expected[k] = Math.min(expected[k], Math.max(resR[k], resL[k]));
+            }
+        }
+        assertArrayEquals(expected, ci);
+    }
+
+}
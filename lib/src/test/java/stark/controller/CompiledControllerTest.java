@@ -0,0 +1,113 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.controller;
+
+import stark.ControlledSystem;
+import stark.EvolutionSequence;
+import stark.RandomStreams;
+import stark.SystemState;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateFunction;
+import stark.ds.DataStateUpdate;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledControllerTest {
+
+    final int ES_SAMPLE_SIZE = 100;
+
+    // Three components running in parallel: A uses guards, choices and tick chains on x0,
+    // B uses assignments and random step counts on x1, C uses a nested parallel controller on x2.
+    Controller getController() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("A",
+                Controller.ifThenElse(ds -> ds.get(0) > 5,
+                        Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(0, 0)), registry.reference("A")),
+                        new GenerativeChoiceController(0.5,
+                                Controller.doTick(3, registry.reference("A")),
+                                Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(0, ds.get(0) + rg.nextDouble())), registry.reference("A"))))
+        );
+        registry.set("B",
+                new AssignmentController((rg, ds) -> List.of(new DataStateUpdate(1, ds.get(1) + 1)),
+                        new StepController((rg, ds) -> rg.nextInt(3), new ExecController(registry.reference("B"))))
+        );
+        registry.set("C",
+                Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(2, ds.get(2) + rg.nextDouble())),
+                        new ParallelController(Controller.doTick(registry.reference("C")), ControllerRegistry.NIL))
+        );
+        return new ParallelController(registry.reference("A"), new ProbabilisticInterleavingController(0.3, registry.reference("B"), registry.reference("C")));
+    }
+
+    Function<RandomGenerator, SystemState> getGenerator(UnaryOperator<Controller> compiler) {
+        Controller controller = compiler.apply(getController());
+        DataStateFunction environment = (rg, ds) -> ds.apply(List.of(new DataStateUpdate(0, ds.get(0) + 0.1)));
+        return rg -> new ControlledSystem(controller, environment, new DataState(DataRange.getDefaultRangeArray(3), new double[3]));
+    }
+
+    void assertSameSequences(UnaryOperator<Controller> original, UnaryOperator<Controller> compiler) {
+        EvolutionSequence sequence = new EvolutionSequence(null, new RandomStreams(11), getGenerator(original), ES_SAMPLE_SIZE);
+        EvolutionSequence compiled = new EvolutionSequence(null, new RandomStreams(11), getGenerator(compiler), ES_SAMPLE_SIZE);
+        for (int i = 0; i < 30; i++) {
+            List<SystemState> expected = sequence.get(i).stream().toList();
+            List<SystemState> actual = compiled.get(i).stream().toList();
+            for (int j = 0; j < ES_SAMPLE_SIZE; j++) {
+                for (int v = 0; v < 3; v++) {
+                    assertEquals(expected.get(j).getDataState().get(v), actual.get(j).getDataState().get(v));
+                }
+            }
+        }
+    }
+
+    @Test
+    void compiledControllersBehaveLikeTheOriginalOnes() {
+        assertSameSequences(c -> c, Controller::compile);
+    }
+
+    @Test
+    void compiledControllersCanRunInsideOpaqueComponents() {
+        // The inner compiled controller is stepped while the outer one is using the buffers of the thread
+        Controller opaque = (rg, ds) -> Controller.compile(getController()).next(rg, ds);
+        assertSameSequences(c -> new ParallelController(c, getController()), c -> Controller.compile(new ParallelController(Controller.compile(c), opaque)));
+    }
+
+    @Test
+    void unguardedRecursionIsRejected() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("A", new ExecController(registry.reference("A")));
+        assertThrows(IllegalArgumentException.class, () -> Controller.compile(registry.reference("A")));
+    }
+
+    @Test
+    void unchangedStatesAreShared() {
+        Controller compiled = Controller.compile(ControllerRegistry.NIL);
+        assertSame(compiled, compiled.next(null, new DataState(1)).next());
+    }
+
+}
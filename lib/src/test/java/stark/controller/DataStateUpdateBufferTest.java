@@ -0,0 +1,86 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.controller;
+
+import stark.DefaultRandomGenerator;
+import stark.ds.DataRange;
+import stark.ds.DataState;
+import stark.ds.DataStateUpdate;
+import stark.ds.DataStateUpdateBuffer;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStateUpdateBufferTest {
+
+    Controller getController() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.set("A",
+                new AssignmentController((rg, ds) -> List.of(new DataStateUpdate(0, rg.nextDouble())),
+                        new GenerativeChoiceController(0.5,
+                                Controller.doTick(2, registry.reference("A")),
+                                Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(1, rg.nextDouble())), registry.reference("A"))))
+        );
+        registry.set("B",
+                Controller.doAction((rg, ds) -> List.of(new DataStateUpdate(2, rg.nextDouble()), new DataStateUpdate(0, -1)),
+                        new StepController((rg, ds) -> rg.nextInt(2), registry.reference("B")))
+        );
+        return new ParallelController(registry.reference("A"), new ProbabilisticInterleavingController(0.4, registry.reference("B"), ControllerRegistry.NIL));
+    }
+
+    @Test
+    void bufferedStepsProduceTheSameUpdatesOfEffectSteps() {
+        RandomGenerator rg1 = new DefaultRandomGenerator(3);
+        RandomGenerator rg2 = new DefaultRandomGenerator(3);
+        DataState state = new DataState(DataRange.getDefaultRangeArray(3), new double[3]);
+        Controller listController = getController();
+        Controller bufferController = getController();
+        DataStateUpdateBuffer buffer = new DataStateUpdateBuffer();
+        for (int i = 0; i < 100; i++) {
+            EffectStep<Controller> step = listController.next(rg1, state);
+            buffer.clear();
+            bufferController = bufferController.next(rg2, state, buffer);
+            listController = step.next();
+            assertEquals(step.effect().size(), buffer.size());
+            for (int k = 0; k < buffer.size(); k++) {
+                assertEquals(step.effect().get(k).getIndex(), buffer.getIndex(k));
+                assertEquals(step.effect().get(k).getValue(), buffer.getValue(k));
+            }
+            state = state.apply(step.effect());
+        }
+    }
+
+    @Test
+    void buffersCanBeMergedAndPrepended() {
+        DataStateUpdateBuffer buffer = new DataStateUpdateBuffer(1).add(0, 1.0).add(1, 2.0);
+        DataStateUpdateBuffer other = new DataStateUpdateBuffer().add(2, 3.0).add(3, 4.0);
+        buffer.insertAll(1, other).addAll(other);
+        assertArrayEquals(new int[] {0, 2, 3, 1, 2, 3}, new int[] {buffer.getIndex(0), buffer.getIndex(1), buffer.getIndex(2), buffer.getIndex(3), buffer.getIndex(4), buffer.getIndex(5)});
+        assertEquals(4.0, buffer.getValue(2));
+        assertEquals(2.0, buffer.getValue(3));
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *                Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStateTest {
+
+    final DataRange[] ranges = new DataRange[]{ new DataRange(0, 1), new DataRange(), new DataRange(-1, 1) };
+
+    @Test
+    void updatesAreClampedAndTimeIsPreserved() {
+        DataState state = new DataState(ranges, new double[]{ 0.5, 2.0, 0.0 }, 1.0, 2.0, 3.0, 4.0);
+        state.setStep(5);
+        DataState fromList = state.apply(List.of(new DataStateUpdate(0, 3.0), new DataStateUpdate(2, -4.0)));
+        DataState fromBuffer = state.apply(DataStateUpdateBuffer.scratch().add(0, 3.0).add(2, -4.0));
+        for (DataState ds : List.of(fromList, fromBuffer)) {
+            assertEquals(1.0, ds.get(0));
+            assertEquals(2.0, ds.get(1));
+            assertEquals(-1.0, ds.get(2));
+            assertEquals(2.0, ds.getTimeStep());
+            assertEquals(3.0, ds.getTimeReal());
+            assertEquals(5, ds.getStep());
+        }
+        assertEquals(0.5, state.get(0));
+    }
+
+    @Test
+    void scratchBufferIsClearedAndGrows() {
+        DataStateUpdateBuffer buffer = DataStateUpdateBuffer.scratch();
+        for (int i = 0; i < 20; i++) {
+            buffer.add(1, i);
+        }
+        assertEquals(20, buffer.size());
+        assertSame(buffer, DataStateUpdateBuffer.scratch());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void emptyUpdatesShareTheState() {
+        DataState state = new DataState(ranges, new double[]{ 0.5, 2.0, 0.0 });
+        assertSame(state, DataState.applyOrShare(state, List.of()));
+        assertNotSame(state, state.copy());
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.DefaultRandomGenerator;
+import stark.EvolutionSequence;
+import stark.RandomStreams;
+import stark.SampleSet;
+import stark.SystemState;
+import stark.distance.AtomicDistanceExpression;
+import stark.distance.DistanceExpression;
+import stark.ds.DataState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApproximateMethodsTest {
+
+    static final int X = 0;
+    static final int Y = 1;
+
+    // Birth and death of an abundant species X, whose stationary mean is 1000, and slow conversion of X into a rare species Y.
+    ReactionNetwork getNetwork() {
+        return new ReactionNetwork(
+                Reaction.massAction("birth", 1000, new int[]{}, new int[]{ X }),
+                Reaction.massAction("death", 1, new int[]{ X }, new int[]{}),
+                Reaction.massAction("conversion", 0.0005, new int[]{ X }, new int[]{ Y }),
+                Reaction.massAction("decay", 0.1, new int[]{ Y }, new int[]{})
+        );
+    }
+
+    EvolutionSequence getSequence(SimulationAlgorithm algorithm) {
+        ReactionNetwork network = getNetwork();
+        return new EvolutionSequence(null, new RandomStreams(3), rg -> new ReactionSystem(network, algorithm, new DataState(new double[]{ 500, 0 })), 300);
+    }
+
+    double mean(SampleSet<SystemState> sampleSet, int variable) {
+        return sampleSet.stream().mapToDouble(s -> s.getDataState().get(variable)).average().orElse(Double.NaN);
+    }
+
+    @Test
+    void tauLeapingSequencesAreCloseToTheExactOne() {
+        EvolutionSequence exact = getSequence(SimulationAlgorithm.nextReaction());
+        EvolutionSequence approximate = getSequence(SimulationAlgorithm.tauLeaping(0.03));
+        DistanceExpression distanceX = new AtomicDistanceExpression(ds -> ds.get(X) / 2000, (v1, v2) -> Math.abs(v2 - v1));
+        DistanceExpression distanceY = new AtomicDistanceExpression(ds -> ds.get(Y) / 20, (v1, v2) -> Math.abs(v2 - v1));
+        for (int step : new int[]{ 1, 5, 10 }) {
+            assertTrue(distanceX.compute(step, exact, approximate) < 0.005);
+            assertTrue(distanceY.compute(step, exact, approximate) < 0.02);
+        }
+    }
+
+    @Test
+    void hybridSequencesFollowTheMeanOfFastSpeciesAndTheDistributionOfSlowOnes() {
+        EvolutionSequence exact = getSequence(SimulationAlgorithm.nextReaction());
+        EvolutionSequence approximate = getSequence(SimulationAlgorithm.hybrid(0.01));
+        DistanceExpression distanceY = new AtomicDistanceExpression(ds -> ds.get(Y) / 20, (v1, v2) -> Math.abs(v2 - v1));
+        for (int step : new int[]{ 1, 5, 10 }) {
+            assertEquals(mean(exact.get(step), X), mean(approximate.get(step), X), 5.0);
+            assertTrue(distanceY.compute(step, exact, approximate) < 0.02);
+        }
+        assertTrue(approximate.get(10).stream().allMatch(s -> s.getDataState().get(Y) >= 0));
+    }
+
+    @Test
+    void tauLeapingNeverMakesSpeciesNegative() {
+        ReactionNetwork network = new ReactionNetwork(
+                Reaction.massAction("consumption", 5, new int[]{ X }, new int[]{ Y })
+        );
+        ReactionSystem system = new ReactionSystem(network, SimulationAlgorithm.tauLeaping(0.5), new DataState(new double[]{ 10000, 0 }));
+        DefaultRandomGenerator rg = new DefaultRandomGenerator(7);
+        SystemState state = system;
+        for (int i = 0; i < 5; i++) {
+            state = state.sampleNext(rg);
+            assertTrue(state.getDataState().get(X) >= 0);
+            assertEquals(10000, state.getDataState().get(X) + state.getDataState().get(Y));
+        }
+        assertEquals(0, state.getDataState().get(X));
+    }
+
+    @Test
+    void poissonSamplesHaveTheExpectedMeanAndVariance() {
+        DefaultRandomGenerator rg = new DefaultRandomGenerator(11);
+        for (double mean : new double[]{ 0.5, 4, 25, 400 }) {
+            int n = 20000;
+            double sum = 0;
+            double squares = 0;
+            for (int i = 0; i < n; i++) {
+                long k = PoissonSampler.sample(rg, mean);
+                sum += k;
+                squares += (double) k * k;
+            }
+            double m = sum / n;
+            double variance = squares / n - m * m;
+            assertEquals(mean, m, 4 * Math.sqrt(mean / n));
+            assertEquals(mean, variance, 0.1 * mean);
+        }
+        assertEquals(Math.log(3628800), PoissonSampler.logFactorial(10), 1e-9);
+        assertEquals(PoissonSampler.logFactorial(39) + Math.log(40), PoissonSampler.logFactorial(40), 1e-9);
+    }
+
+    @Test
+    void accuracyTargetsMustBeInTheUnitInterval() {
+        assertThrows(IllegalArgumentException.class, () -> SimulationAlgorithm.tauLeaping(0));
+        assertThrows(IllegalArgumentException.class, () -> SimulationAlgorithm.hybrid(1.5));
+    }
+
+}
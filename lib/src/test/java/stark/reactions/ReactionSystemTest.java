@@ -0,0 +1,109 @@
+/*
+ * STARK: Software Tool for the Analysis of Robustness in the unKnown environment
+ *
+ *              Copyright (C) 2023.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stark.reactions;
+
+import stark.EvolutionSequence;
+import stark.RandomStreams;
+import stark.SampleSet;
+import stark.SystemState;
+import stark.distance.AtomicDistanceExpression;
+import stark.ds.DataState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactionSystemTest {
+
+    static final int X = 0;
+    static final int Y = 1;
+    static final int BIRTH_RATE = 2;
+
+    // Birth and death of X, with stationary distribution Poisson(BIRTH_RATE/0.5), and dimerisation of X into Y.
+    ReactionNetwork getNetwork() {
+        return new ReactionNetwork(
+                Reaction.massActionAt("birth", BIRTH_RATE, new int[]{}, new int[]{ X }),
+                Reaction.massAction("death", 0.5, new int[]{ X }, new int[]{}),
+                Reaction.massAction("dimerisation", 0.001, new int[]{ X, X }, new int[]{ Y })
+        );
+    }
+
+    EvolutionSequence getSequence(SimulationAlgorithm algorithm, int size) {
+        ReactionNetwork network = getNetwork();
+        return new EvolutionSequence(null, new RandomStreams(5), rg -> new ReactionSystem(network, algorithm, new DataState(new double[]{ 0, 0, 10 })), size);
+    }
+
+    double mean(SampleSet<SystemState> sampleSet, int variable) {
+        return sampleSet.stream().mapToDouble(s -> s.getDataState().get(variable)).average().orElse(Double.NaN);
+    }
+
+    @Test
+    void dependencyGraphContainsTheReactionsReadingModifiedCells() {
+        ReactionNetwork network = getNetwork();
+        assertArrayEquals(new int[]{ 1, 2 }, network.getDependents(0));
+        assertArrayEquals(new int[]{ 1, 2 }, network.getDependents(1));
+        assertArrayEquals(new int[]{ 1, 2 }, network.getDependents(2));
+        assertArrayEquals(new int[]{ X, Y }, network.get(2).getSpecies());
+        assertArrayEquals(new int[]{ X, BIRTH_RATE }, Reaction.massActionAt("r", BIRTH_RATE, new int[]{ X }, new int[]{}).getDependencies());
+    }
+
+    @Test
+    void massActionCountsCombinationsOfReactants() {
+        DataState state = new DataState(new double[]{ 5, 1, 10 });
+        assertEquals(10 * 0.001, getNetwork().get(2).propensity(state), 1e-12);
+        assertEquals(10, getNetwork().get(0).propensity(state), 1e-12);
+        assertEquals(0, getNetwork().get(1).propensity(new DataState(new double[]{ 0, 0, 10 })));
+    }
+
+    @Test
+    void bothAlgorithmsReachTheStationaryMean() {
+        for (SimulationAlgorithm algorithm : new SimulationAlgorithm[]{ SimulationAlgorithm.nextReaction(), SimulationAlgorithm.optimizedDirect() }) {
+            EvolutionSequence sequence = getSequence(algorithm, 500);
+            SampleSet<SystemState> last = sequence.get(20);
+            double x = mean(last, X);
+            double y = mean(last, Y);
+            // every dimerisation removes two molecules of X and produces one of Y
+            assertTrue(Math.abs(x - 20) < 2, "Mean of X: " + x);
+            assertTrue(y > 0);
+            assertEquals(20.0, last.stream().findFirst().get().getDataState().getTimeStep());
+            assertEquals(20, last.stream().findFirst().get().getDataState().getStep());
+        }
+    }
+
+    @Test
+    void algorithmsSampleTheSameDistribution() {
+        EvolutionSequence nextReaction = getSequence(SimulationAlgorithm.nextReaction(), 1000);
+        EvolutionSequence direct = getSequence(SimulationAlgorithm.optimizedDirect(), 1000);
+        double distance = new AtomicDistanceExpression(ds -> ds.get(X) / 40, (v1, v2) -> Math.abs(v2 - v1)).compute(10, nextReaction, direct);
+        assertTrue(distance < 0.03, "Distance: " + distance);
+    }
+
+    @Test
+    void stepsDoNotModifyTheCurrentState() {
+        ReactionSystem system = new ReactionSystem(getNetwork(), SimulationAlgorithm.nextReaction(), new DataState(new double[]{ 0, 0, 10 }));
+        SystemState next = system.sampleNext(new RandomStreams(1).get(0, 0));
+        assertEquals(0, system.getDataState().get(X));
+        assertTrue(next.getDataState().get(X) > 0);
+        assertTrue(next instanceof ReactionSystem);
+    }
+
+}